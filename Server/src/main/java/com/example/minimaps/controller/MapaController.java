@@ -1,14 +1,42 @@
 package com.example.minimaps.controller;
 
 import com.example.minimaps.domain.Ciudad;
+import com.example.minimaps.dto.BfsResponse;
+import com.example.minimaps.dto.CacheEstadisticasResponse;
+import com.example.minimaps.dto.CiudadCercanaDTO;
+import com.example.minimaps.dto.ClustersResponse;
+import com.example.minimaps.dto.GrafoInfoResponse;
+import com.example.minimaps.dto.MapaBinario;
 import com.example.minimaps.dto.MapaResponse;
+import com.example.minimaps.dto.MatrizRequest;
+import com.example.minimaps.dto.MatrizResponse;
 import com.example.minimaps.dto.RutaResponse;
+import com.example.minimaps.dto.VisitaDTO;
+import com.example.minimaps.grafo.GrafoEnMemoria;
+import com.example.minimaps.grafo.GrafoSnapshot;
+import com.example.minimaps.grafo.Rectangulo;
+import com.example.minimaps.service.CacheRutas;
 import com.example.minimaps.service.GrafoService;
+import com.example.minimaps.service.RespuestasSerializadas;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Controlador REST que expone los endpoints del mapa y algoritmos de grafos.
@@ -20,18 +48,84 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class MapaController {
     
+    private static final int CIUDADES_POR_FLUSH = 256;
+    
+    private static final int MAX_CIUDADES_POR_PAGINA = 10_000;
+    
+    private static final int MAX_CELDAS_MATRIZ = 1_000_000;
+    
+    private static final byte[] PREFIJO_SSE = "data: ".getBytes(StandardCharsets.UTF_8);
+    
+    private static final byte[] FIN_SSE = "\n\n".getBytes(StandardCharsets.UTF_8);
+    
+    private static final byte[] FIN_NDJSON = "\n".getBytes(StandardCharsets.UTF_8);
+    
+    private static final String VARIA_SEGUN = HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING;
+    
     private final GrafoService grafoService;
     
+    private final GrafoEnMemoria grafoEnMemoria;
+    
+    private final CacheRutas cacheRutas;
+    
+    private final RespuestasSerializadas respuestasSerializadas;
+    
+    private final ObjectMapper objectMapper;
+    
     /**
-     * GET /api/mapa
+     * GET /api/mapa[?bbox=minLat,minLng,maxLat,maxLng&offset=0&limit=2000]
      * Obtiene el mapa completo con todas las ciudades y rutas.
+     * Con bbox devuelve solo las ciudades dentro del rectángulo y las rutas que las tocan,
+     * de a lo sumo limit ciudades por página (siguienteOffset indica la página siguiente).
+     * Sin bbox la respuesta se serializa una vez por versión del grafo y lleva ETag.
      * 
-     * @return MapaResponse con nodos (ciudades) y aristas (rutas)
+     * @param bbox Rectángulo visible (opcional)
+     * @param offset Ciudades visibles a saltear
+     * @param limite Ciudades por página (entre 1 y {@link #MAX_CIUDADES_POR_PAGINA})
+     * @return MapaResponse con nodos (ciudades) y aristas (rutas), o 304 si no cambió
      */
-    @GetMapping
-    public ResponseEntity<MapaResponse> obtenerMapa() {
-        MapaResponse mapa = grafoService.obtenerMapa();
-        return ResponseEntity.ok(mapa);
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> obtenerMapa(
+            @RequestParam(required = false) String bbox,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(name = "limit", defaultValue = "2000") int limite,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if (bbox == null) {
+            return serializada("mapa.json", MediaType.APPLICATION_JSON, ifNoneMatch, acceptEncoding,
+                    () -> json(grafoService.obtenerMapa()));
+        }
+        return ResponseEntity.ok(mapaPorRectangulo(bbox, offset, limite));
+    }
+    
+    /**
+     * GET /api/mapa con Accept: application/octet-stream
+     * Mismo mapa en el formato binario columnar de {@link MapaBinario}.
+     * En consultas por bbox, el total y el offset siguiente van en los headers
+     * X-Total-Nodos y X-Siguiente-Offset.
+     * 
+     * @return Bytes del mapa
+     */
+    @GetMapping(produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<byte[]> obtenerMapaBinario(
+            @RequestParam(required = false) String bbox,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(name = "limit", defaultValue = "2000") int limite,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        if (bbox == null) {
+            return serializada("mapa.bin", MediaType.APPLICATION_OCTET_STREAM, ifNoneMatch, acceptEncoding,
+                    () -> MapaBinario.codificar(grafoService.obtenerMapa()));
+        }
+        MapaResponse mapa = mapaPorRectangulo(bbox, offset, limite);
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok();
+        if (mapa.getTotalNodos() != null) {
+            respuesta.header("X-Total-Nodos", String.valueOf(mapa.getTotalNodos()));
+        }
+        if (mapa.getSiguienteOffset() != null) {
+            respuesta.header("X-Siguiente-Offset", String.valueOf(mapa.getSiguienteOffset()));
+        }
+        return respuesta.body(MapaBinario.codificar(mapa));
     }
     
     /**
@@ -47,6 +141,19 @@ public class MapaController {
         return ResponseEntity.ok(resultado);
     }
     
+    /**
+     * GET /api/mapa/bfs/niveles?origen=X
+     * Ejecuta BFS desde una ciudad origen e informa el nivel de cada ciudad.
+     * 
+     * @param origen ID de la ciudad origen
+     * @return BfsResponse con las ciudades en orden BFS y niveles[i] para la i-ésima ciudad
+     */
+    @GetMapping("/bfs/niveles")
+    public ResponseEntity<BfsResponse> bfsPorNiveles(@RequestParam String origen) {
+        BfsResponse resultado = grafoService.bfsPorNiveles(origen);
+        return ResponseEntity.ok(resultado);
+    }
+    
     /**
      * GET /api/mapa/dfs?origen=X
      * Ejecuta DFS desde una ciudad origen.
@@ -61,42 +168,475 @@ public class MapaController {
     }
     
     /**
-     * GET /api/mapa/dijkstra?origen=X&destino=Y
+     * GET /api/mapa/bfs/stream?origen=X[&limit=N][&maxDepth=D]
+     * Transmite el BFS mientras se calcula: una línea JSON por ciudad (application/x-ndjson)
+     * o un evento por ciudad si se pide Accept: text/event-stream.
+     * 
+     * @param origen ID de la ciudad origen
+     * @param limite Máximo de ciudades a enviar (0 = sin límite)
+     * @param maxProfundidad Nivel máximo a visitar (-1 = sin límite)
+     * @param accept Header Accept, para elegir entre NDJSON y SSE
+     * @return Cuerpo que se escribe a medida que avanza el recorrido
+     */
+    @GetMapping(value = "/bfs/stream", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+    public ResponseEntity<StreamingResponseBody> bfsStream(
+            @RequestParam String origen,
+            @RequestParam(name = "limit", defaultValue = "0") int limite,
+            @RequestParam(name = "maxDepth", defaultValue = "-1") int maxProfundidad,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return transmitir(accept, emitir -> grafoService.bfsIncremental(origen, limite, maxProfundidad, emitir));
+    }
+    
+    /**
+     * GET /api/mapa/dfs/stream?origen=X[&limit=N][&maxDepth=D]
+     * Transmite el DFS mientras se calcula, en NDJSON o SSE igual que /bfs/stream.
+     * 
+     * @param origen ID de la ciudad origen
+     * @param limite Máximo de ciudades a enviar (0 = sin límite)
+     * @param maxProfundidad Profundidad máxima en el árbol DFS (-1 = sin límite)
+     * @param accept Header Accept, para elegir entre NDJSON y SSE
+     * @return Cuerpo que se escribe a medida que avanza el recorrido
+     */
+    @GetMapping(value = "/dfs/stream", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE })
+    public ResponseEntity<StreamingResponseBody> dfsStream(
+            @RequestParam String origen,
+            @RequestParam(name = "limit", defaultValue = "0") int limite,
+            @RequestParam(name = "maxDepth", defaultValue = "-1") int maxProfundidad,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return transmitir(accept, emitir -> grafoService.dfsIncremental(origen, limite, maxProfundidad, emitir));
+    }
+    
+    /**
+     * GET /api/mapa/dijkstra?origen=X&destino=Y[&engine=dijkstra|bidi|astar|alt|ch]
      * Calcula el camino mínimo entre dos ciudades usando Dijkstra.
+     * El parámetro opcional engine elige otro motor que produce el mismo resultado.
+     * En lugar de un ID se pueden pasar coordenadas (origenLat/origenLng, destinoLat/destinoLng):
+     * se usa la ciudad más cercana.
      * 
      * @param origen ID de la ciudad origen
      * @param destino ID de la ciudad destino
+     * @param motor Motor de búsqueda (por defecto Dijkstra clásico)
      * @return RutaResponse con el camino mínimo y distancia total
      */
     @GetMapping("/dijkstra")
     public ResponseEntity<RutaResponse> dijkstra(
-            @RequestParam String origen,
-            @RequestParam String destino) {
-        RutaResponse ruta = grafoService.dijkstra(origen, destino);
+            @RequestParam(required = false) String origen,
+            @RequestParam(required = false) Double origenLat,
+            @RequestParam(required = false) Double origenLng,
+            @RequestParam(required = false) String destino,
+            @RequestParam(required = false) Double destinoLat,
+            @RequestParam(required = false) Double destinoLng,
+            @RequestParam(name = "engine", defaultValue = "dijkstra") String motor) {
+        origen = ciudad("origen", origen, origenLat, origenLng);
+        destino = ciudad("destino", destino, destinoLat, destinoLng);
+        RutaResponse ruta = switch (motor) {
+            case "dijkstra" -> grafoService.dijkstra(origen, destino);
+            case "bidi" -> grafoService.dijkstraBidireccional(origen, destino);
+            case "astar" -> grafoService.astar(origen, destino);
+            case "alt" -> grafoService.alt(origen, destino);
+            case "ch" -> grafoService.contraccionJerarquica(origen, destino);
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Motor desconocido: " + motor);
+        };
+        return ResponseEntity.ok(ruta);
+    }
+    
+    /**
+     * GET /api/mapa/astar?origen=X&destino=Y
+     * Calcula el camino mínimo entre dos ciudades usando A* con heurística geográfica.
+     * Acepta coordenadas en lugar de IDs, igual que /dijkstra.
+     * 
+     * @param origen ID de la ciudad origen
+     * @param destino ID de la ciudad destino
+     * @return RutaResponse con el camino mínimo, distancia total y nodos asentados
+     */
+    @GetMapping("/astar")
+    public ResponseEntity<RutaResponse> astar(
+            @RequestParam(required = false) String origen,
+            @RequestParam(required = false) Double origenLat,
+            @RequestParam(required = false) Double origenLng,
+            @RequestParam(required = false) String destino,
+            @RequestParam(required = false) Double destinoLat,
+            @RequestParam(required = false) Double destinoLng) {
+        RutaResponse ruta = grafoService.astar(ciudad("origen", origen, origenLat, origenLng),
+                ciudad("destino", destino, destinoLat, destinoLng));
         return ResponseEntity.ok(ruta);
     }
     
     /**
      * GET /api/mapa/prim
      * Calcula el Árbol de Expansión Mínima usando el algoritmo de Prim.
+     * La respuesta se serializa una vez por versión del grafo y lleva ETag.
      * 
-     * @return MapaResponse con las aristas del MST
+     * @return MapaResponse con las aristas del MST (ya serializado), o 304 si no cambió
      */
-    @GetMapping("/prim")
-    public ResponseEntity<MapaResponse> prim() {
-        MapaResponse mst = grafoService.prim();
-        return ResponseEntity.ok(mst);
+    @GetMapping(value = "/prim", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> prim(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return serializada("prim.json", MediaType.APPLICATION_JSON, ifNoneMatch, acceptEncoding,
+                () -> json(grafoService.prim()));
+    }
+    
+    /**
+     * GET /api/mapa/prim con Accept: application/octet-stream
+     * Mismo árbol en el formato binario de {@link MapaBinario}.
+     */
+    @GetMapping(value = "/prim", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<byte[]> primBinario(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return serializada("prim.bin", MediaType.APPLICATION_OCTET_STREAM, ifNoneMatch, acceptEncoding,
+                () -> MapaBinario.codificar(grafoService.prim()));
     }
     
     /**
      * GET /api/mapa/kruskal
      * Calcula el Árbol de Expansión Mínima usando el algoritmo de Kruskal.
+     * La respuesta se serializa una vez por versión del grafo y lleva ETag.
+     * 
+     * @return MapaResponse con las aristas del MST (ya serializado), o 304 si no cambió
+     */
+    @GetMapping(value = "/kruskal", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> kruskal(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return serializada("kruskal.json", MediaType.APPLICATION_JSON, ifNoneMatch, acceptEncoding,
+                () -> json(grafoService.kruskal()));
+    }
+    
+    /**
+     * GET /api/mapa/kruskal con Accept: application/octet-stream
+     * Mismo árbol en el formato binario de {@link MapaBinario}.
+     */
+    @GetMapping(value = "/kruskal", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<byte[]> kruskalBinario(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return serializada("kruskal.bin", MediaType.APPLICATION_OCTET_STREAM, ifNoneMatch, acceptEncoding,
+                () -> MapaBinario.codificar(grafoService.kruskal()));
+    }
+    
+    /**
+     * GET /api/mapa/boruvka
+     * Calcula el Árbol de Expansión Mínima con Borůvka en paralelo.
+     * Mismo resultado (peso total) que Kruskal, usando todos los núcleos en grafos grandes.
      * 
      * @return MapaResponse con las aristas del MST
      */
-    @GetMapping("/kruskal")
-    public ResponseEntity<MapaResponse> kruskal() {
-        MapaResponse mst = grafoService.kruskal();
+    @GetMapping("/boruvka")
+    public ResponseEntity<MapaResponse> boruvka() {
+        MapaResponse mst = grafoService.boruvka();
         return ResponseEntity.ok(mst);
     }
+    
+    /**
+     * GET /api/mapa/alternativas?origen=X&destino=Y&k=3&maxSolapamiento=0.8
+     * Calcula hasta k rutas alternativas entre dos ciudades, ordenadas por distancia.
+     * Acepta coordenadas en lugar de IDs, igual que /dijkstra.
+     * 
+     * @param origen ID de la ciudad origen
+     * @param destino ID de la ciudad destino
+     * @param k Cantidad de rutas deseada (entre 1 y 10)
+     * @param maxSolapamiento Fracción máxima de distancia que una ruta puede compartir con otra (entre 0 y 1)
+     * @return Lista de RutaResponse, la primera es la más corta
+     */
+    @GetMapping("/alternativas")
+    public ResponseEntity<List<RutaResponse>> alternativas(
+            @RequestParam(required = false) String origen,
+            @RequestParam(required = false) Double origenLat,
+            @RequestParam(required = false) Double origenLng,
+            @RequestParam(required = false) String destino,
+            @RequestParam(required = false) Double destinoLat,
+            @RequestParam(required = false) Double destinoLng,
+            @RequestParam(defaultValue = "3") int k,
+            @RequestParam(defaultValue = "0.8") double maxSolapamiento) {
+        if (k < 1 || k > 10) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "k debe estar entre 1 y 10");
+        }
+        // Escrito así para rechazar también NaN
+        if (!(maxSolapamiento >= 0 && maxSolapamiento <= 1)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "maxSolapamiento debe estar entre 0 y 1");
+        }
+        List<RutaResponse> rutas = grafoService.alternativas(ciudad("origen", origen, origenLat, origenLng),
+                ciudad("destino", destino, destinoLat, destinoLng), k, maxSolapamiento);
+        return ResponseEntity.ok(rutas);
+    }
+    
+    /**
+     * GET /api/mapa/alcance?origen=X&maxKm=300
+     * Obtiene las ciudades alcanzables desde el origen sin superar maxKm.
+     * Acepta coordenadas del origen (origenLat/origenLng) en lugar del ID.
+     * 
+     * @param origen ID de la ciudad origen
+     * @param maxKm Distancia máxima en kilómetros
+     * @return MapaResponse con las ciudades alcanzadas, el árbol de caminos mínimos y distanciasKm
+     */
+    @GetMapping("/alcance")
+    public ResponseEntity<MapaResponse> alcance(
+            @RequestParam(required = false) String origen,
+            @RequestParam(required = false) Double origenLat,
+            @RequestParam(required = false) Double origenLng,
+            @RequestParam double maxKm) {
+        MapaResponse alcance = grafoService.alcance(ciudad("origen", origen, origenLat, origenLng), maxKm);
+        return ResponseEntity.ok(alcance);
+    }
+    
+    /**
+     * GET /api/mapa/clusters?zoom=5[&bbox=minLat,minLng,maxLat,maxLng]
+     * Obtiene las ciudades agrupadas en clusters para un nivel de zoom, con las rutas entre
+     * clusters agregadas. La pirámide de clusters se precalcula al cargar el grafo; mientras
+     * no esté lista responde 503.
+     * 
+     * @param zoom Nivel de zoom del mapa (0 o mayor)
+     * @param bbox Rectángulo visible (opcional)
+     * @return ClustersResponse con nodos (clusters) y aristas (rutas agregadas)
+     */
+    @GetMapping("/clusters")
+    public ResponseEntity<ClustersResponse> clusters(
+            @RequestParam int zoom,
+            @RequestParam(required = false) String bbox) {
+        if (zoom < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "zoom debe ser >= 0");
+        }
+        ClustersResponse clusters = grafoService.clusters(zoom, bbox != null ? rectangulo(bbox) : null);
+        if (clusters == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "La pirámide de clusters todavía se está construyendo");
+        }
+        return ResponseEntity.ok(clusters);
+    }
+    
+    /**
+     * GET /api/mapa/cercanas?lat=-34.6&lng=-58.4&k=5
+     * Obtiene las k ciudades más cercanas a un punto cualquiera del mapa.
+     * 
+     * @param lat Latitud del punto
+     * @param lng Longitud del punto
+     * @param k Cantidad de ciudades (entre 1 y 100)
+     * @return Ciudades de la más cercana a la más lejana, con la distancia en línea recta
+     */
+    @GetMapping("/cercanas")
+    public ResponseEntity<List<CiudadCercanaDTO>> cercanas(
+            @RequestParam double lat,
+            @RequestParam double lng,
+            @RequestParam(defaultValue = "5") int k) {
+        if (k < 1 || k > 100) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "k debe estar entre 1 y 100");
+        }
+        List<CiudadCercanaDTO> cercanas = grafoService.cercanas(lat, lng, k);
+        return ResponseEntity.ok(cercanas);
+    }
+    
+    /**
+     * POST /api/mapa/matriz
+     * Calcula la matriz de distancias entre varios orígenes y destinos.
+     * 
+     * Body: { "origenes": ["bsas", "cordoba"], "destinos": ["salta", "mendoza", "mdq"] }
+     * Ambas listas son obligatorias y no vacías, con a lo sumo un millón de celdas en total.
+     * 
+     * @param request Objeto con las listas de IDs de origen y destino
+     * @return MatrizResponse con distanciasKm[origen][destino]
+     */
+    @PostMapping(value = "/matriz", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<MatrizResponse> matriz(@RequestBody MatrizRequest request) {
+        validarMatriz(request);
+        MatrizResponse matriz = grafoService.matriz(request.getOrigenes(), request.getDestinos());
+        return ResponseEntity.ok(matriz);
+    }
+    
+    /**
+     * POST /api/mapa/matriz con Accept: application/octet-stream
+     * Misma matriz en binario: float32 little-endian por filas (compatible con Float32Array).
+     * Las dimensiones se informan en los headers X-Matriz-Filas y X-Matriz-Columnas.
+     * 
+     * @param request Objeto con las listas de IDs de origen y destino
+     * @return Bytes de la matriz
+     */
+    @PostMapping(value = "/matriz", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<byte[]> matrizBinaria(@RequestBody MatrizRequest request) {
+        validarMatriz(request);
+        float[] plana = grafoService.matrizPlana(request.getOrigenes(), request.getDestinos());
+        ByteBuffer bytes = ByteBuffer.allocate(plana.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        bytes.asFloatBuffer().put(plana);
+        return ResponseEntity.ok()
+                .header("X-Matriz-Filas", String.valueOf(request.getOrigenes().size()))
+                .header("X-Matriz-Columnas", String.valueOf(request.getDestinos().size()))
+                .body(bytes.array());
+    }
+    
+    /**
+     * POST /api/mapa/recargar
+     * Vuelve a leer el grafo desde Neo4j y reemplaza la versión en memoria.
+     * Debe invocarse después de modificar ciudades o rutas en la base de datos.
+     * 
+     * @return Versión publicada con la cantidad de nodos y aristas
+     */
+    @PostMapping("/recargar")
+    public ResponseEntity<GrafoInfoResponse> recargar() {
+        GrafoSnapshot snapshot = grafoEnMemoria.recargar();
+        return ResponseEntity.ok(new GrafoInfoResponse(
+            snapshot.version(),
+            snapshot.numNodos(),
+            snapshot.numAristas()
+        ));
+    }
+    
+    /**
+     * GET /api/mapa/cache
+     * Devuelve el tamaño y los contadores de aciertos, fallos y desalojos de la cache de resultados.
+     * 
+     * @return CacheEstadisticasResponse con el estado de la cache
+     */
+    @GetMapping("/cache")
+    public ResponseEntity<CacheEstadisticasResponse> cache() {
+        return ResponseEntity.ok(cacheRutas.estadisticas());
+    }
+    
+    /**
+     * Escribe cada ciudad visitada apenas se visita. La escritura es bloqueante, así que un
+     * cliente lento frena el recorrido (backpressure) y en memoria queda solo la ciudad actual.
+     * Se vacía el buffer tras la primera ciudad y luego cada {@link #CIUDADES_POR_FLUSH}.
+     */
+    private ResponseEntity<StreamingResponseBody> transmitir(String accept,
+                                                             Consumer<BiPredicate<Ciudad, Integer>> recorrido) {
+        boolean sse = accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+        StreamingResponseBody cuerpo = salida -> {
+            int[] enviadas = { 0 };
+            try {
+                recorrido.accept((ciudad, nivel) -> {
+                    try {
+                        if (sse) {
+                            salida.write(PREFIJO_SSE);
+                        }
+                        salida.write(objectMapper.writeValueAsBytes(new VisitaDTO(ciudad, nivel)));
+                        salida.write(sse ? FIN_SSE : FIN_NDJSON);
+                        if (++enviadas[0] == 1 || enviadas[0] % CIUDADES_POR_FLUSH == 0) {
+                            salida.flush();
+                        }
+                        return true;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            salida.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(sse ? MediaType.TEXT_EVENT_STREAM : MediaType.APPLICATION_NDJSON)
+                .body(cuerpo);
+    }
+    
+    /**
+     * Página del mapa dentro de un rectángulo, validando los parámetros.
+     */
+    private MapaResponse mapaPorRectangulo(String bbox, int offset, int limite) {
+        if (offset < 0 || limite < 1 || limite > MAX_CIUDADES_POR_PAGINA) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "offset debe ser >= 0 y limit estar entre 1 y " + MAX_CIUDADES_POR_PAGINA);
+        }
+        return grafoService.obtenerMapa(rectangulo(bbox), offset, limite);
+    }
+    
+    /**
+     * Responde con los bytes ya serializados para la versión vigente del grafo: 304 si el ETag
+     * coincide con If-None-Match y, si el cliente acepta gzip, la variante comprimida.
+     */
+    private ResponseEntity<byte[]> serializada(String recurso, MediaType tipo, String ifNoneMatch,
+                                               String acceptEncoding, Supplier<byte[]> serializar) {
+        RespuestasSerializadas.Serializada respuesta = respuestasSerializadas.obtener(recurso, serializar);
+        boolean gzip = aceptaGzip(acceptEncoding) && respuesta.gzip().length < respuesta.bytes().length;
+        String etag = gzip ? respuesta.etagGzip() : respuesta.etag();
+        if (coincide(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .header(HttpHeaders.VARY, VARIA_SEGUN)
+                    .build();
+        }
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                .eTag(etag)
+                .header(HttpHeaders.VARY, VARIA_SEGUN)
+                .contentType(tipo);
+        if (gzip) {
+            ok.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return ok.body(gzip ? respuesta.gzip() : respuesta.bytes());
+    }
+    
+    private byte[] json(Object valor) {
+        try {
+            return objectMapper.writeValueAsBytes(valor);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Si el header Accept-Encoding admite gzip (sin q=0).
+     */
+    private static boolean aceptaGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String codificacion : acceptEncoding.split(",")) {
+            String[] partes = codificacion.trim().split(";");
+            if (partes[0].trim().equalsIgnoreCase("gzip")) {
+                return partes.length == 1 || !partes[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Si alguno de los ETags de If-None-Match (o "*") coincide; la comparación es débil, como pide HTTP.
+     */
+    private static boolean coincide(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String candidato : ifNoneMatch.split(",")) {
+            candidato = candidato.trim();
+            if (candidato.startsWith("W/")) {
+                candidato = candidato.substring(2);
+            }
+            if (candidato.equals("*") || candidato.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Rectángulo "minLat,minLng,maxLat,maxLng" de un parámetro bbox.
+     */
+    private static Rectangulo rectangulo(String bbox) {
+        try {
+            return Rectangulo.parse(bbox);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+    
+    /**
+     * ID de la ciudad indicada por parámetro o, si no vino, de la más cercana a las coordenadas.
+     */
+    private String ciudad(String parametro, String id, Double lat, Double lng) {
+        if (id != null) {
+            return id;
+        }
+        if (lat == null || lng == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Falta " + parametro + " o " + parametro + "Lat y " + parametro + "Lng");
+        }
+        return grafoService.ciudadMasCercana(lat, lng);
+    }
+    
+    private static void validarMatriz(MatrizRequest request) {
+        List<String> origenes = request.getOrigenes();
+        List<String> destinos = request.getDestinos();
+        if (origenes == null || origenes.isEmpty() || destinos == null || destinos.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "origenes y destinos no pueden estar vacíos");
+        }
+        if ((long) origenes.size() * destinos.size() > MAX_CELDAS_MATRIZ) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "La matriz no puede superar " + MAX_CELDAS_MATRIZ + " celdas");
+        }
+    }
 }
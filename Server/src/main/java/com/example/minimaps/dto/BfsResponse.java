@@ -0,0 +1,22 @@
+package com.example.minimaps.dto;
+
+import com.example.minimaps.domain.Ciudad;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO con el resultado de un BFS: las ciudades en orden de visita y el nivel de cada una.
+ * niveles[i] es la cantidad de rutas desde el origen hasta orden[i].
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BfsResponse {
+    
+    private List<Ciudad> orden;
+    
+    private int[] niveles;
+}
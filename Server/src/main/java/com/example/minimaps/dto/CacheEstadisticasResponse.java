@@ -0,0 +1,26 @@
+package com.example.minimaps.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el estado y los contadores de la cache de resultados.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheEstadisticasResponse {
+    
+    private boolean habilitada;
+    
+    private int entradas;
+    
+    private long peso;
+    
+    private long aciertos;
+    
+    private long fallos;
+    
+    private long desalojos;
+}
@@ -0,0 +1,20 @@
+package com.example.minimaps.dto;
+
+import com.example.minimaps.domain.Ciudad;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO que representa una ciudad cercana a un punto del mapa.
+ * La distancia es en línea recta (círculo máximo), no por ruta.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CiudadCercanaDTO {
+    
+    private Ciudad ciudad;
+    
+    private double distanciaKm;
+}
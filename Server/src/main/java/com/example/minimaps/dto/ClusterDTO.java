@@ -0,0 +1,34 @@
+package com.example.minimaps.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO que representa un grupo de ciudades cercanas a un nivel de zoom.
+ * Se dibuja como un solo marcador en el centroide de sus ciudades.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClusterDTO {
+    
+    /**
+     * Identificador "zoom/x/y" de la celda del cluster, estable entre recargas del grafo.
+     */
+    private String id;
+    
+    private double lat;
+    
+    private double lng;
+    
+    /**
+     * Cantidad de ciudades del cluster.
+     */
+    private int ciudades;
+    
+    /**
+     * ID de la ciudad con más rutas del cluster (la única si tiene una sola).
+     */
+    private String ciudadId;
+}
@@ -0,0 +1,28 @@
+package com.example.minimaps.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO que representa las rutas entre dos clusters, agregadas en una sola arista.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClusterEdgeDTO {
+    
+    private String origenId;
+    
+    private String destinoId;
+    
+    /**
+     * Distancia de la ruta más corta entre los dos clusters.
+     */
+    private double distanciaKm;
+    
+    /**
+     * Cantidad de rutas (en cualquier sentido) entre los dos clusters.
+     */
+    private int rutas;
+}
@@ -0,0 +1,26 @@
+package com.example.minimaps.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO con los clusters de un nivel de zoom y las aristas agregadas entre ellos.
+ * Tiene la misma forma que {@link MapaResponse} para dibujarse igual en Leaflet.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClustersResponse {
+    
+    /**
+     * Nivel usado: el pedido, o el más detallado de la pirámide si se pidió uno mayor.
+     */
+    private int zoom;
+    
+    private List<ClusterDTO> nodes;
+    
+    private List<ClusterEdgeDTO> edges;
+}
@@ -0,0 +1,20 @@
+package com.example.minimaps.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO con el resumen de la versión del grafo cargada en memoria.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GrafoInfoResponse {
+    
+    private long version;
+    
+    private int nodos;
+    
+    private int aristas;
+}
@@ -0,0 +1,121 @@
+package com.example.minimaps.dto;
+
+import com.example.minimaps.domain.Ciudad;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Formato binario columnar de un {@link MapaResponse}, para mapas grandes.
+ * 
+ * En lugar de repetir los IDs en cada arista y las rutas dentro de cada ciudad, los IDs se
+ * envían una sola vez en una tabla de textos y las aristas los referencian por índice.
+ * Todo es little-endian y cada arreglo empieza alineado a su tamaño, así que en el navegador
+ * se lee con Int32Array / Float64Array sobre el mismo ArrayBuffer, sin copiar:
+ * 
+ * <pre>
+ * int32   magia ("MMAP"), formato (1), nodos n, ids k (k &gt;= n), aristas m, bytes de texto t
+ * int32   inicios[k + n + 1]   posición en el texto de cada ID y después de cada nombre
+ * byte    texto[t]             UTF-8, completado con ceros hasta múltiplo de 8
+ * float64 lat[n], lng[n]
+ * int32   origen[m], destino[m] (completado hasta múltiplo de 8)
+ * float64 distanciaKm[m]
+ * </pre>
+ * 
+ * Los primeros n IDs son los de los nodos, en orden; los siguientes son extremos de aristas que
+ * no vienen como nodo (por ejemplo, fuera del rectángulo pedido) y no tienen coordenadas.
+ */
+public final class MapaBinario {
+    
+    public static final int MAGIA = 'M' | 'M' << 8 | 'A' << 16 | 'P' << 24;
+    
+    public static final int FORMATO = 1;
+    
+    private static final int CABECERA = 6 * Integer.BYTES;
+    
+    private MapaBinario() {
+    }
+    
+    public static byte[] codificar(MapaResponse mapa) {
+        List<Ciudad> nodos = mapa.getNodes();
+        List<EdgeDTO> aristas = mapa.getEdges();
+        int n = nodos.size();
+        int m = aristas.size();
+        
+        // 1. Tabla de IDs: primero los nodos y después los extremos que no son nodos
+        Map<String, Integer> indices = new HashMap<>(n * 2);
+        List<String> ids = new ArrayList<>(n);
+        for (Ciudad ciudad : nodos) {
+            indices.put(ciudad.getId(), ids.size());
+            ids.add(ciudad.getId());
+        }
+        int[] origenes = new int[m];
+        int[] destinos = new int[m];
+        for (int i = 0; i < m; i++) {
+            origenes[i] = indice(aristas.get(i).getOrigenId(), indices, ids);
+            destinos[i] = indice(aristas.get(i).getDestinoId(), indices, ids);
+        }
+        int k = ids.size();
+        byte[][] textos = new byte[k + n][];
+        int bytesTexto = 0;
+        for (int i = 0; i < k; i++) {
+            textos[i] = ids.get(i).getBytes(StandardCharsets.UTF_8);
+            bytesTexto += textos[i].length;
+        }
+        for (int i = 0; i < n; i++) {
+            String nombre = nodos.get(i).getNombre();
+            textos[k + i] = nombre != null ? nombre.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            bytesTexto += textos[k + i].length;
+        }
+        
+        // 2. Escribir las secciones en un único buffer
+        int inicioCoordenadas = alinear(CABECERA + (k + n + 1) * Integer.BYTES + bytesTexto);
+        int inicioDistancias = alinear(inicioCoordenadas + 2 * n * Double.BYTES + 2 * m * Integer.BYTES);
+        ByteBuffer buffer = ByteBuffer.allocate(inicioDistancias + m * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIA).putInt(FORMATO).putInt(n).putInt(k).putInt(m).putInt(bytesTexto);
+        int posicion = 0;
+        for (byte[] texto : textos) {
+            buffer.putInt(posicion);
+            posicion += texto.length;
+        }
+        buffer.putInt(posicion);
+        for (byte[] texto : textos) {
+            buffer.put(texto);
+        }
+        buffer.position(inicioCoordenadas);
+        for (Ciudad ciudad : nodos) {
+            buffer.putDouble(ciudad.getLat());
+        }
+        for (Ciudad ciudad : nodos) {
+            buffer.putDouble(ciudad.getLng());
+        }
+        buffer.asIntBuffer().put(origenes).put(destinos);
+        buffer.position(inicioDistancias);
+        for (EdgeDTO arista : aristas) {
+            buffer.putDouble(arista.getDistanciaKm());
+        }
+        return buffer.array();
+    }
+    
+    private static int indice(String id, Map<String, Integer> indices, List<String> ids) {
+        Integer indice = indices.get(id);
+        if (indice == null) {
+            indice = ids.size();
+            indices.put(id, indice);
+            ids.add(id);
+        }
+        return indice;
+    }
+    
+    /**
+     * Redondea hacia arriba a múltiplo de 8 bytes.
+     */
+    private static int alinear(int bytes) {
+        return (bytes + 7) & ~7;
+    }
+}
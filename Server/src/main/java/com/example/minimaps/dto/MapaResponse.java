@@ -1,11 +1,13 @@
 package com.example.minimaps.dto;
 
 import com.example.minimaps.domain.Ciudad;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * DTO que representa el mapa completo con nodos y aristas.
@@ -25,4 +27,33 @@ public class MapaResponse {
      * Lista de todas las rutas (aristas del grafo).
      */
     private List<EdgeDTO> edges;
+    
+    /**
+     * Distancia desde el origen a cada ciudad (solo en consultas de alcance).
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, Double> distanciasKm;
+    
+    /**
+     * Cantidad de ciudades dentro del rectángulo pedido (solo en consultas por bbox).
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer totalNodos;
+    
+    /**
+     * Offset de la página siguiente, o null si esta es la última (solo en consultas por bbox).
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer siguienteOffset;
+    
+    public MapaResponse(List<Ciudad> nodes, List<EdgeDTO> edges) {
+        this.nodes = nodes;
+        this.edges = edges;
+    }
+    
+    public MapaResponse(List<Ciudad> nodes, List<EdgeDTO> edges, Map<String, Double> distanciasKm) {
+        this.nodes = nodes;
+        this.edges = edges;
+        this.distanciasKm = distanciasKm;
+    }
 }
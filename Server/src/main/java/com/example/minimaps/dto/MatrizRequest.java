@@ -0,0 +1,20 @@
+package com.example.minimaps.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO con los IDs de origen y destino de una matriz de distancias.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MatrizRequest {
+    
+    private List<String> origenes;
+    
+    private List<String> destinos;
+}
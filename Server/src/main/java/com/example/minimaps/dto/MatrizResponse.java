@@ -0,0 +1,23 @@
+package com.example.minimaps.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO que representa una matriz de distancias entre varios orígenes y destinos.
+ * distanciasKm[i][j] es la distancia del origen i al destino j (Infinity si no hay camino).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MatrizResponse {
+    
+    private List<String> origenes;
+    
+    private List<String> destinos;
+    
+    private float[][] distanciasKm;
+}
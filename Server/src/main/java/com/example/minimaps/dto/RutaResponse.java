@@ -1,6 +1,7 @@
 package com.example.minimaps.dto;
 
 import com.example.minimaps.domain.Ciudad;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -26,4 +27,17 @@ public class RutaResponse {
      * Lista ordenada de ciudades que forman el camino desde origen hasta destino.
      */
     private List<Ciudad> camino;
+    
+    /**
+     * Cantidad de nodos asentados por el algoritmo (solo lo informan los motores que lo miden).
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer nodosAsentados;
+    
+    public RutaResponse(String origen, String destino, double distanciaTotalKm, List<Ciudad> camino) {
+        this.origen = origen;
+        this.destino = destino;
+        this.distanciaTotalKm = distanciaTotalKm;
+        this.camino = camino;
+    }
 }
@@ -0,0 +1,20 @@
+package com.example.minimaps.dto;
+
+import com.example.minimaps.domain.Ciudad;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO que representa una ciudad visitada durante un recorrido transmitido.
+ * El nivel es la cantidad de rutas desde el origen (BFS) o la profundidad en el árbol (DFS).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VisitaDTO {
+    
+    private Ciudad ciudad;
+    
+    private int nivel;
+}
@@ -0,0 +1,79 @@
+package com.example.minimaps.grafo;
+
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Búsqueda A* punto a punto sobre el grafo en memoria.
+ * 
+ * La heurística por defecto es la distancia de círculo máximo hasta el destino, escalada por
+ * {@link GrafoSnapshot#factorGeografico()} para que nunca supere la distancia real por ruta.
+ * Con cualquier heurística consistente cada nodo se asienta una sola vez y el camino
+ * encontrado es el mismo que el de Dijkstra.
+ */
+public final class AEstrella {
+    
+    private AEstrella() {
+    }
+    
+    /**
+     * Calcula el camino mínimo entre dos nodos del grafo con la heurística geográfica.
+     * 
+     * @param g Grafo sobre el que se busca
+     * @param origen Índice del nodo origen
+     * @param destino Índice del nodo destino
+     * @return Camino encontrado, con la cantidad de nodos asentados
+     */
+    public static Camino buscar(GrafoSnapshot g, int origen, int destino) {
+        return buscar(g, origen, destino, heuristicaGeografica(g, destino));
+    }
+    
+    /**
+     * Cota inferior de la distancia por ruta hasta el destino basada en lat/lng.
+     */
+    public static IntToDoubleFunction heuristicaGeografica(GrafoSnapshot g, int destino) {
+        double factor = g.factorGeografico();
+        double latDestino = g.lat(destino);
+        double lngDestino = g.lng(destino);
+        return nodo -> factor * Geo.haversineKm(g.lat(nodo), g.lng(nodo), latDestino, lngDestino);
+    }
+    
+    /**
+     * Calcula el camino mínimo entre dos nodos del grafo con la heurística indicada.
+     * 
+     * @param g Grafo sobre el que se busca
+     * @param origen Índice del nodo origen
+     * @param destino Índice del nodo destino
+     * @param cota Heurística consistente: cota inferior de la distancia de cada nodo al destino
+     * @return Camino encontrado, con la cantidad de nodos asentados
+     */
+    public static Camino buscar(GrafoSnapshot g, int origen, int destino, IntToDoubleFunction cota) {
+        EspacioBusqueda espacio = EspacioBusqueda.adelante(g.numNodos());
+        double[] heuristica = espacio.auxiliar();
+        espacio.iniciar(origen);
+        int cantidadAsentados = 0;
+        
+        while (espacio.hayPendientes()) {
+            int actual = espacio.extraer();
+            cantidadAsentados++;
+            
+            if (actual == destino) {
+                return new Camino(espacio.distancia(destino), espacio.camino(destino), cantidadAsentados);
+            }
+            
+            double distanciaActual = espacio.distancia(actual);
+            for (int e = g.inicio(actual); e < g.fin(actual); e++) {
+                int vecino = g.destino(e);
+                if (espacio.asentado(vecino)) continue;
+                
+                // La cota se calcula una sola vez, la primera vez que se alcanza el nodo
+                if (!espacio.alcanzado(vecino)) {
+                    heuristica[vecino] = cota.applyAsDouble(vecino);
+                }
+                double nuevaDistancia = distanciaActual + g.peso(e);
+                espacio.relajar(vecino, nuevaDistancia, actual, nuevaDistancia + heuristica[vecino]);
+            }
+        }
+        
+        return Camino.inalcanzable(cantidadAsentados);
+    }
+}
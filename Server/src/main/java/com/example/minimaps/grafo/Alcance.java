@@ -0,0 +1,107 @@
+package com.example.minimaps.grafo;
+
+import java.util.Arrays;
+
+/**
+ * Región alcanzable desde un origen dentro de un presupuesto de distancia (isócrona).
+ * 
+ * Es un Dijkstra acotado: nunca encola nodos que superen el límite, así que termina al agotar la zona. Los
+ * arreglos de trabajo se reutilizan por hilo y se invalidan con una marca de tiempo, así que
+ * el costo es proporcional a la zona alcanzada y no al tamaño del grafo.
+ */
+public final class Alcance {
+    
+    private final int[] nodos;
+    
+    private final double[] distancias;
+    
+    private final int[] predecesores;
+    
+    private final double[] pesosPredecesor;
+    
+    private Alcance(int[] nodos, double[] distancias, int[] predecesores, double[] pesosPredecesor) {
+        this.nodos = nodos;
+        this.distancias = distancias;
+        this.predecesores = predecesores;
+        this.pesosPredecesor = pesosPredecesor;
+    }
+    
+    /**
+     * Calcula todos los nodos a distancia menor o igual a maxKm del origen.
+     * 
+     * @param g Grafo sobre el que se busca
+     * @param origen Índice del nodo origen
+     * @param maxKm Presupuesto de distancia en kilómetros
+     * @return Nodos alcanzados en orden de distancia, con su árbol de caminos mínimos
+     */
+    public static Alcance calcular(GrafoSnapshot g, int origen, double maxKm) {
+        EspacioBusqueda espacio = EspacioBusqueda.adelante(g.numNodos());
+        double[] pesos = espacio.auxiliar();
+        espacio.iniciar(origen);
+        pesos[origen] = 0.0;
+        
+        int[] nodos = new int[16];
+        double[] dist = new double[16];
+        int[] preds = new int[16];
+        double[] pesosPred = new double[16];
+        int tam = 0;
+        
+        // Solo se encolan nodos dentro del presupuesto, así que todo lo que sale de la cola se alcanza
+        while (espacio.hayPendientes()) {
+            int u = espacio.extraer();
+            double distanciaU = espacio.distancia(u);
+            
+            if (tam == nodos.length) {
+                nodos = Arrays.copyOf(nodos, tam * 2);
+                dist = Arrays.copyOf(dist, tam * 2);
+                preds = Arrays.copyOf(preds, tam * 2);
+                pesosPred = Arrays.copyOf(pesosPred, tam * 2);
+            }
+            nodos[tam] = u;
+            dist[tam] = distanciaU;
+            preds[tam] = espacio.predecesor(u);
+            pesosPred[tam] = pesos[u];
+            tam++;
+            
+            for (int e = g.inicio(u); e < g.fin(u); e++) {
+                int v = g.destino(e);
+                double nueva = distanciaU + g.peso(e);
+                if (nueva <= maxKm && !espacio.asentado(v) && espacio.relajar(v, nueva, u)) {
+                    pesos[v] = g.peso(e);
+                }
+            }
+        }
+        
+        return new Alcance(Arrays.copyOf(nodos, tam), Arrays.copyOf(dist, tam),
+                Arrays.copyOf(preds, tam), Arrays.copyOf(pesosPred, tam));
+    }
+    
+    public int cantidad() {
+        return nodos.length;
+    }
+    
+    /**
+     * i-ésimo nodo alcanzado (el 0 es el origen).
+     */
+    public int nodo(int i) {
+        return nodos[i];
+    }
+    
+    public double distancia(int i) {
+        return distancias[i];
+    }
+    
+    /**
+     * Padre del i-ésimo nodo en el árbol de caminos mínimos (-1 para el origen).
+     */
+    public int predecesor(int i) {
+        return predecesores[i];
+    }
+    
+    /**
+     * Peso de la arista predecesor(i) -> nodo(i).
+     */
+    public double pesoPredecesor(int i) {
+        return pesosPredecesor[i];
+    }
+}
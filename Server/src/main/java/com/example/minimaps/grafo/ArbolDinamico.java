@@ -0,0 +1,429 @@
+package com.example.minimaps.grafo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * Bosque de expansión mínima de un grafo que se actualiza a partir del de la versión anterior.
+ * 
+ * Las rutas se tratan como no dirigidas, con el menor peso entre las dos direcciones. Al
+ * publicarse un grafo con las mismas ciudades se comparan las rutas de ambas versiones y se
+ * aplica cada diferencia sobre una copia del bosque:
+ * <ul>
+ *   <li>Ruta nueva o más barata: se busca el camino entre sus extremos en el bosque y, si la
+ *       arista más pesada de ese ciclo cuesta más, se reemplaza. Si los extremos estaban en
+ *       árboles distintos se agrega sin más.</li>
+ *   <li>Ruta eliminada o más cara que estaba en el bosque: se corta y se busca la arista más
+ *       barata que cruza el corte, recorriendo solo las aristas del lado más chico.</li>
+ * </ul>
+ * Cada cambio cuesta O(V) en el peor caso, contra O(E log E) de recalcular con Kruskal.
+ * 
+ * Los pesos se comparan con el mismo orden total que {@link Kruskal} (a igual peso, por
+ * extremos), así el bosque mantenido es siempre el mismo que se obtendría recalculándolo.
+ */
+public final class ArbolDinamico {
+    
+    /**
+     * Una ruta no dirigida cuyo peso difiere entre versiones (infinito si no existe).
+     */
+    private record Cambio(int u, int v, double anterior, double nuevo) {
+    }
+    
+    private final GrafoSnapshot grafo;
+    
+    private final int[][] vecinos;
+    
+    private final double[][] pesos;
+    
+    private final int[] grados;
+    
+    private final int[] marcas;
+    
+    private final int[] previos;
+    
+    private final double[] pesosPrevios;
+    
+    private final int[] colaA;
+    
+    private final int[] colaB;
+    
+    private int marcaActual;
+    
+    private int tamanoLado;
+    
+    private int cambiosAplicados;
+    
+    private ArbolExpansion arbol;
+    
+    private ArbolDinamico(GrafoSnapshot grafo) {
+        int n = grafo.numNodos();
+        this.grafo = grafo;
+        vecinos = new int[n][];
+        pesos = new double[n][];
+        grados = new int[n];
+        marcas = new int[n];
+        previos = new int[n];
+        pesosPrevios = new double[n];
+        colaA = new int[n];
+        colaB = new int[n];
+    }
+    
+    /**
+     * Calcula el bosque desde cero con {@link Kruskal}.
+     */
+    public static ArbolDinamico calcular(GrafoSnapshot g) {
+        ArbolDinamico dinamico = new ArbolDinamico(g);
+        ArbolExpansion arbol = Kruskal.calcular(g);
+        for (int i = 0; i < arbol.cantidad(); i++) {
+            dinamico.agregar(arbol.origen(i), arbol.destino(i), arbol.peso(i));
+        }
+        dinamico.arbol = dinamico.exportar();
+        return dinamico;
+    }
+    
+    /**
+     * Deriva el bosque de un grafo nuevo aplicando las rutas que cambiaron desde este.
+     * 
+     * Los empates se desempatan por índice, así que las ciudades tienen que conservar su orden
+     * relativo: si no, el bosque anterior puede no ser el mínimo con el orden nuevo.
+     * 
+     * @param nuevo Grafo publicado después del de este bosque
+     * @param maxCambios Cantidad de rutas distintas a partir de la cual conviene recalcular
+     * @return Bosque del grafo nuevo, o null si cambiaron las ciudades o su orden, o hay
+     *         demasiados cambios
+     */
+    public ArbolDinamico actualizar(GrafoSnapshot nuevo, int maxCambios) {
+        int n = nuevo.numNodos();
+        if (n != grafo.numNodos()) return null;
+        int[] traduccion = new int[n];
+        for (int i = 0; i < n; i++) {
+            traduccion[i] = nuevo.indiceDe(grafo.id(i));
+            if (traduccion[i] < 0 || (i > 0 && traduccion[i] < traduccion[i - 1])) return null;
+        }
+        List<Cambio> cambios = cambios(grafo, nuevo, traduccion);
+        if (cambios.size() > maxCambios) return null;
+        
+        ArbolDinamico dinamico = new ArbolDinamico(nuevo);
+        for (int u = 0; u < n; u++) {
+            for (int i = 0; i < grados[u]; i++) {
+                if (u < vecinos[u][i]) {
+                    dinamico.agregar(traduccion[u], traduccion[vecinos[u][i]], pesos[u][i]);
+                }
+            }
+        }
+        
+        // Primero lo que abarata (solo puede sumar aristas), después lo que encarece
+        for (Cambio cambio : cambios) {
+            if (cambio.nuevo() < cambio.anterior()) {
+                dinamico.abaratar(cambio.u(), cambio.v(), cambio.nuevo());
+            }
+        }
+        for (Cambio cambio : cambios) {
+            if (cambio.nuevo() > cambio.anterior()) {
+                dinamico.encarecer(cambio.u(), cambio.v());
+            }
+        }
+        dinamico.cambiosAplicados = cambios.size();
+        dinamico.arbol = dinamico.exportar();
+        return dinamico;
+    }
+    
+    public GrafoSnapshot grafo() {
+        return grafo;
+    }
+    
+    /**
+     * Aristas del bosque, cada una una sola vez con el extremo de menor índice como origen,
+     * ordenadas por origen y luego por destino.
+     */
+    public ArbolExpansion arbol() {
+        return arbol;
+    }
+    
+    /**
+     * Rutas distintas respecto del grafo anterior (0 si se calculó desde cero).
+     */
+    public int cambiosAplicados() {
+        return cambiosAplicados;
+    }
+    
+    /**
+     * Ruta nueva o más barata entre u y v.
+     */
+    private void abaratar(int u, int v, double peso) {
+        int i = posicion(u, v);
+        if (i >= 0) {
+            pesos[u][i] = peso;
+            pesos[v][posicion(v, u)] = peso;
+            return;
+        }
+        int x = masPesadaEnCamino(u, v);
+        if (x < 0) {
+            agregar(u, v, peso);
+        } else if (Kruskal.precede(peso, u, v, pesosPrevios[x], x, previos[x])) {
+            quitar(x, previos[x]);
+            agregar(u, v, peso);
+        }
+    }
+    
+    /**
+     * Ruta eliminada o más cara entre u y v: si estaba en el bosque se reemplaza por la arista
+     * más barata que cruza el corte (que puede ser ella misma con el peso nuevo).
+     */
+    private void encarecer(int u, int v) {
+        if (posicion(u, v) < 0) return;
+        quitar(u, v);
+        
+        int marcaLado = ladoMasChico(u, v);
+        int[] cola = marcaLado == marcaActual ? colaA : colaB;
+        int mejorOrigen = -1;
+        int mejorDestino = -1;
+        double mejorPeso = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < tamanoLado; i++) {
+            int a = cola[i];
+            for (int e = grafo.inicio(a); e < grafo.fin(a); e++) {
+                int b = grafo.destino(e);
+                if (marcas[b] != marcaLado
+                        && Kruskal.precede(grafo.peso(e), a, b, mejorPeso, mejorOrigen, mejorDestino)) {
+                    mejorOrigen = a;
+                    mejorDestino = b;
+                    mejorPeso = grafo.peso(e);
+                }
+            }
+            for (int e = grafo.inicioInverso(a); e < grafo.finInverso(a); e++) {
+                int b = grafo.origenInverso(e);
+                if (marcas[b] != marcaLado
+                        && Kruskal.precede(grafo.pesoInverso(e), a, b, mejorPeso, mejorOrigen, mejorDestino)) {
+                    mejorOrigen = a;
+                    mejorDestino = b;
+                    mejorPeso = grafo.pesoInverso(e);
+                }
+            }
+        }
+        if (mejorOrigen >= 0) {
+            agregar(mejorOrigen, mejorDestino, mejorPeso);
+        }
+    }
+    
+    /**
+     * Recorre el árbol de u hasta encontrar v y devuelve el nodo x tal que la arista
+     * (x, previos[x]) es la más pesada del camino, o -1 si u y v están en árboles distintos.
+     */
+    private int masPesadaEnCamino(int u, int v) {
+        marcaActual += 2;
+        int frente = 0;
+        int fondo = 0;
+        colaA[fondo++] = u;
+        marcas[u] = marcaActual;
+        while (frente < fondo && marcas[v] != marcaActual) {
+            int a = colaA[frente++];
+            for (int i = 0; i < grados[a]; i++) {
+                int b = vecinos[a][i];
+                if (marcas[b] != marcaActual) {
+                    marcas[b] = marcaActual;
+                    previos[b] = a;
+                    pesosPrevios[b] = pesos[a][i];
+                    colaA[fondo++] = b;
+                }
+            }
+        }
+        if (marcas[v] != marcaActual) return -1;
+        
+        int masPesada = v;
+        for (int x = v; x != u; x = previos[x]) {
+            if (Kruskal.precede(pesosPrevios[masPesada], masPesada, previos[masPesada], pesosPrevios[x], x, previos[x])) {
+                masPesada = x;
+            }
+        }
+        return masPesada;
+    }
+    
+    /**
+     * Recorre a la vez los árboles de u y de v (recién separados), un nodo de cada uno por
+     * turno, hasta completar el más chico: así el costo es proporcional al lado menor.
+     * Los nodos de u quedan con marcaActual y los de v con marcaActual + 1; los del lado
+     * completo quedan en su cola, con la cantidad en tamanoLado.
+     * 
+     * @return Marca del lado completo
+     */
+    private int ladoMasChico(int u, int v) {
+        marcaActual += 2;
+        int marcaB = marcaActual + 1;
+        int frenteA = 0;
+        int fondoA = 0;
+        int frenteB = 0;
+        int fondoB = 0;
+        colaA[fondoA++] = u;
+        marcas[u] = marcaActual;
+        colaB[fondoB++] = v;
+        marcas[v] = marcaB;
+        while (true) {
+            if (frenteA == fondoA) {
+                tamanoLado = fondoA;
+                return marcaActual;
+            }
+            fondoA = expandir(colaA[frenteA++], marcaActual, colaA, fondoA);
+            if (frenteB == fondoB) {
+                tamanoLado = fondoB;
+                return marcaB;
+            }
+            fondoB = expandir(colaB[frenteB++], marcaB, colaB, fondoB);
+        }
+    }
+    
+    private int expandir(int a, int marca, int[] cola, int fondo) {
+        for (int i = 0; i < grados[a]; i++) {
+            int b = vecinos[a][i];
+            if (marcas[b] != marca) {
+                marcas[b] = marca;
+                cola[fondo++] = b;
+            }
+        }
+        return fondo;
+    }
+    
+    private int posicion(int u, int v) {
+        for (int i = 0; i < grados[u]; i++) {
+            if (vecinos[u][i] == v) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private void agregar(int u, int v, double peso) {
+        enlazar(u, v, peso);
+        enlazar(v, u, peso);
+    }
+    
+    private void enlazar(int u, int v, double peso) {
+        if (vecinos[u] == null) {
+            vecinos[u] = new int[2];
+            pesos[u] = new double[2];
+        } else if (grados[u] == vecinos[u].length) {
+            vecinos[u] = Arrays.copyOf(vecinos[u], grados[u] * 2);
+            pesos[u] = Arrays.copyOf(pesos[u], grados[u] * 2);
+        }
+        vecinos[u][grados[u]] = v;
+        pesos[u][grados[u]++] = peso;
+    }
+    
+    private void quitar(int u, int v) {
+        desenlazar(u, v);
+        desenlazar(v, u);
+    }
+    
+    private void desenlazar(int u, int v) {
+        int i = posicion(u, v);
+        int ultimo = --grados[u];
+        vecinos[u][i] = vecinos[u][ultimo];
+        pesos[u][i] = pesos[u][ultimo];
+    }
+    
+    private ArbolExpansion exportar() {
+        int total = 0;
+        for (int grado : grados) {
+            total += grado;
+        }
+        total /= 2;
+        int[] o = new int[total];
+        int[] d = new int[total];
+        double[] p = new double[total];
+        int k = 0;
+        long[] orden = new long[16];
+        for (int u = 0; u < grados.length; u++) {
+            // Vecinos de índice mayor por índice: el orden de las listas depende de los cambios aplicados
+            if (grados[u] > orden.length) {
+                orden = new long[grados[u]];
+            }
+            int mayores = 0;
+            for (int i = 0; i < grados[u]; i++) {
+                if (u < vecinos[u][i]) {
+                    orden[mayores++] = (long) vecinos[u][i] << 32 | i;
+                }
+            }
+            Arrays.sort(orden, 0, mayores);
+            for (int j = 0; j < mayores; j++) {
+                int i = (int) orden[j];
+                o[k] = u;
+                d[k] = vecinos[u][i];
+                p[k++] = pesos[u][i];
+            }
+        }
+        return new ArbolExpansion(o, d, p);
+    }
+    
+    /**
+     * Rutas no dirigidas cuyo peso mínimo difiere entre los dos grafos, con los índices del nuevo.
+     * Cada nodo compara solo sus vecinos de índice mayor, así cada par se mira una vez.
+     */
+    private static List<Cambio> cambios(GrafoSnapshot anterior, GrafoSnapshot nuevo, int[] traduccion) {
+        int[] inversa = new int[traduccion.length];
+        for (int i = 0; i < traduccion.length; i++) {
+            inversa[traduccion[i]] = i;
+        }
+        List<Cambio> cambios = new ArrayList<>();
+        IntStream.range(0, nuevo.numNodos()).parallel()
+                .mapToObj(u -> cambiosDe(u, anterior, nuevo, traduccion, inversa[u]))
+                .filter(Objects::nonNull)
+                .forEachOrdered(cambios::addAll);
+        return cambios;
+    }
+    
+    private static List<Cambio> cambiosDe(int u, GrafoSnapshot anterior, GrafoSnapshot nuevo,
+                                          int[] traduccion, int uAnterior) {
+        // Vecinos de ambas versiones en una sola lista: 0 = versión anterior, 1 = nueva
+        int maximo = nuevo.fin(u) - nuevo.inicio(u) + nuevo.finInverso(u) - nuevo.inicioInverso(u)
+                + anterior.fin(uAnterior) - anterior.inicio(uAnterior)
+                + anterior.finInverso(uAnterior) - anterior.inicioInverso(uAnterior);
+        if (maximo == 0) return null;
+        long[] claves = new long[maximo];
+        double[] valores = new double[maximo];
+        int k = 0;
+        for (int e = anterior.inicio(uAnterior); e < anterior.fin(uAnterior); e++) {
+            k = anotar(claves, valores, k, u, traduccion[anterior.destino(e)], 0, anterior.peso(e));
+        }
+        for (int e = anterior.inicioInverso(uAnterior); e < anterior.finInverso(uAnterior); e++) {
+            k = anotar(claves, valores, k, u, traduccion[anterior.origenInverso(e)], 0, anterior.pesoInverso(e));
+        }
+        for (int e = nuevo.inicio(u); e < nuevo.fin(u); e++) {
+            k = anotar(claves, valores, k, u, nuevo.destino(e), 1, nuevo.peso(e));
+        }
+        for (int e = nuevo.inicioInverso(u); e < nuevo.finInverso(u); e++) {
+            k = anotar(claves, valores, k, u, nuevo.origenInverso(e), 1, nuevo.pesoInverso(e));
+        }
+        Arrays.sort(claves, 0, k);
+        
+        List<Cambio> cambios = null;
+        int i = 0;
+        while (i < k) {
+            int v = (int) (claves[i] >>> 33);
+            double[] minimos = { Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY };
+            for (; i < k && (int) (claves[i] >>> 33) == v; i++) {
+                int version = (int) (claves[i] >>> 32) & 1;
+                minimos[version] = Math.min(minimos[version], valores[(int) claves[i]]);
+            }
+            if (minimos[0] != minimos[1]) {
+                if (cambios == null) {
+                    cambios = new ArrayList<>();
+                }
+                cambios.add(new Cambio(u, v, minimos[0], minimos[1]));
+            }
+        }
+        return cambios;
+    }
+    
+    /**
+     * Agrega el vecino v si tiene índice mayor que u. La clave ordena por vecino y guarda la
+     * versión y la posición del peso en {@code valores}.
+     */
+    private static int anotar(long[] claves, double[] valores, int k, int u, int v, int version, double peso) {
+        if (v <= u) return k;
+        valores[k] = peso;
+        claves[k] = (long) v << 33 | (long) version << 32 | k;
+        return k + 1;
+    }
+}
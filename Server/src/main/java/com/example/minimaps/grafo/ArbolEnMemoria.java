@@ -0,0 +1,41 @@
+package com.example.minimaps.grafo;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mantiene el árbol de expansión mínima del grafo vigente.
+ * 
+ * Con cada grafo publicado el árbol se actualiza en segundo plano a partir del anterior
+ * ({@link ArbolDinamico}), aplicando solo las rutas que cambiaron. Si cambiaron las ciudades o
+ * hay más cambios que los configurados se recalcula con Kruskal. Mientras no esté listo,
+ * {@link #para(GrafoSnapshot)} devuelve null y los endpoints calculan el árbol ellos mismos.
+ */
+@Slf4j
+@Component
+public class ArbolEnMemoria extends PreprocesoEnMemoria<ArbolDinamico> {
+    
+    private final int maxCambios;
+    
+    public ArbolEnMemoria(@Value("${minimaps.mst.habilitado:true}") boolean habilitado,
+                          @Value("${minimaps.mst.max-cambios:1000}") int maxCambios) {
+        super("mst-mantenido", habilitado);
+        this.maxCambios = maxCambios;
+    }
+    
+    @Override
+    protected ArbolDinamico construir(GrafoSnapshot grafo, ArbolDinamico anterior) {
+        long inicio = System.nanoTime();
+        ArbolDinamico arbol = anterior != null ? anterior.actualizar(grafo, maxCambios) : null;
+        if (arbol != null) {
+            log.info("Árbol de expansión del grafo v{} actualizado en {} ms ({} rutas cambiadas)",
+                    grafo.version(), (System.nanoTime() - inicio) / 1_000_000, arbol.cambiosAplicados());
+        } else {
+            arbol = ArbolDinamico.calcular(grafo);
+            log.info("Árbol de expansión del grafo v{} calculado en {} ms ({} aristas)",
+                    grafo.version(), (System.nanoTime() - inicio) / 1_000_000, arbol.arbol().cantidad());
+        }
+        return arbol;
+    }
+}
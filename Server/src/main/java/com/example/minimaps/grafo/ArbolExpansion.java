@@ -0,0 +1,47 @@
+package com.example.minimaps.grafo;
+
+/**
+ * Resultado primitivo de un árbol (o bosque) de expansión mínima: una arista por posición,
+ * con los nodos como índices densos del {@link GrafoSnapshot} usado para calcularlo.
+ */
+public final class ArbolExpansion {
+    
+    private final int[] origenes;
+    
+    private final int[] destinos;
+    
+    private final double[] pesos;
+    
+    ArbolExpansion(int[] origenes, int[] destinos, double[] pesos) {
+        this.origenes = origenes;
+        this.destinos = destinos;
+        this.pesos = pesos;
+    }
+    
+    public int cantidad() {
+        return origenes.length;
+    }
+    
+    public int origen(int i) {
+        return origenes[i];
+    }
+    
+    public int destino(int i) {
+        return destinos[i];
+    }
+    
+    public double peso(int i) {
+        return pesos[i];
+    }
+    
+    /**
+     * Suma de los pesos de todas las aristas, en kilómetros.
+     */
+    public double pesoTotal() {
+        double total = 0;
+        for (double peso : pesos) {
+            total += peso;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.minimaps.grafo;
+
+import com.example.minimaps.domain.Ciudad;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Copia en disco del grafo (IDs, nombres, coordenadas y aristas CSR) para arrancar sin Neo4j.
+ * 
+ * El archivo se escribe y se lee mapeado en memoria con {@link FileChannel#map}, así que no pasa
+ * por streams ni por objetos intermedios: cada sección se copia de una vez a su arreglo. Todo es
+ * little-endian y cada arreglo empieza alineado a su tamaño:
+ * 
+ * <pre>
+ * int32   magia ("MMGR"), formato (1), nodos n, aristas m, bytes de texto t, CRC-32 del contenido
+ * int64   huella del grafo
+ * int32   inicios[2n + 1]      posición en el texto de cada ID y después de cada nombre
+ * byte    texto[t]             UTF-8, completado con ceros hasta múltiplo de 8
+ * float64 lat[n], lng[n]
+ * int32   offsets[n + 1], destinos[m] (completado hasta múltiplo de 8)
+ * float64 pesos[m]
+ * </pre>
+ * 
+ * El CRC cubre todo lo que sigue a la cabecera y la huella se vuelve a calcular al leer, así que
+ * un archivo truncado o modificado se rechaza en lugar de publicar un grafo inconsistente.
+ * 
+ * El mapeo no evita leer el archivo entero al arrancar: el CRC recorre todas las páginas y las
+ * secciones se copian a arreglos del heap, porque {@link GrafoSnapshot} trabaja con arreglos y
+ * el grafo queda vivo hasta la próxima recarga. Lo que sí se evita es un objeto por arista: las
+ * rutas de cada ciudad se sirven desde el CSR ({@link RutasDelGrafo}) en lugar de guardar un
+ * {@link com.example.minimaps.domain.Ruta} por cada una.
+ */
+public final class ArchivoGrafo {
+    
+    public static final int MAGIA = 'M' | 'M' << 8 | 'G' << 16 | 'R' << 24;
+    
+    public static final int FORMATO = 1;
+    
+    private static final int CABECERA = 6 * Integer.BYTES + Long.BYTES;
+    
+    private ArchivoGrafo() {
+    }
+    
+    /**
+     * Guarda el grafo en el archivo. Escribe en un archivo temporal y lo renombra, así nunca
+     * queda un archivo a medias.
+     */
+    public static void guardar(GrafoSnapshot grafo, Path archivo) throws IOException {
+        int n = grafo.numNodos();
+        int m = grafo.numAristas();
+        byte[][] textos = new byte[2 * n][];
+        long bytesTexto = 0;
+        for (int i = 0; i < n; i++) {
+            String nombre = grafo.ciudad(i).getNombre();
+            textos[i] = grafo.id(i).getBytes(StandardCharsets.UTF_8);
+            textos[n + i] = nombre != null ? nombre.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            bytesTexto += textos[i].length + textos[n + i].length;
+        }
+        Secciones secciones = new Secciones(n, m, bytesTexto);
+        if (secciones.total > Integer.MAX_VALUE) {
+            throw new IOException("el grafo no entra en un archivo mapeado: " + secciones.total + " bytes");
+        }
+        
+        Path directorio = archivo.toAbsolutePath().getParent();
+        Files.createDirectories(directorio);
+        Path temporal = Files.createTempFile(directorio, "grafo", ".tmp");
+        try {
+            try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_WRITE, 0, secciones.total);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                buffer.position(CABECERA);
+                int posicion = 0;
+                for (byte[] texto : textos) {
+                    buffer.putInt(posicion);
+                    posicion += texto.length;
+                }
+                buffer.putInt(posicion);
+                for (byte[] texto : textos) {
+                    buffer.put(texto);
+                }
+                buffer.position((int) secciones.coordenadas);
+                for (int i = 0; i < n; i++) {
+                    buffer.putDouble(grafo.lat(i));
+                }
+                for (int i = 0; i < n; i++) {
+                    buffer.putDouble(grafo.lng(i));
+                }
+                for (int i = 0; i <= n; i++) {
+                    buffer.putInt(i < n ? grafo.inicio(i) : m);
+                }
+                for (int e = 0; e < m; e++) {
+                    buffer.putInt(grafo.destino(e));
+                }
+                buffer.position((int) secciones.pesos);
+                for (int e = 0; e < m; e++) {
+                    buffer.putDouble(grafo.peso(e));
+                }
+                buffer.putInt(0, MAGIA).putInt(4, FORMATO).putInt(8, n).putInt(12, m)
+                        .putInt(16, (int) bytesTexto).putInt(20, crc(buffer))
+                        .putLong(24, grafo.huella());
+                buffer.force();
+            }
+            Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+    
+    /**
+     * Lee un grafo guardado y lo publica con la versión indicada.
+     * 
+     * @return Grafo leído, o null si el archivo no existe
+     * @throws IOException Si no se puede leer o no es un grafo válido (formato, CRC o huella)
+     */
+    public static GrafoSnapshot cargar(Path archivo, long version) throws IOException {
+        if (!Files.isRegularFile(archivo)) {
+            return null;
+        }
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            if (tamano < CABECERA || tamano > Integer.MAX_VALUE) {
+                throw new IOException("tamaño de archivo inválido: " + tamano);
+            }
+            MappedByteBuffer buffer = canal.map(FileChannel.MapMode.READ_ONLY, 0, tamano);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt(0) != MAGIA || buffer.getInt(4) != FORMATO) {
+                throw new IOException("no es un grafo en formato " + FORMATO);
+            }
+            int n = buffer.getInt(8);
+            int m = buffer.getInt(12);
+            int bytesTexto = buffer.getInt(16);
+            Secciones secciones = new Secciones(n, m, bytesTexto);
+            if (n < 0 || m < 0 || bytesTexto < 0 || secciones.total != tamano) {
+                throw new IOException("el tamaño no coincide con la cabecera");
+            }
+            if (crc(buffer) != buffer.getInt(20)) {
+                throw new IOException("CRC inválido");
+            }
+            
+            // Cada sección se copia en bloque (las páginas ya las leyó el CRC)
+            int[] inicios = new int[2 * n + 1];
+            buffer.position(CABECERA);
+            buffer.asIntBuffer().get(inicios);
+            byte[] texto = new byte[bytesTexto];
+            buffer.get(CABECERA + inicios.length * Integer.BYTES, texto);
+            double[] lat = new double[n];
+            double[] lng = new double[n];
+            buffer.position((int) secciones.coordenadas);
+            buffer.asDoubleBuffer().get(lat).get(lng);
+            int[] offsets = new int[n + 1];
+            int[] destinos = new int[m];
+            buffer.position((int) secciones.coordenadas + 2 * n * Double.BYTES);
+            buffer.asIntBuffer().get(offsets).get(destinos);
+            double[] pesos = new double[m];
+            buffer.position((int) secciones.pesos);
+            buffer.asDoubleBuffer().get(pesos);
+            
+            Ciudad[] ciudades = new Ciudad[n];
+            for (int i = 0; i < n; i++) {
+                String id = new String(texto, inicios[i], inicios[i + 1] - inicios[i], StandardCharsets.UTF_8);
+                int largoNombre = inicios[n + i + 1] - inicios[n + i];
+                String nombre = largoNombre == 0 ? null
+                        : new String(texto, inicios[n + i], largoNombre, StandardCharsets.UTF_8);
+                ciudades[i] = new Ciudad(id, nombre, lat[i], lng[i]);
+            }
+            GrafoSnapshot grafo = GrafoSnapshot.desde(version, ciudades, offsets, destinos, pesos);
+            if (grafo.huella() != buffer.getLong(24)) {
+                throw new IOException("la huella no coincide");
+            }
+            // La API sigue mostrando las rutas de cada ciudad, pero leídas del CSR al serializar
+            for (int u = 0; u < n; u++) {
+                ciudades[u].setRutas(new RutasDelGrafo(grafo, u));
+            }
+            return grafo;
+        } catch (IndexOutOfBoundsException e) {
+            // Con el CRC correcto solo pasa si el archivo se escribió mal
+            throw new IOException("secciones inconsistentes", e);
+        }
+    }
+    
+    /**
+     * CRC-32 de todo lo que sigue a la cabecera.
+     */
+    private static int crc(ByteBuffer buffer) {
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().position(CABECERA));
+        return (int) crc.getValue();
+    }
+    
+    /**
+     * Posición de cada sección según la cantidad de nodos, aristas y bytes de texto.
+     */
+    private static final class Secciones {
+        final long coordenadas;
+        final long pesos;
+        final long total;
+        
+        Secciones(long n, long m, long bytesTexto) {
+            coordenadas = alinear(CABECERA + (2 * n + 1) * Integer.BYTES + bytesTexto);
+            pesos = alinear(coordenadas + 2 * n * Double.BYTES + (n + 1 + m) * Integer.BYTES);
+            total = pesos + m * Double.BYTES;
+        }
+    }
+    
+    /**
+     * Redondea hacia arriba a múltiplo de 8 bytes.
+     */
+    private static long alinear(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
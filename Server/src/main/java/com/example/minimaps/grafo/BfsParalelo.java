@@ -0,0 +1,254 @@
+package com.example.minimaps.grafo;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.IntStream;
+
+/**
+ * BFS por niveles con optimización de dirección (Beamer, Asanović y Patterson).
+ * 
+ * Cada nivel se expande en paralelo sobre el pool fork-join común. Mientras la frontera es
+ * chica se expande hacia abajo (top-down): cada nodo de la frontera marca a sus vecinos no
+ * visitados en un bitset atómico. Cuando las aristas que salen de la frontera superan una
+ * fracción de las que quedan sin explorar conviene ir hacia arriba (bottom-up): cada nodo no
+ * visitado recorre sus aristas entrantes y se detiene en el primer padre que está en la frontera.
+ * 
+ * El orden dentro de cada nivel es el mismo que el de un BFS secuencial con cola: cada nodo se
+ * ubica según la posición de su primer padre en el nivel anterior y, dentro de ese padre, según
+ * el orden de la arista que lo descubre.
+ */
+public final class BfsParalelo {
+    
+    /**
+     * Se pasa a bottom-up cuando las aristas de la frontera superan 1/ALFA de las no exploradas.
+     */
+    private static final int ALFA = 14;
+    
+    /**
+     * Se vuelve a top-down cuando la frontera tiene menos de 1/BETA de los nodos.
+     */
+    private static final int BETA = 24;
+    
+    /**
+     * Nodos de la frontera (o palabras del bitset) que procesa cada tarea paralela.
+     */
+    private static final int BLOQUE = 1024;
+    
+    private final int[] orden;
+    
+    private final int[] niveles;
+    
+    private BfsParalelo(int[] orden, int[] niveles) {
+        this.orden = orden;
+        this.niveles = niveles;
+    }
+    
+    /**
+     * Recorre en anchura todo lo alcanzable desde el origen.
+     * 
+     * @param g Grafo sobre el que se recorre
+     * @param origen Índice del nodo origen
+     * @return Nodos visitados en orden BFS con el nivel (distancia en saltos) de cada uno
+     */
+    public static BfsParalelo recorrer(GrafoSnapshot g, int origen) {
+        int n = g.numNodos();
+        int[] orden = new int[n];
+        int[] niveles = new int[n];
+        int[] posicion = new int[n];
+        Arrays.fill(posicion, -1);
+        AtomicLongArray visitados = new AtomicLongArray((n + 63) >>> 6);
+        long maxGrado = Math.max(1, IntStream.range(0, n).map(u -> grado(g, u)).max().orElse(0));
+        
+        orden[0] = origen;
+        posicion[origen] = 0;
+        marcar(visitados, origen);
+        long aristasSinExplorar = g.numAristas() - grado(g, origen);
+        int inicio = 0;
+        int fin = 1;
+        int nivel = 0;
+        boolean haciaArriba = false;
+        
+        while (inicio < fin) {
+            Arrays.fill(niveles, inicio, fin, nivel);
+            int desde = inicio;
+            int hasta = fin;
+            
+            // 1. Elegir la dirección según el tamaño de la frontera
+            long aristasFrontera = IntStream.range(desde, hasta).parallel()
+                    .mapToLong(i -> grado(g, orden[i])).sum();
+            if (!haciaArriba && aristasFrontera > aristasSinExplorar / ALFA) {
+                haciaArriba = true;
+            } else if (haciaArriba && hasta - desde < n / BETA) {
+                haciaArriba = false;
+            }
+            
+            // 2. Descubrir el siguiente nivel
+            int[] descubiertos = haciaArriba
+                    ? haciaArriba(g, orden, desde, hasta, visitados)
+                    : haciaAbajo(g, orden, desde, hasta, visitados);
+            if (descubiertos.length == 0) break;
+            
+            // 3. Ordenarlo como lo haría la cola de un BFS secuencial
+            long[] claves = Arrays.stream(descubiertos).parallel()
+                    .mapToLong(v -> clave(g, v, posicion, desde, hasta, maxGrado)).toArray();
+            Arrays.parallelSort(claves);
+            int base = hasta;
+            IntStream.range(0, claves.length).parallel().forEach(i -> {
+                int padre = orden[desde + (int) (claves[i] / maxGrado)];
+                int v = g.destino(g.inicio(padre) + (int) (claves[i] % maxGrado));
+                orden[base + i] = v;
+                posicion[v] = base + i;
+            });
+            
+            aristasSinExplorar -= Arrays.stream(descubiertos).parallel().mapToLong(v -> grado(g, v)).sum();
+            inicio = hasta;
+            fin = hasta + descubiertos.length;
+            nivel++;
+        }
+        
+        return new BfsParalelo(Arrays.copyOf(orden, fin), Arrays.copyOf(niveles, fin));
+    }
+    
+    public int cantidad() {
+        return orden.length;
+    }
+    
+    /**
+     * i-ésimo nodo visitado (el 0 es el origen).
+     */
+    public int nodo(int i) {
+        return orden[i];
+    }
+    
+    /**
+     * Nivel del i-ésimo nodo visitado: cantidad de aristas desde el origen.
+     */
+    public int nivel(int i) {
+        return niveles[i];
+    }
+    
+    /**
+     * Top-down: cada nodo de la frontera reclama a sus vecinos no visitados.
+     */
+    private static int[] haciaAbajo(GrafoSnapshot g, int[] orden, int desde, int hasta,
+                                    AtomicLongArray visitados) {
+        int bloques = (hasta - desde + BLOQUE - 1) / BLOQUE;
+        int[][] partes = IntStream.range(0, bloques).parallel().mapToObj(b -> {
+            int[] encontrados = new int[16];
+            int tam = 0;
+            int limite = Math.min(hasta, desde + (b + 1) * BLOQUE);
+            for (int i = desde + b * BLOQUE; i < limite; i++) {
+                int u = orden[i];
+                for (int e = g.inicio(u); e < g.fin(u); e++) {
+                    int v = g.destino(e);
+                    if (marcar(visitados, v)) {
+                        if (tam == encontrados.length) {
+                            encontrados = Arrays.copyOf(encontrados, tam * 2);
+                        }
+                        encontrados[tam++] = v;
+                    }
+                }
+            }
+            return Arrays.copyOf(encontrados, tam);
+        }).toArray(int[][]::new);
+        return concatenar(partes);
+    }
+    
+    /**
+     * Bottom-up: cada nodo no visitado busca un padre en la frontera. Cada tarea es dueña de un
+     * rango de palabras del bitset, así que no hace falta sincronizar las marcas.
+     */
+    private static int[] haciaArriba(GrafoSnapshot g, int[] orden, int desde, int hasta,
+                                     AtomicLongArray visitados) {
+        int n = g.numNodos();
+        int palabras = visitados.length();
+        long[] frontera = new long[palabras];
+        for (int i = desde; i < hasta; i++) {
+            frontera[orden[i] >>> 6] |= 1L << orden[i];
+        }
+        
+        int bloques = (palabras + BLOQUE - 1) / BLOQUE;
+        int[][] partes = IntStream.range(0, bloques).parallel().mapToObj(b -> {
+            int[] encontrados = new int[16];
+            int tam = 0;
+            int limite = Math.min(palabras, (b + 1) * BLOQUE);
+            for (int w = b * BLOQUE; w < limite; w++) {
+                long vistos = visitados.get(w);
+                long nuevos = 0;
+                long libres = ~vistos;
+                while (libres != 0) {
+                    int v = (w << 6) + Long.numberOfTrailingZeros(libres);
+                    libres &= libres - 1;
+                    if (v >= n) break;
+                    for (int e = g.inicioInverso(v); e < g.finInverso(v); e++) {
+                        int padre = g.origenInverso(e);
+                        if ((frontera[padre >>> 6] & (1L << padre)) != 0) {
+                            nuevos |= 1L << v;
+                            if (tam == encontrados.length) {
+                                encontrados = Arrays.copyOf(encontrados, tam * 2);
+                            }
+                            encontrados[tam++] = v;
+                            break;
+                        }
+                    }
+                }
+                if (nuevos != 0) {
+                    visitados.set(w, vistos | nuevos);
+                }
+            }
+            return Arrays.copyOf(encontrados, tam);
+        }).toArray(int[][]::new);
+        return concatenar(partes);
+    }
+    
+    /**
+     * Posición en la cola secuencial de un nodo recién descubierto: (posición del primer padre
+     * en la frontera, orden de la arista dentro de ese padre), codificada en un long.
+     */
+    private static long clave(GrafoSnapshot g, int v, int[] posicion, int desde, int hasta, long maxGrado) {
+        long mejor = Long.MAX_VALUE;
+        for (int e = g.inicioInverso(v); e < g.finInverso(v); e++) {
+            int padre = g.origenInverso(e);
+            int pos = posicion[padre];
+            if (pos >= desde && pos < hasta) {
+                long clave = (pos - desde) * maxGrado + (g.aristaDirecta(e) - g.inicio(padre));
+                mejor = Math.min(mejor, clave);
+            }
+        }
+        return mejor;
+    }
+    
+    /**
+     * Marca el nodo como visitado; devuelve true solo para el hilo que lo marcó primero.
+     */
+    private static boolean marcar(AtomicLongArray bits, int v) {
+        int palabra = v >>> 6;
+        long mascara = 1L << v;
+        long actual = bits.get(palabra);
+        while ((actual & mascara) == 0) {
+            if (bits.compareAndSet(palabra, actual, actual | mascara)) {
+                return true;
+            }
+            actual = bits.get(palabra);
+        }
+        return false;
+    }
+    
+    private static int grado(GrafoSnapshot g, int u) {
+        return g.fin(u) - g.inicio(u);
+    }
+    
+    private static int[] concatenar(int[][] partes) {
+        int total = 0;
+        for (int[] parte : partes) {
+            total += parte.length;
+        }
+        int[] resultado = new int[total];
+        int i = 0;
+        for (int[] parte : partes) {
+            System.arraycopy(parte, 0, resultado, i, parte.length);
+            i += parte.length;
+        }
+        return resultado;
+    }
+}
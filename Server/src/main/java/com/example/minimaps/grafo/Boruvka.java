@@ -0,0 +1,143 @@
+package com.example.minimaps.grafo;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * Árbol (o bosque) de expansión mínima por Borůvka en paralelo.
+ * 
+ * Cada ronda busca en paralelo la arista más barata que sale de cada componente y después une
+ * los componentes por esas aristas con un Union-Find concurrente (CAS sobre el arreglo de
+ * padres). Cada ronda al menos reduce a la mitad los componentes, así que alcanzan O(log V)
+ * rondas, y las aristas que quedan dentro de un componente se descartan al final de cada una.
+ * 
+ * Las aristas se tratan como no dirigidas, igual que en Kruskal. Los empates de peso se
+ * desempatan por índice de arista: con ese orden total las aristas elegidas en una ronda nunca
+ * forman ciclos y el peso del resultado es el mismo que el de Kruskal.
+ */
+public final class Boruvka {
+    
+    private Boruvka() {
+    }
+    
+    /**
+     * Calcula el bosque de expansión mínima del grafo, un árbol por componente conexo.
+     * 
+     * @param g Grafo sobre el que se calcula
+     * @return Aristas del bosque, en el orden en que aparecen en el grafo
+     */
+    public static ArbolExpansion calcular(GrafoSnapshot g) {
+        int n = g.numNodos();
+        int[] origenes = new int[g.numAristas()];
+        IntStream.range(0, n).parallel().forEach(u -> Arrays.fill(origenes, g.inicio(u), g.fin(u), u));
+        
+        AtomicIntegerArray padres = new AtomicIntegerArray(n);
+        IntStream.range(0, n).parallel().forEach(v -> padres.set(v, v));
+        AtomicIntegerArray mejores = new AtomicIntegerArray(n);
+        int[] elegidas = new int[Math.max(0, n - 1)];
+        AtomicInteger cantidad = new AtomicInteger();
+        
+        int[] activas = IntStream.range(0, g.numAristas()).parallel()
+                .filter(e -> origenes[e] != g.destino(e)).toArray();
+        
+        while (activas.length > 0) {
+            // 1. Arista más barata que sale de cada componente
+            IntStream.range(0, n).parallel().forEach(v -> mejores.set(v, -1));
+            Arrays.stream(activas).parallel().forEach(e -> {
+                int a = raiz(padres, origenes[e]);
+                int b = raiz(padres, g.destino(e));
+                if (a != b) {
+                    proponer(g, mejores, a, e);
+                    proponer(g, mejores, b, e);
+                }
+            });
+            
+            // 2. Contraer: si dos componentes eligieron la misma arista, solo una unión prospera
+            IntStream.range(0, n).parallel().forEach(c -> {
+                int e = mejores.get(c);
+                if (e >= 0 && unir(padres, origenes[e], g.destino(e))) {
+                    elegidas[cantidad.getAndIncrement()] = e;
+                }
+            });
+            
+            // 3. Descartar las aristas que quedaron dentro de un componente
+            activas = Arrays.stream(activas).parallel()
+                    .filter(e -> raiz(padres, origenes[e]) != raiz(padres, g.destino(e)))
+                    .toArray();
+        }
+        
+        int total = cantidad.get();
+        Arrays.parallelSort(elegidas, 0, total);
+        int[] o = new int[total];
+        int[] d = new int[total];
+        double[] p = new double[total];
+        IntStream.range(0, total).parallel().forEach(i -> {
+            int e = elegidas[i];
+            o[i] = origenes[e];
+            d[i] = g.destino(e);
+            p[i] = g.peso(e);
+        });
+        return new ArbolExpansion(o, d, p);
+    }
+    
+    /**
+     * Guarda la arista como la mejor del componente si es más barata que la actual.
+     */
+    private static void proponer(GrafoSnapshot g, AtomicIntegerArray mejores, int componente, int e) {
+        int actual = mejores.get(componente);
+        while (actual < 0 || menor(g, e, actual)) {
+            if (mejores.compareAndSet(componente, actual, e)) {
+                return;
+            }
+            actual = mejores.get(componente);
+        }
+    }
+    
+    /**
+     * Orden total de las aristas: por peso y, a igual peso, por índice.
+     */
+    private static boolean menor(GrafoSnapshot g, int a, int b) {
+        double pesoA = g.peso(a);
+        double pesoB = g.peso(b);
+        return pesoA < pesoB || (pesoA == pesoB && a < b);
+    }
+    
+    /**
+     * Representante del conjunto, acortando el camino a la mitad (cada nodo apunta a su abuelo).
+     * Otro hilo puede haber movido el padre mientras tanto; el CAS solo acorta si nadie lo hizo.
+     */
+    private static int raiz(AtomicIntegerArray padres, int x) {
+        while (true) {
+            int padre = padres.get(x);
+            if (padre == x) {
+                return x;
+            }
+            int abuelo = padres.get(padre);
+            if (padre != abuelo) {
+                padres.compareAndSet(x, padre, abuelo);
+            }
+            x = abuelo;
+        }
+    }
+    
+    /**
+     * Une los conjuntos colgando la raíz de mayor índice de la de menor índice, lo que evita
+     * ciclos entre uniones concurrentes. Retorna false si ya estaban unidos.
+     */
+    private static boolean unir(AtomicIntegerArray padres, int a, int b) {
+        while (true) {
+            int raizA = raiz(padres, a);
+            int raizB = raiz(padres, b);
+            if (raizA == raizB) {
+                return false;
+            }
+            int mayor = Math.max(raizA, raizB);
+            int menor = Math.min(raizA, raizB);
+            if (padres.compareAndSet(mayor, mayor, menor)) {
+                return true;
+            }
+        }
+    }
+}
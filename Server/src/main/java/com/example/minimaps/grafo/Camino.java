@@ -0,0 +1,52 @@
+package com.example.minimaps.grafo;
+
+/**
+ * Resultado primitivo de una búsqueda de camino mínimo sobre el grafo en memoria.
+ * Los nodos son índices densos del {@link GrafoSnapshot} usado en la búsqueda.
+ */
+public final class Camino {
+    
+    private final double distancia;
+    
+    private final int[] nodos;
+    
+    private final int asentados;
+    
+    public Camino(double distancia, int[] nodos, int asentados) {
+        this.distancia = distancia;
+        this.nodos = nodos;
+        this.asentados = asentados;
+    }
+    
+    /**
+     * Resultado cuando el destino no es alcanzable desde el origen.
+     */
+    public static Camino inalcanzable(int asentados) {
+        return new Camino(Double.POSITIVE_INFINITY, new int[0], asentados);
+    }
+    
+    /**
+     * Distancia total en kilómetros (infinito si no hay camino).
+     */
+    public double distancia() {
+        return distancia;
+    }
+    
+    /**
+     * Nodos del camino, desde el origen hasta el destino.
+     */
+    public int[] nodos() {
+        return nodos;
+    }
+    
+    /**
+     * Cantidad de nodos asentados (extraídos definitivamente de la cola) durante la búsqueda.
+     */
+    public int asentados() {
+        return asentados;
+    }
+    
+    public boolean existe() {
+        return nodos.length > 0;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.minimaps.grafo;
+
+import com.example.minimaps.domain.Ciudad;
+import lombok.RequiredArgsConstructor;
+import org.neo4j.driver.AccessMode;
+import org.neo4j.driver.Driver;
+import org.neo4j.driver.Record;
+import org.neo4j.driver.Result;
+import org.neo4j.driver.Session;
+import org.neo4j.driver.SessionConfig;
+import org.neo4j.driver.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lee el grafo completo desde Neo4j con una sola consulta de proyección.
+ * 
+ * En lugar de hidratar entidades con Spring Data Neo4j, la consulta devuelve una fila plana
+ * (ciudad, destino, distancia) por ruta, más una fila sin destino por cada ciudad sin rutas
+ * salientes. Las filas se procesan a medida que llegan del driver y las aristas se acumulan en
+ * arreglos primitivos, que al final se ordenan en CSR sin volver a leer nada.
+ */
+@Component
+@RequiredArgsConstructor
+public class CargadorGrafo {
+    
+    static final String CONSULTA = """
+            MATCH (c:Ciudad)
+            OPTIONAL MATCH (c)-[r:CONECTA_CON]->(d:Ciudad)
+            RETURN c.id AS id, c.nombre AS nombre, c.lat AS lat, c.lng AS lng,
+                   d.id AS destinoId, r.distanciaKm AS distanciaKm
+            """;
+    
+    private final Driver driver;
+    
+    /**
+     * Lee todas las ciudades y rutas y arma el grafo.
+     * 
+     * @param version Número de versión asignado al grafo
+     * @return Grafo inmutable listo para publicar
+     */
+    public GrafoSnapshot cargar(long version) {
+        // Transacción implícita: sin los reintentos de executeRead, si Neo4j no responde se falla enseguida
+        try (Session session = driver.session(SessionConfig.builder().withDefaultAccessMode(AccessMode.READ).build())) {
+            Acumulador acumulador = new Acumulador();
+            Result resultado = session.run(CONSULTA);
+            while (resultado.hasNext()) {
+                Record fila = resultado.next();
+                Value destino = fila.get("destinoId");
+                acumulador.agregar(fila.get("id").asString(), texto(fila.get("nombre")),
+                        numero(fila.get("lat")), numero(fila.get("lng")),
+                        destino.isNull() ? null : destino.asString(), numero(fila.get("distanciaKm")));
+            }
+            return acumulador.construir(version);
+        }
+    }
+    
+    private static String texto(Value valor) {
+        return valor.isNull() ? null : valor.asString();
+    }
+    
+    private static double numero(Value valor) {
+        return valor.isNull() ? 0 : valor.asDouble();
+    }
+    
+    /**
+     * Junta las filas de la consulta en arreglos de aristas, asignando índices densos a las
+     * ciudades en el orden en que aparecen (como origen o como destino).
+     */
+    static final class Acumulador {
+        
+        private final Map<String, Integer> indices = new HashMap<>();
+        
+        private final List<Ciudad> ciudades = new ArrayList<>();
+        
+        private int[] origenes = new int[1024];
+        
+        private int[] destinos = new int[1024];
+        
+        private double[] pesos = new double[1024];
+        
+        private int aristas;
+        
+        /**
+         * Agrega una fila: la ciudad y, si destinoId no es null, una ruta saliente.
+         */
+        void agregar(String id, String nombre, double lat, double lng, String destinoId, double distanciaKm) {
+            int origen = indice(id);
+            Ciudad ciudad = ciudades.get(origen);
+            ciudad.setNombre(nombre);
+            ciudad.setLat(lat);
+            ciudad.setLng(lng);
+            if (destinoId == null) {
+                return;
+            }
+            int destino = indice(destinoId);
+            if (aristas == origenes.length) {
+                int capacidad = aristas * 2;
+                origenes = Arrays.copyOf(origenes, capacidad);
+                destinos = Arrays.copyOf(destinos, capacidad);
+                pesos = Arrays.copyOf(pesos, capacidad);
+            }
+            origenes[aristas] = origen;
+            destinos[aristas] = destino;
+            pesos[aristas] = distanciaKm;
+            aristas++;
+        }
+        
+        /**
+         * Ordena las aristas por origen (CSR), conservando el orden de llegada de cada ciudad.
+         */
+        GrafoSnapshot construir(long version) {
+            int n = ciudades.size();
+            int[] offsets = new int[n + 1];
+            for (int e = 0; e < aristas; e++) {
+                offsets[origenes[e] + 1]++;
+            }
+            for (int v = 0; v < n; v++) {
+                offsets[v + 1] += offsets[v];
+            }
+            int[] siguiente = Arrays.copyOf(offsets, n);
+            int[] destinosCsr = new int[aristas];
+            double[] pesosCsr = new double[aristas];
+            for (int e = 0; e < aristas; e++) {
+                int pos = siguiente[origenes[e]]++;
+                destinosCsr[pos] = destinos[e];
+                pesosCsr[pos] = pesos[e];
+            }
+            GrafoSnapshot grafo = GrafoSnapshot.desde(version, ciudades.toArray(new Ciudad[0]), offsets, destinosCsr, pesosCsr);
+            // La API sigue mostrando las rutas de cada ciudad, leídas del CSR al serializar
+            for (int u = 0; u < n; u++) {
+                ciudades.get(u).setRutas(new RutasDelGrafo(grafo, u));
+            }
+            return grafo;
+        }
+        
+        private int indice(String id) {
+            Integer indice = indices.get(id);
+            if (indice == null) {
+                indice = ciudades.size();
+                indices.put(id, indice);
+                ciudades.add(new Ciudad(id, null, 0, 0));
+            }
+            return indice;
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.example.minimaps.grafo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Preprocesamiento de Contraction Hierarchies (CH) sobre el grafo en memoria.
+ * 
+ * Los nodos se contraen de menos a más importantes. Contraer un nodo v significa quitarlo
+ * del grafo y, para cada par de vecinos (u, w) cuyo camino mínimo pasaba por v, agregar un
+ * atajo u -> w con el mismo peso. La importancia de un nodo es su diferencia de aristas
+ * (atajos necesarios menos aristas eliminadas) más la cantidad de vecinos ya contraídos.
+ * 
+ * El trabajo se reparte en rondas: en cada una se eligen en paralelo los nodos cuya prioridad
+ * es mínima en su vecindario (un conjunto independiente), se calculan en paralelo sus atajos
+ * y luego se aplican. Las búsquedas de testigos de una ronda no atraviesan otros nodos de la
+ * misma ronda, así los atajos calculados siguen siendo válidos al contraerlos juntos.
+ */
+public final class ContraccionJerarquica {
+    
+    /**
+     * Máximo de nodos que asienta una búsqueda de testigos antes de rendirse.
+     * Si se rinde se agrega el atajo, lo que nunca rompe la corrección.
+     */
+    private static final int LIMITE_ASENTADOS_TESTIGO = 500;
+    
+    private final GrafoSnapshot grafo;
+    
+    private final int n;
+    
+    private final Lista[] salientes;
+    
+    private final Lista[] entrantes;
+    
+    private final boolean[] contraido;
+    
+    private final boolean[] enRonda;
+    
+    private final int[] vecinosContraidos;
+    
+    private final int[] prioridad;
+    
+    private final int[] rango;
+    
+    private ContraccionJerarquica(GrafoSnapshot grafo) {
+        this.grafo = grafo;
+        this.n = grafo.numNodos();
+        this.salientes = new Lista[n];
+        this.entrantes = new Lista[n];
+        this.contraido = new boolean[n];
+        this.enRonda = new boolean[n];
+        this.vecinosContraidos = new int[n];
+        this.prioridad = new int[n];
+        this.rango = new int[n];
+        
+        for (int v = 0; v < n; v++) {
+            salientes[v] = new Lista();
+            entrantes[v] = new Lista();
+        }
+        for (int u = 0; u < n; u++) {
+            for (int e = grafo.inicio(u); e < grafo.fin(u); e++) {
+                int v = grafo.destino(e);
+                if (u == v) continue;
+                salientes[u].agregarOMejorar(v, grafo.peso(e), -1);
+                entrantes[v].agregarOMejorar(u, grafo.peso(e), -1);
+            }
+        }
+    }
+    
+    /**
+     * Contrae todo el grafo y devuelve la jerarquía lista para consultas.
+     * 
+     * @param grafo Grafo a preprocesar
+     * @return Jerarquía con los atajos y el orden de contracción
+     */
+    public static JerarquiaContraccion construir(GrafoSnapshot grafo) {
+        return new ContraccionJerarquica(grafo).contraerTodo();
+    }
+    
+    private JerarquiaContraccion contraerTodo() {
+        // 1. Prioridades iniciales en paralelo
+        IntStream.range(0, n).parallel().forEach(v -> prioridad[v] = calcularPrioridad(v));
+        
+        int[] pendientes = IntStream.range(0, n).toArray();
+        int siguienteRango = 0;
+        
+        while (pendientes.length > 0) {
+            // 2. Conjunto independiente: nodos con prioridad mínima entre sus vecinos
+            int[] ronda = Arrays.stream(pendientes).parallel().filter(this::esMinimoLocal).toArray();
+            for (int v : ronda) {
+                enRonda[v] = true;
+            }
+            
+            // 3. Atajos de cada nodo de la ronda, en paralelo
+            Atajos[] atajos = new Atajos[ronda.length];
+            IntStream.range(0, ronda.length).parallel()
+                    .forEach(i -> atajos[i] = calcularAtajos(ronda[i], false));
+            
+            // 4. Aplicar la contracción (secuencial, modifica las listas)
+            List<Integer> afectados = new ArrayList<>();
+            for (int i = 0; i < ronda.length; i++) {
+                int v = ronda[i];
+                rango[v] = siguienteRango++;
+                contraer(v, atajos[i], afectados);
+            }
+            for (int v : ronda) {
+                enRonda[v] = false;
+            }
+            
+            // 5. Recalcular prioridades de los vecinos afectados
+            afectados.stream().distinct().mapToInt(Integer::intValue)
+                    .filter(v -> !contraido[v])
+                    .parallel()
+                    .forEach(v -> prioridad[v] = calcularPrioridad(v));
+            
+            pendientes = Arrays.stream(pendientes).filter(v -> !contraido[v]).toArray();
+        }
+        
+        return JerarquiaContraccion.desdeListas(grafo, rango, salientes, entrantes);
+    }
+    
+    /**
+     * Un nodo entra en la ronda si su prioridad (desempatando por índice) es menor que la
+     * de todos sus vecinos no contraídos. Dos vecinos nunca quedan en la misma ronda.
+     */
+    private boolean esMinimoLocal(int v) {
+        return menorQueVecinos(v, salientes[v]) && menorQueVecinos(v, entrantes[v]);
+    }
+    
+    private boolean menorQueVecinos(int v, Lista vecinos) {
+        for (int i = 0; i < vecinos.tam; i++) {
+            int u = vecinos.nodos[i];
+            if (prioridad[u] < prioridad[v] || (prioridad[u] == prioridad[v] && u < v)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private int calcularPrioridad(int v) {
+        int atajos = calcularAtajos(v, true).tam;
+        int eliminadas = salientes[v].tam + entrantes[v].tam;
+        return atajos - eliminadas + vecinosContraidos[v];
+    }
+    
+    /**
+     * Busca los atajos que requiere contraer v: para cada vecino entrante u y saliente w,
+     * hace falta u -> w si no existe un testigo (camino que evite v) igual o más corto.
+     * 
+     * @param soloContar true para la simulación de prioridades (no excluye la ronda actual)
+     */
+    private Atajos calcularAtajos(int v, boolean soloContar) {
+        Atajos atajos = new Atajos();
+        Lista in = entrantes[v];
+        Lista out = salientes[v];
+        if (in.tam == 0 || out.tam == 0) {
+            return atajos;
+        }
+        
+        double maxSalida = 0;
+        for (int j = 0; j < out.tam; j++) {
+            maxSalida = Math.max(maxSalida, out.pesos[j]);
+        }
+        
+        BusquedaTestigo busqueda = BusquedaTestigo.delHilo(n);
+        boolean[] saltear = soloContar ? null : enRonda;
+        for (int i = 0; i < in.tam; i++) {
+            int u = in.nodos[i];
+            double pesoUV = in.pesos[i];
+            busqueda.ejecutar(salientes, saltear, u, v, pesoUV + maxSalida);
+            
+            for (int j = 0; j < out.tam; j++) {
+                int w = out.nodos[j];
+                if (w == u) continue;
+                double porV = pesoUV + out.pesos[j];
+                if (busqueda.distancia(w) > porV) {
+                    atajos.agregar(u, w, porV);
+                }
+            }
+        }
+        return atajos;
+    }
+    
+    private void contraer(int v, Atajos atajos, List<Integer> afectados) {
+        contraido[v] = true;
+        for (int i = 0; i < salientes[v].tam; i++) {
+            int w = salientes[v].nodos[i];
+            entrantes[w].quitar(v);
+            vecinosContraidos[w]++;
+            afectados.add(w);
+        }
+        for (int i = 0; i < entrantes[v].tam; i++) {
+            int u = entrantes[v].nodos[i];
+            salientes[u].quitar(v);
+            vecinosContraidos[u]++;
+            afectados.add(u);
+        }
+        for (int i = 0; i < atajos.tam; i++) {
+            int u = atajos.origenes[i];
+            int w = atajos.destinos[i];
+            salientes[u].agregarOMejorar(w, atajos.pesos[i], v);
+            entrantes[w].agregarOMejorar(u, atajos.pesos[i], v);
+        }
+    }
+    
+    /**
+     * Dijkstra local acotado usado para buscar testigos. Se reutiliza por hilo y
+     * se reinicia con una marca de tiempo en lugar de limpiar los arreglos.
+     * 
+     * No guarda referencias a la contracción ni al grafo (las listas se pasan en cada búsqueda):
+     * sobrevive en los hilos que la usaron y no debe retener el preprocesamiento terminado.
+     */
+    private static final class BusquedaTestigo {
+        
+        private static final ThreadLocal<BusquedaTestigo> DEL_HILO = new ThreadLocal<>();
+        
+        final double[] distancias;
+        final int[] marcas;
+        final MonticuloIndexado cola;
+        int marcaActual;
+        
+        BusquedaTestigo(int capacidad) {
+            this.distancias = new double[capacidad];
+            this.marcas = new int[capacidad];
+            this.cola = new MonticuloIndexado(capacidad);
+        }
+        
+        /**
+         * Búsqueda del hilo actual; se reemplaza si el grafo creció.
+         */
+        static BusquedaTestigo delHilo(int numNodos) {
+            BusquedaTestigo busqueda = DEL_HILO.get();
+            if (busqueda == null || busqueda.marcas.length < numNodos) {
+                busqueda = new BusquedaTestigo(numNodos);
+                DEL_HILO.set(busqueda);
+            }
+            return busqueda;
+        }
+        
+        double distancia(int v) {
+            return marcas[v] == marcaActual ? distancias[v] : Double.POSITIVE_INFINITY;
+        }
+        
+        /**
+         * @param salientes Aristas salientes vigentes de cada nodo
+         * @param saltear Nodos que la búsqueda no atraviesa (la ronda actual), o null
+         */
+        void ejecutar(Lista[] salientes, boolean[] saltear, int origen, int excluido, double limite) {
+            if (++marcaActual == 0) {
+                Arrays.fill(marcas, 0);
+                marcaActual = 1;
+            }
+            cola.limpiar();
+            distancias[origen] = 0.0;
+            marcas[origen] = marcaActual;
+            cola.insertarOBajar(origen, 0.0);
+            int asentados = 0;
+            
+            while (!cola.vacio() && asentados < LIMITE_ASENTADOS_TESTIGO) {
+                if (cola.minimo() > limite) break;
+                int u = cola.extraerMinimo();
+                asentados++;
+                
+                Lista out = salientes[u];
+                for (int i = 0; i < out.tam; i++) {
+                    int w = out.nodos[i];
+                    if (w == excluido || (saltear != null && saltear[w])) continue;
+                    double nueva = distancias[u] + out.pesos[i];
+                    if (nueva < distancia(w)) {
+                        distancias[w] = nueva;
+                        marcas[w] = marcaActual;
+                        cola.insertarOBajar(w, nueva);
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Lista de adyacencia dinámica con arreglos primitivos. Guarda a lo sumo una arista
+     * por vecino (la más corta) y el nodo intermedio si es un atajo (-1 si es original).
+     */
+    static final class Lista {
+        int[] nodos = new int[4];
+        double[] pesos = new double[4];
+        int[] medios = new int[4];
+        int tam;
+        
+        void agregarOMejorar(int nodo, double peso, int medio) {
+            for (int i = 0; i < tam; i++) {
+                if (nodos[i] == nodo) {
+                    if (peso < pesos[i]) {
+                        pesos[i] = peso;
+                        medios[i] = medio;
+                    }
+                    return;
+                }
+            }
+            if (tam == nodos.length) {
+                nodos = Arrays.copyOf(nodos, tam * 2);
+                pesos = Arrays.copyOf(pesos, tam * 2);
+                medios = Arrays.copyOf(medios, tam * 2);
+            }
+            nodos[tam] = nodo;
+            pesos[tam] = peso;
+            medios[tam] = medio;
+            tam++;
+        }
+        
+        void quitar(int nodo) {
+            for (int i = 0; i < tam; i++) {
+                if (nodos[i] == nodo) {
+                    tam--;
+                    nodos[i] = nodos[tam];
+                    pesos[i] = pesos[tam];
+                    medios[i] = medios[tam];
+                    return;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Atajos (u -> w) que genera la contracción de un nodo.
+     */
+    private static final class Atajos {
+        int[] origenes = new int[4];
+        int[] destinos = new int[4];
+        double[] pesos = new double[4];
+        int tam;
+        
+        void agregar(int origen, int destino, double peso) {
+            if (tam == origenes.length) {
+                origenes = Arrays.copyOf(origenes, tam * 2);
+                destinos = Arrays.copyOf(destinos, tam * 2);
+                pesos = Arrays.copyOf(pesos, tam * 2);
+            }
+            origenes[tam] = origen;
+            destinos[tam] = destino;
+            pesos[tam] = peso;
+            tam++;
+        }
+    }
+}
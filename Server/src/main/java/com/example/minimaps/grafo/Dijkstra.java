@@ -0,0 +1,45 @@
+package com.example.minimaps.grafo;
+
+/**
+ * Dijkstra punto a punto sobre el grafo en memoria.
+ * 
+ * Usa arreglos primitivos y un montículo indexado con decrease-key, reutilizados por hilo
+ * ({@link EspacioBusqueda}): una consulta no crea objetos salvo el camino resultante y su
+ * preparación no depende del tamaño del grafo.
+ */
+public final class Dijkstra {
+    
+    private Dijkstra() {
+    }
+    
+    /**
+     * Calcula el camino mínimo entre dos nodos del grafo.
+     * 
+     * @param g Grafo sobre el que se busca
+     * @param origen Índice del nodo origen
+     * @param destino Índice del nodo destino
+     * @return Camino encontrado, con la cantidad de nodos asentados
+     */
+    public static Camino buscar(GrafoSnapshot g, int origen, int destino) {
+        EspacioBusqueda espacio = EspacioBusqueda.adelante(g.numNodos());
+        espacio.iniciar(origen);
+        int asentados = 0;
+        
+        while (espacio.hayPendientes()) {
+            int u = espacio.extraer();
+            asentados++;
+            if (u == destino) {
+                return new Camino(espacio.distancia(u), espacio.camino(u), asentados);
+            }
+            
+            double distanciaU = espacio.distancia(u);
+            for (int e = g.inicio(u); e < g.fin(u); e++) {
+                int v = g.destino(e);
+                if (!espacio.asentado(v)) {
+                    espacio.relajar(v, distanciaU + g.peso(e), u);
+                }
+            }
+        }
+        return Camino.inalcanzable(asentados);
+    }
+}
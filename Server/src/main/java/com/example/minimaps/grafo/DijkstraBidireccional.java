@@ -0,0 +1,89 @@
+package com.example.minimaps.grafo;
+
+import java.util.Arrays;
+
+/**
+ * Dijkstra bidireccional punto a punto sobre el grafo en memoria.
+ * 
+ * Avanza alternadamente una búsqueda hacia adelante desde el origen (aristas salientes)
+ * y otra hacia atrás desde el destino (aristas entrantes). Cada vez que una arista conecta
+ * ambas frentes se actualiza la mejor distancia conocida mu; la búsqueda termina cuando
+ * la suma de los mínimos de ambas colas ya no puede mejorar mu. Los espacios de trabajo de
+ * ambas búsquedas se reutilizan por hilo.
+ */
+public final class DijkstraBidireccional {
+    
+    private DijkstraBidireccional() {
+    }
+    
+    /**
+     * Calcula el camino mínimo entre dos nodos del grafo.
+     * 
+     * @param g Grafo sobre el que se busca
+     * @param origen Índice del nodo origen
+     * @param destino Índice del nodo destino
+     * @return Camino encontrado, con la cantidad de nodos asentados por ambas búsquedas
+     */
+    public static Camino buscar(GrafoSnapshot g, int origen, int destino) {
+        if (origen == destino) {
+            return new Camino(0.0, new int[] { origen }, 1);
+        }
+        
+        EspacioBusqueda adelante = EspacioBusqueda.adelante(g.numNodos());
+        EspacioBusqueda atras = EspacioBusqueda.atras(g.numNodos());
+        adelante.iniciar(origen);
+        atras.iniciar(destino);
+        double mejor = Double.POSITIVE_INFINITY;
+        int encuentro = -1;
+        int asentados = 0;
+        boolean turnoAdelante = true;
+        
+        // Criterio de corte: ningún camino que pase por nodos no asentados puede mejorar mu
+        while (adelante.hayPendientes() && atras.hayPendientes()
+                && adelante.minimo() + atras.minimo() < mejor) {
+            EspacioBusqueda frente = turnoAdelante ? adelante : atras;
+            EspacioBusqueda otro = turnoAdelante ? atras : adelante;
+            
+            int actual = frente.extraer();
+            asentados++;
+            double distanciaActual = frente.distancia(actual);
+            int inicio = turnoAdelante ? g.inicio(actual) : g.inicioInverso(actual);
+            int fin = turnoAdelante ? g.fin(actual) : g.finInverso(actual);
+            for (int e = inicio; e < fin; e++) {
+                int vecino = turnoAdelante ? g.destino(e) : g.origenInverso(e);
+                double peso = turnoAdelante ? g.peso(e) : g.pesoInverso(e);
+                frente.relajar(vecino, distanciaActual + peso, actual);
+                
+                // ¿El vecino ya fue alcanzado por la otra búsqueda?
+                double total = frente.distancia(vecino) + otro.distancia(vecino);
+                if (total < mejor) {
+                    mejor = total;
+                    encuentro = vecino;
+                }
+            }
+            turnoAdelante = !turnoAdelante;
+        }
+        
+        if (encuentro < 0) {
+            return Camino.inalcanzable(asentados);
+        }
+        return new Camino(mejor, unir(adelante, atras, encuentro), asentados);
+    }
+    
+    /**
+     * Une la mitad hacia adelante (origen..encuentro) con la mitad hacia atrás (encuentro..destino).
+     */
+    private static int[] unir(EspacioBusqueda adelante, EspacioBusqueda atras, int encuentro) {
+        int[] primeraMitad = adelante.camino(encuentro);
+        int largoAtras = 0;
+        for (int v = atras.predecesor(encuentro); v != -1; v = atras.predecesor(v)) {
+            largoAtras++;
+        }
+        int[] camino = Arrays.copyOf(primeraMitad, primeraMitad.length + largoAtras);
+        int i = primeraMitad.length;
+        for (int v = atras.predecesor(encuentro); v != -1; v = atras.predecesor(v)) {
+            camino[i++] = v;
+        }
+        return camino;
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.minimaps.grafo;
+
+import java.util.Arrays;
+
+/**
+ * Arreglos de trabajo de una búsqueda tipo Dijkstra: distancias, predecesores y la cola.
+ * 
+ * Se reutilizan entre consultas del mismo hilo. Un nodo solo tiene datos válidos si fue
+ * alcanzado en la búsqueda actual (su marca coincide), así que preparar una búsqueda cuesta
+ * O(1) y el trabajo es proporcional a los nodos tocados, no al tamaño del grafo. Un nodo
+ * alcanzado que ya no está en la cola está asentado.
+ * 
+ * Cada hilo tiene dos espacios, uno para las búsquedas hacia adelante y otro para las búsquedas
+ * hacia atrás ({@link #adelante(int)} y {@link #atras(int)}), compartidos por todos los motores:
+ * una búsqueda no debe pedir el mismo espacio que otra que todavía está usando.
+ */
+final class EspacioBusqueda {
+    
+    private static final ThreadLocal<EspacioBusqueda[]> DEL_HILO = ThreadLocal.withInitial(() -> new EspacioBusqueda[2]);
+    
+    private final double[] distancias;
+    
+    private final int[] predecesores;
+    
+    private final int[] marcas;
+    
+    private final MonticuloIndexado cola;
+    
+    private double[] auxiliar;
+    
+    private int[] auxiliarEntero;
+    
+    private int[] nodosBloqueados;
+    
+    private int[] aristasBloqueadas;
+    
+    private int marcaActual;
+    
+    EspacioBusqueda(int capacidad) {
+        distancias = new double[capacidad];
+        predecesores = new int[capacidad];
+        marcas = new int[capacidad];
+        cola = new MonticuloIndexado(capacidad);
+    }
+    
+    /**
+     * Espacio del hilo actual para búsquedas hacia adelante; se reemplaza si el grafo creció.
+     */
+    static EspacioBusqueda adelante(int numNodos) {
+        return delHilo(0, numNodos);
+    }
+    
+    /**
+     * Espacio del hilo actual para búsquedas hacia atrás, distinto del de {@link #adelante(int)}.
+     */
+    static EspacioBusqueda atras(int numNodos) {
+        return delHilo(1, numNodos);
+    }
+    
+    private static EspacioBusqueda delHilo(int sentido, int numNodos) {
+        EspacioBusqueda[] espacios = DEL_HILO.get();
+        EspacioBusqueda espacio = espacios[sentido];
+        if (espacio == null || espacio.capacidad() < numNodos) {
+            espacio = new EspacioBusqueda(numNodos);
+            espacios[sentido] = espacio;
+        }
+        return espacio;
+    }
+    
+    int capacidad() {
+        return marcas.length;
+    }
+    
+    /**
+     * Invalida la búsqueda anterior (y sus bloqueos) y encola el origen con distancia 0.
+     */
+    void iniciar(int origen) {
+        if (++marcaActual == 0) {
+            // Dio la vuelta: las marcas viejas podrían coincidir con las nuevas
+            Arrays.fill(marcas, 0);
+            if (nodosBloqueados != null) Arrays.fill(nodosBloqueados, 0);
+            if (aristasBloqueadas != null) Arrays.fill(aristasBloqueadas, 0);
+            marcaActual = 1;
+        }
+        cola.limpiar();
+        relajar(origen, 0.0, -1);
+    }
+    
+    boolean alcanzado(int v) {
+        return marcas[v] == marcaActual;
+    }
+    
+    boolean asentado(int v) {
+        return marcas[v] == marcaActual && !cola.contiene(v);
+    }
+    
+    double distancia(int v) {
+        return marcas[v] == marcaActual ? distancias[v] : Double.POSITIVE_INFINITY;
+    }
+    
+    int predecesor(int v) {
+        return predecesores[v];
+    }
+    
+    boolean hayPendientes() {
+        return !cola.vacio();
+    }
+    
+    /**
+     * Prioridad mínima pendiente en la cola, o infinito si no quedan nodos.
+     */
+    double minimo() {
+        return cola.minimo();
+    }
+    
+    /**
+     * Asienta y devuelve el nodo pendiente de menor prioridad.
+     */
+    int extraer() {
+        return cola.extraerMinimo();
+    }
+    
+    /**
+     * Registra un camino al nodo si mejora su distancia; la prioridad en la cola es la distancia.
+     * 
+     * @return true si la distancia mejoró
+     */
+    boolean relajar(int v, double distancia, int predecesor) {
+        return relajar(v, distancia, predecesor, distancia);
+    }
+    
+    /**
+     * Igual que {@link #relajar(int, double, int)} pero con una prioridad distinta de la
+     * distancia (por ejemplo distancia + cota en A*).
+     */
+    boolean relajar(int v, double distancia, int predecesor, double prioridad) {
+        if (marcas[v] == marcaActual && distancia >= distancias[v]) {
+            return false;
+        }
+        marcas[v] = marcaActual;
+        distancias[v] = distancia;
+        predecesores[v] = predecesor;
+        cola.insertarOBajar(v, prioridad);
+        return true;
+    }
+    
+    /**
+     * Arreglo auxiliar del tamaño del espacio (cotas de A*, pesos de la arista al predecesor en
+     * {@link Alcance}); se crea la primera vez que se pide. Sus valores solo tienen sentido para
+     * los nodos alcanzados en la búsqueda actual.
+     */
+    double[] auxiliar() {
+        if (auxiliar == null) {
+            auxiliar = new double[capacidad()];
+        }
+        return auxiliar;
+    }
+    
+    /**
+     * Arreglo auxiliar de enteros del tamaño del espacio (nodo intermedio del atajo por el que
+     * se llegó a cada nodo en {@link JerarquiaContraccion}), con las mismas reglas que
+     * {@link #auxiliar()}.
+     */
+    int[] auxiliarEntero() {
+        if (auxiliarEntero == null) {
+            auxiliarEntero = new int[capacidad()];
+        }
+        return auxiliarEntero;
+    }
+    
+    /**
+     * Bloquea el nodo hasta la próxima búsqueda. Se llama después de {@link #iniciar(int)}.
+     */
+    void bloquearNodo(int v) {
+        if (nodosBloqueados == null) {
+            nodosBloqueados = new int[capacidad()];
+        }
+        nodosBloqueados[v] = marcaActual;
+    }
+    
+    boolean nodoBloqueado(int v) {
+        return nodosBloqueados != null && nodosBloqueados[v] == marcaActual;
+    }
+    
+    /**
+     * Bloquea la arista hasta la próxima búsqueda. Se llama después de {@link #iniciar(int)}.
+     */
+    void bloquearArista(int e) {
+        if (aristasBloqueadas == null || e >= aristasBloqueadas.length) {
+            // Las aristas no dependen de la capacidad: el arreglo crece con el grafo
+            int largo = Math.max(e + 1, aristasBloqueadas == null ? capacidad() : 2 * aristasBloqueadas.length);
+            aristasBloqueadas = aristasBloqueadas == null ? new int[largo] : Arrays.copyOf(aristasBloqueadas, largo);
+        }
+        aristasBloqueadas[e] = marcaActual;
+    }
+    
+    boolean aristaBloqueada(int e) {
+        return aristasBloqueadas != null && e < aristasBloqueadas.length && aristasBloqueadas[e] == marcaActual;
+    }
+    
+    /**
+     * Camino desde el origen hasta v siguiendo los predecesores.
+     */
+    int[] camino(int v) {
+        int largo = 0;
+        for (int u = v; u != -1; u = predecesores[u]) {
+            largo++;
+        }
+        int[] camino = new int[largo];
+        for (int u = v, i = largo - 1; u != -1; u = predecesores[u], i--) {
+            camino[i] = u;
+        }
+        return camino;
+    }
+}
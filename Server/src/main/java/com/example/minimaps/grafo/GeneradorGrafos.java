@@ -0,0 +1,283 @@
+package com.example.minimaps.grafo;
+
+import com.example.minimaps.domain.Ciudad;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Genera grafos sintéticos parecidos a una red de rutas, para probar y medir con miles o
+ * millones de ciudades sin Neo4j.
+ * 
+ * Las ciudades caen dentro de un rectángulo que cubre Argentina y todas las rutas son
+ * bidireccionales, con un peso algo mayor que la distancia en línea recta (las autopistas se
+ * desvían menos). Con el mismo modelo, tamaño y semilla se obtiene siempre el mismo grafo.
+ * Las ciudades no llevan nombre ni objetos {@link com.example.minimaps.domain.Ruta}: el grafo se
+ * arma directo en CSR para que entren grafos grandes en memoria.
+ * 
+ * También puede usarse desde la línea de comandos para escribir un archivo de
+ * {@link ArchivoGrafo}:
+ * <pre>
+ * GeneradorGrafos &lt;geometrico|grilla|hubs&gt; &lt;nodos&gt; &lt;semilla&gt; &lt;archivo&gt;
+ * </pre>
+ */
+public final class GeneradorGrafos {
+    
+    /**
+     * Forma del grafo generado.
+     */
+    public enum Modelo {
+        /**
+         * Grafo geométrico aleatorio: ciudades uniformes, cada una unida a sus vecinas más cercanas.
+         */
+        GEOMETRICO,
+        /**
+         * Grilla con las ciudades desplazadas, algunas calles cortadas y autopistas cada 16 filas
+         * y columnas que unen directamente ciudades a 16 cuadras de distancia.
+         */
+        GRILLA,
+        /**
+         * Crecimiento con enganche preferencial: cada ciudad nueva se une a ciudades ya existentes
+         * con probabilidad proporcional a su grado y se ubica cerca de la primera, así aparecen
+         * pocos nodos muy conectados (grados con ley de potencia) rodeados de ciudades chicas.
+         */
+        HUBS
+    }
+    
+    static final double MIN_LAT = -55;
+    
+    static final double MAX_LAT = -22;
+    
+    static final double MIN_LNG = -73;
+    
+    static final double MAX_LNG = -54;
+    
+    /**
+     * Vecinas más cercanas a las que se une cada ciudad en el modelo geométrico.
+     */
+    private static final int VECINAS = 3;
+    
+    /**
+     * Proporción de calles de la grilla que se cortan.
+     */
+    private static final double CALLES_CORTADAS = 0.1;
+    
+    private static final int SEPARACION_AUTOPISTAS = 16;
+    
+    /**
+     * Rutas con las que llega cada ciudad nueva en el modelo de hubs.
+     */
+    private static final int RUTAS_POR_CIUDAD = 2;
+    
+    private GeneradorGrafos() {
+    }
+    
+    /**
+     * Genera un grafo sintético.
+     * 
+     * @param modelo Forma del grafo
+     * @param nodos Cantidad de ciudades
+     * @param semilla Semilla de los números aleatorios
+     * @param version Número de versión asignado al grafo
+     * @return Grafo inmutable listo para publicar
+     */
+    public static GrafoSnapshot generar(Modelo modelo, int nodos, long semilla, long version) {
+        if (nodos < 0) {
+            throw new IllegalArgumentException("La cantidad de nodos no puede ser negativa");
+        }
+        SplittableRandom random = new SplittableRandom(semilla);
+        double[] lat = new double[nodos];
+        double[] lng = new double[nodos];
+        Pares pares = new Pares(nodos * 3);
+        switch (modelo) {
+            case GEOMETRICO -> geometrico(lat, lng, pares, random);
+            case GRILLA -> grilla(lat, lng, pares, random);
+            case HUBS -> hubs(lat, lng, pares, random);
+        }
+        return pares.construir(version, lat, lng);
+    }
+    
+    private static void geometrico(double[] lat, double[] lng, Pares pares, SplittableRandom random) {
+        int n = lat.length;
+        for (int i = 0; i < n; i++) {
+            lat[i] = random.nextDouble(MIN_LAT, MAX_LAT);
+            lng[i] = random.nextDouble(MIN_LNG, MAX_LNG);
+        }
+        IndiceEspacial indice = IndiceEspacial.construir(lat, lng);
+        for (int u = 0; u < n; u++) {
+            // El primero es la propia ciudad
+            for (int v : indice.cercanos(lat[u], lng[u], VECINAS + 1)) {
+                pares.agregar(u, v, false);
+            }
+        }
+    }
+    
+    private static void grilla(double[] lat, double[] lng, Pares pares, SplittableRandom random) {
+        int n = lat.length;
+        int columnas = Math.max(1, (int) Math.ceil(Math.sqrt(n)));
+        int filas = (n + columnas - 1) / columnas;
+        double altoCelda = (MAX_LAT - MIN_LAT) / Math.max(1, filas);
+        double anchoCelda = (MAX_LNG - MIN_LNG) / columnas;
+        for (int i = 0; i < n; i++) {
+            int fila = i / columnas;
+            int columna = i % columnas;
+            lat[i] = MIN_LAT + (fila + 0.5 + random.nextDouble(-0.35, 0.35)) * altoCelda;
+            lng[i] = MIN_LNG + (columna + 0.5 + random.nextDouble(-0.35, 0.35)) * anchoCelda;
+        }
+        for (int i = 0; i < n; i++) {
+            int fila = i / columnas;
+            int columna = i % columnas;
+            if (columna + 1 < columnas && i + 1 < n && random.nextDouble() >= CALLES_CORTADAS) {
+                pares.agregar(i, i + 1, false);
+            }
+            if (i + columnas < n && random.nextDouble() >= CALLES_CORTADAS) {
+                pares.agregar(i, i + columnas, false);
+            }
+            if (fila % SEPARACION_AUTOPISTAS == 0 && columna % SEPARACION_AUTOPISTAS == 0) {
+                if (columna + SEPARACION_AUTOPISTAS < columnas && i + SEPARACION_AUTOPISTAS < n) {
+                    pares.agregar(i, i + SEPARACION_AUTOPISTAS, true);
+                }
+                if (i + SEPARACION_AUTOPISTAS * columnas < n) {
+                    pares.agregar(i, i + SEPARACION_AUTOPISTAS * columnas, true);
+                }
+            }
+        }
+    }
+    
+    private static void hubs(double[] lat, double[] lng, Pares pares, SplittableRandom random) {
+        int n = lat.length;
+        int iniciales = Math.min(n, RUTAS_POR_CIUDAD + 1);
+        // Cada ruta agrega sus dos extremos: elegir una posición al azar es elegir según el grado
+        int[] extremos = new int[2 * RUTAS_POR_CIUDAD * n];
+        int cantidad = 0;
+        for (int i = 0; i < iniciales; i++) {
+            lat[i] = random.nextDouble(MIN_LAT, MAX_LAT);
+            lng[i] = random.nextDouble(MIN_LNG, MAX_LNG);
+            for (int j = 0; j < i; j++) {
+                pares.agregar(i, j, false);
+                extremos[cantidad++] = i;
+                extremos[cantidad++] = j;
+            }
+        }
+        for (int i = iniciales; i < n; i++) {
+            for (int k = 0; k < RUTAS_POR_CIUDAD; k++) {
+                int destino = extremos[random.nextInt(cantidad)];
+                if (k == 0) {
+                    // Cerca del primer destino, a una distancia típica de unos 50 km
+                    lat[i] = limitar(lat[destino] + random.nextDouble(-0.5, 0.5), MIN_LAT, MAX_LAT);
+                    lng[i] = limitar(lng[destino] + random.nextDouble(-0.5, 0.5), MIN_LNG, MAX_LNG);
+                }
+                pares.agregar(i, destino, false);
+                extremos[cantidad++] = i;
+                extremos[cantidad++] = destino;
+            }
+        }
+    }
+    
+    private static double limitar(double valor, double min, double max) {
+        return Math.max(min, Math.min(max, valor));
+    }
+    
+    /**
+     * Rutas no dirigidas acumuladas como claves (menor, mayor, autopista). Al construir se
+     * ordenan, se descartan las repetidas y cada una se vuelca en los dos sentidos.
+     */
+    private static final class Pares {
+        
+        private long[] claves;
+        
+        private int cantidad;
+        
+        Pares(int capacidad) {
+            claves = new long[Math.max(16, capacidad)];
+        }
+        
+        void agregar(int u, int v, boolean autopista) {
+            if (u == v) return;
+            if (cantidad == claves.length) {
+                claves = Arrays.copyOf(claves, cantidad * 2);
+            }
+            // El bit más bajo en 0 para las autopistas, así quedan primeras entre las repetidas
+            claves[cantidad++] = (long) Math.min(u, v) << 32 | (long) Math.max(u, v) << 1 | (autopista ? 0 : 1);
+        }
+        
+        GrafoSnapshot construir(long version, double[] lat, double[] lng) {
+            int n = lat.length;
+            Arrays.parallelSort(claves, 0, cantidad);
+            int unicas = 0;
+            for (int i = 0; i < cantidad; i++) {
+                if (unicas == 0 || claves[i] >>> 1 != claves[unicas - 1] >>> 1) {
+                    claves[unicas++] = claves[i];
+                }
+            }
+            
+            int[] offsets = new int[n + 1];
+            for (int i = 0; i < unicas; i++) {
+                offsets[menor(claves[i]) + 1]++;
+                offsets[mayor(claves[i]) + 1]++;
+            }
+            for (int v = 0; v < n; v++) {
+                offsets[v + 1] += offsets[v];
+            }
+            int[] siguiente = Arrays.copyOf(offsets, n);
+            int[] destinos = new int[2 * unicas];
+            double[] pesos = new double[2 * unicas];
+            for (int i = 0; i < unicas; i++) {
+                int u = menor(claves[i]);
+                int v = mayor(claves[i]);
+                double recta = Geo.haversineKm(lat[u], lng[u], lat[v], lng[v]);
+                double desvio = (claves[i] & 1) == 0 ? 1.02 : desvio(claves[i]);
+                double peso = Math.round(recta * desvio * 10) / 10.0;
+                int e = siguiente[u]++;
+                destinos[e] = v;
+                pesos[e] = peso;
+                e = siguiente[v]++;
+                destinos[e] = u;
+                pesos[e] = peso;
+            }
+            
+            Ciudad[] ciudades = new Ciudad[n];
+            for (int i = 0; i < n; i++) {
+                ciudades[i] = new Ciudad("g" + i, null, lat[i], lng[i]);
+            }
+            return GrafoSnapshot.desde(version, ciudades, offsets, destinos, pesos);
+        }
+        
+        private static int menor(long clave) {
+            return (int) (clave >>> 32);
+        }
+        
+        private static int mayor(long clave) {
+            return (int) (clave >>> 1) & Integer.MAX_VALUE;
+        }
+        
+        /**
+         * Factor entre 1.05 y 1.35 que depende solo del par (mezcla de SplitMix64), así una
+         * ruta pesa lo mismo en los dos sentidos sin guardar nada más.
+         */
+        private static double desvio(long clave) {
+            long z = clave * 0x9E3779B97F4A7C15L;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            z ^= z >>> 31;
+            return 1.05 + 0.3 * ((z >>> 11) * 0x1.0p-53);
+        }
+    }
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length != 4) {
+            System.err.println("Uso: GeneradorGrafos <geometrico|grilla|hubs> <nodos> <semilla> <archivo>");
+            System.exit(2);
+        }
+        Modelo modelo = Modelo.valueOf(args[0].toUpperCase(Locale.ROOT));
+        long inicio = System.nanoTime();
+        GrafoSnapshot grafo = generar(modelo, Integer.parseInt(args[1]), Long.parseLong(args[2]), 1);
+        ArchivoGrafo.guardar(grafo, Path.of(args[3]));
+        System.out.printf("Grafo %s con %d ciudades y %d rutas guardado en %s (%d ms)%n",
+                modelo.name().toLowerCase(Locale.ROOT), grafo.numNodos(), grafo.numAristas(), args[3],
+                (System.nanoTime() - inicio) / 1_000_000);
+    }
+}
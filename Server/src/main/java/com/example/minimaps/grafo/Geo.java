@@ -0,0 +1,27 @@
+package com.example.minimaps.grafo;
+
+/**
+ * Utilidades geográficas sobre coordenadas (lat, lng) en grados.
+ */
+public final class Geo {
+    
+    /**
+     * Radio medio de la Tierra en kilómetros.
+     */
+    public static final double RADIO_TIERRA_KM = 6371.0088;
+    
+    private Geo() {
+    }
+    
+    /**
+     * Distancia de círculo máximo (fórmula de Haversine) entre dos puntos, en kilómetros.
+     */
+    public static double haversineKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * RADIO_TIERRA_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.minimaps.grafo;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Evento publicado cada vez que se reemplaza el grafo en memoria.
+ * Los componentes que precalculan estructuras a partir del grafo lo escuchan para reconstruirse.
+ */
+@Getter
+@RequiredArgsConstructor
+public class GrafoActualizadoEvent {
+    
+    private final GrafoSnapshot snapshot;
+}
@@ -0,0 +1,132 @@
+package com.example.minimaps.grafo;
+
+import com.example.minimaps.domain.Ciudad;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongFunction;
+
+/**
+ * Mantiene el grafo de ciudades residente en memoria.
+ * 
+ * El grafo se carga una vez desde Neo4j al iniciar la aplicación y se reemplaza completo
+ * (copy-on-write) cuando cambian los datos. Los lectores solo leen la referencia actual,
+ * por lo que nunca se bloquean mientras se construye una versión nueva.
+ * 
+ * Si se configura un archivo ({@link ArchivoGrafo}), cada grafo leído de Neo4j se guarda allí y
+ * al iniciar se publica primero la copia del archivo: la aplicación responde enseguida y sigue
+ * funcionando en modo solo lectura si Neo4j no está disponible.
+ */
+@Slf4j
+@Component
+public class GrafoEnMemoria {
+    
+    private final CargadorGrafo cargador;
+    
+    private final ApplicationEventPublisher eventPublisher;
+    
+    private final String archivo;
+    
+    private final AtomicReference<GrafoSnapshot> actual = new AtomicReference<>(GrafoSnapshot.vacio());
+    
+    private final AtomicLong ultimaVersion = new AtomicLong();
+    
+    public GrafoEnMemoria(CargadorGrafo cargador, ApplicationEventPublisher eventPublisher,
+                          @Value("${minimaps.grafo.archivo:}") String archivo) {
+        this.cargador = cargador;
+        this.eventPublisher = eventPublisher;
+        this.archivo = archivo;
+    }
+    
+    /**
+     * Carga inicial del grafo: primero la copia en disco, si hay, y después Neo4j.
+     * Si Neo4j no está disponible se sigue con la copia o, sin ella, con un grafo vacío.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarAlIniciar() {
+        leerArchivo();
+        try {
+            recargar();
+        } catch (RuntimeException e) {
+            log.warn("No se pudo cargar el grafo desde Neo4j, se sigue con el grafo v{}: {}",
+                    snapshot().version(), e.getMessage());
+        }
+    }
+    
+    /**
+     * Grafo vigente. Nunca es null.
+     */
+    public GrafoSnapshot snapshot() {
+        return actual.get();
+    }
+    
+    /**
+     * Vuelve a leer todas las ciudades desde Neo4j y publica una nueva versión del grafo.
+     * Si falla, el grafo vigente sigue publicado.
+     * 
+     * @return Grafo recién publicado
+     */
+    public GrafoSnapshot recargar() {
+        GrafoSnapshot nuevo = publicar(cargador::cargar);
+        guardarArchivo(nuevo);
+        return nuevo;
+    }
+    
+    /**
+     * Construye una nueva versión del grafo a partir de las ciudades dadas y la publica.
+     * 
+     * @param ciudades Ciudades con sus rutas salientes
+     * @return Grafo recién publicado
+     */
+    public GrafoSnapshot publicar(List<Ciudad> ciudades) {
+        return publicar(version -> GrafoSnapshot.desde(version, ciudades));
+    }
+    
+    /**
+     * Construye una nueva versión del grafo con el número de versión siguiente y la publica.
+     * Sirve también para publicar grafos que no vienen de Neo4j, como los de {@link GeneradorGrafos}.
+     * 
+     * @param construir Recibe el número de versión y devuelve el grafo
+     * @return Grafo recién publicado
+     */
+    public synchronized GrafoSnapshot publicar(LongFunction<GrafoSnapshot> construir) {
+        GrafoSnapshot nuevo = construir.apply(ultimaVersion.incrementAndGet());
+        actual.set(nuevo);
+        log.info("Grafo v{} cargado: {} ciudades, {} rutas",
+                nuevo.version(), nuevo.numNodos(), nuevo.numAristas());
+        eventPublisher.publishEvent(new GrafoActualizadoEvent(nuevo));
+        return nuevo;
+    }
+    
+    private void leerArchivo() {
+        if (archivo.isBlank()) return;
+        try {
+            long inicio = System.nanoTime();
+            GrafoSnapshot leido = ArchivoGrafo.cargar(Path.of(archivo), ultimaVersion.get() + 1);
+            if (leido != null) {
+                log.info("Grafo leído de {} en {} ms", archivo, (System.nanoTime() - inicio) / 1_000_000);
+                publicar(version -> leido);
+            }
+        } catch (IOException e) {
+            log.warn("No se pudo leer el grafo de {}: {}", archivo, e.getMessage());
+        }
+    }
+    
+    private void guardarArchivo(GrafoSnapshot grafo) {
+        if (archivo.isBlank()) return;
+        try {
+            ArchivoGrafo.guardar(grafo, Path.of(archivo));
+        } catch (IOException e) {
+            log.warn("No se pudo guardar el grafo en {}: {}", archivo, e.getMessage());
+        }
+    }
+}
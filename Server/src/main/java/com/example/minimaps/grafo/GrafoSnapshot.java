@@ -0,0 +1,345 @@
+package com.example.minimaps.grafo;
+
+import com.example.minimaps.domain.Ciudad;
+import com.example.minimaps.domain.Ruta;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Foto inmutable del grafo de ciudades en memoria.
+ * 
+ * Cada ciudad recibe un índice entero denso (0..n-1) y las aristas salientes se guardan
+ * en formato CSR (Compressed Sparse Row): las aristas del nodo i ocupan las posiciones
+ * [offsets[i], offsets[i + 1]) de los arreglos destinos y pesos. Se guarda también la
+ * adyacencia inversa (aristas entrantes) para las búsquedas hacia atrás.
+ * 
+ * Una vez construida no se modifica, por lo que puede compartirse entre hilos sin bloqueos.
+ */
+public final class GrafoSnapshot {
+    
+    private final long version;
+    
+    private final Ciudad[] ciudades;
+    
+    private final List<Ciudad> listaCiudades;
+    
+    private final Map<String, Integer> indices;
+    
+    private final double[] lat;
+    
+    private final double[] lng;
+    
+    private final int[] offsets;
+    
+    private final int[] destinos;
+    
+    private final double[] pesos;
+    
+    private final int[] offsetsInversos;
+    
+    private final int[] origenesInversos;
+    
+    private final double[] pesosInversos;
+    
+    private final int[] aristasDirectas;
+    
+    private final double factorGeografico;
+    
+    private final long huella;
+    
+    private final IndiceEspacial indiceEspacial;
+    
+    private GrafoSnapshot(long version, Ciudad[] ciudades, Map<String, Integer> indices,
+                          double[] lat, double[] lng,
+                          int[] offsets, int[] destinos, double[] pesos) {
+        this.version = version;
+        this.ciudades = ciudades;
+        this.listaCiudades = Collections.unmodifiableList(Arrays.asList(ciudades));
+        this.indices = indices;
+        this.lat = lat;
+        this.lng = lng;
+        this.offsets = offsets;
+        this.destinos = destinos;
+        this.pesos = pesos;
+        
+        // Adyacencia inversa: las aristas entrantes de v ocupan [offsetsInversos[v], offsetsInversos[v + 1])
+        int n = ciudades.length;
+        this.offsetsInversos = new int[n + 1];
+        this.origenesInversos = new int[destinos.length];
+        this.pesosInversos = new double[destinos.length];
+        this.aristasDirectas = new int[destinos.length];
+        for (int destino : destinos) {
+            offsetsInversos[destino + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            offsetsInversos[v + 1] += offsetsInversos[v];
+        }
+        int[] siguiente = Arrays.copyOf(offsetsInversos, n);
+        for (int u = 0; u < n; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int pos = siguiente[destinos[e]]++;
+                origenesInversos[pos] = u;
+                pesosInversos[pos] = pesos[e];
+                aristasDirectas[pos] = e;
+            }
+        }
+        this.factorGeografico = calcularFactorGeografico();
+        this.huella = calcularHuella();
+        this.indiceEspacial = IndiceEspacial.construir(lat, lng);
+    }
+    
+    /**
+     * Grafo sin nodos, usado antes de la primera carga.
+     */
+    public static GrafoSnapshot vacio() {
+        return new GrafoSnapshot(0, new Ciudad[0], Map.of(),
+                new double[0], new double[0], new int[1], new int[0], new double[0]);
+    }
+    
+    /**
+     * Construye el grafo compacto a partir de las ciudades con sus rutas cargadas.
+     * Las rutas cuyo destino no figura en la lista se descartan.
+     * 
+     * @param version Número de versión asignado a esta foto
+     * @param ciudades Ciudades con sus rutas salientes
+     * @return Grafo inmutable listo para los algoritmos
+     */
+    public static GrafoSnapshot desde(long version, List<Ciudad> ciudades) {
+        int n = ciudades.size();
+        Ciudad[] nodos = new Ciudad[n];
+        Map<String, Integer> indices = new HashMap<>(n * 2);
+        double[] lat = new double[n];
+        double[] lng = new double[n];
+        
+        // 1. Asignar índices densos
+        for (int i = 0; i < n; i++) {
+            Ciudad ciudad = ciudades.get(i);
+            nodos[i] = ciudad;
+            indices.put(ciudad.getId(), i);
+            lat[i] = ciudad.getLat();
+            lng[i] = ciudad.getLng();
+        }
+        
+        // 2. Contar aristas válidas por nodo
+        int[] offsets = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            int grado = 0;
+            for (Ruta ruta : nodos[i].getRutas()) {
+                if (ruta.getDestino() != null && indices.containsKey(ruta.getDestino().getId())) {
+                    grado++;
+                }
+            }
+            offsets[i + 1] = offsets[i] + grado;
+        }
+        
+        // 3. Volcar las aristas en los arreglos CSR
+        int[] destinos = new int[offsets[n]];
+        double[] pesos = new double[offsets[n]];
+        for (int i = 0; i < n; i++) {
+            int e = offsets[i];
+            for (Ruta ruta : nodos[i].getRutas()) {
+                if (ruta.getDestino() == null) continue;
+                Integer destino = indices.get(ruta.getDestino().getId());
+                if (destino != null) {
+                    destinos[e] = destino;
+                    pesos[e] = ruta.getDistanciaKm();
+                    e++;
+                }
+            }
+        }
+        
+        return new GrafoSnapshot(version, nodos, indices, lat, lng, offsets, destinos, pesos);
+    }
+    
+    /**
+     * Construye el grafo a partir de arreglos CSR ya armados, sin recorrer las rutas de las ciudades.
+     * Los arreglos pasan a ser del grafo: quien los entrega no debe modificarlos.
+     * 
+     * @param version Número de versión asignado a esta foto
+     * @param ciudades Ciudad de cada índice
+     * @param offsets Las aristas del nodo i ocupan [offsets[i], offsets[i + 1])
+     * @param destinos Índice del destino de cada arista
+     * @param pesos Distancia de cada arista en kilómetros
+     * @return Grafo inmutable listo para los algoritmos
+     */
+    public static GrafoSnapshot desde(long version, Ciudad[] ciudades, int[] offsets, int[] destinos, double[] pesos) {
+        int n = ciudades.length;
+        Map<String, Integer> indices = new HashMap<>(n * 2);
+        double[] lat = new double[n];
+        double[] lng = new double[n];
+        for (int i = 0; i < n; i++) {
+            indices.put(ciudades[i].getId(), i);
+            lat[i] = ciudades[i].getLat();
+            lng[i] = ciudades[i].getLng();
+        }
+        return new GrafoSnapshot(version, ciudades, indices, lat, lng, offsets, destinos, pesos);
+    }
+    
+    public long version() {
+        return version;
+    }
+    
+    public int numNodos() {
+        return ciudades.length;
+    }
+    
+    public int numAristas() {
+        return destinos.length;
+    }
+    
+    /**
+     * Índice denso de una ciudad, o -1 si no existe en el grafo.
+     */
+    public int indiceDe(String ciudadId) {
+        Integer indice = ciudadId == null ? null : indices.get(ciudadId);
+        return indice == null ? -1 : indice;
+    }
+    
+    public String id(int nodo) {
+        return ciudades[nodo].getId();
+    }
+    
+    public Ciudad ciudad(int nodo) {
+        return ciudades[nodo];
+    }
+    
+    /**
+     * Todas las ciudades en orden de índice (lista de solo lectura).
+     */
+    public List<Ciudad> ciudades() {
+        return listaCiudades;
+    }
+    
+    public double lat(int nodo) {
+        return lat[nodo];
+    }
+    
+    public double lng(int nodo) {
+        return lng[nodo];
+    }
+    
+    /**
+     * Primera arista saliente del nodo (inclusive).
+     */
+    public int inicio(int nodo) {
+        return offsets[nodo];
+    }
+    
+    /**
+     * Última arista saliente del nodo (exclusive).
+     */
+    public int fin(int nodo) {
+        return offsets[nodo + 1];
+    }
+    
+    public int destino(int arista) {
+        return destinos[arista];
+    }
+    
+    public double peso(int arista) {
+        return pesos[arista];
+    }
+    
+    /**
+     * Primera arista entrante del nodo (inclusive).
+     */
+    public int inicioInverso(int nodo) {
+        return offsetsInversos[nodo];
+    }
+    
+    /**
+     * Última arista entrante del nodo (exclusive).
+     */
+    public int finInverso(int nodo) {
+        return offsetsInversos[nodo + 1];
+    }
+    
+    /**
+     * Nodo del que sale la arista entrante indicada.
+     */
+    public int origenInverso(int aristaInversa) {
+        return origenesInversos[aristaInversa];
+    }
+    
+    public double pesoInverso(int aristaInversa) {
+        return pesosInversos[aristaInversa];
+    }
+    
+    /**
+     * Índice en la adyacencia directa de la misma arista (origenInverso -> nodo).
+     * Las aristas entrantes de cada nodo quedan ordenadas por este índice.
+     */
+    public int aristaDirecta(int aristaInversa) {
+        return aristasDirectas[aristaInversa];
+    }
+    
+    /**
+     * Factor por el que se puede multiplicar la distancia de círculo máximo entre dos
+     * ciudades sin superar nunca la distancia por ruta. Vale 1 cuando ninguna ruta es
+     * más corta que la línea recta entre sus extremos.
+     */
+    public double factorGeografico() {
+        return factorGeografico;
+    }
+    
+    /**
+     * Huella de 64 bits del contenido del grafo (ids, coordenadas y aristas).
+     * Dos grafos con los mismos datos tienen la misma huella, aunque su versión sea distinta;
+     * sirve para validar estructuras precalculadas guardadas en disco.
+     */
+    public long huella() {
+        return huella;
+    }
+    
+    /**
+     * KD-tree sobre las coordenadas de las ciudades, para buscar las más cercanas a un punto.
+     */
+    public IndiceEspacial indiceEspacial() {
+        return indiceEspacial;
+    }
+    
+    private long calcularHuella() {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < ciudades.length; i++) {
+            h = mezclar(h, ciudades[i].getId().hashCode());
+            h = mezclar(h, Double.doubleToLongBits(lat[i]));
+            h = mezclar(h, Double.doubleToLongBits(lng[i]));
+        }
+        for (int o : offsets) {
+            h = mezclar(h, o);
+        }
+        for (int e = 0; e < destinos.length; e++) {
+            h = mezclar(h, destinos[e]);
+            h = mezclar(h, Double.doubleToLongBits(pesos[e]));
+        }
+        return h;
+    }
+    
+    private static long mezclar(long h, long valor) {
+        h ^= valor;
+        h *= 0x100000001b3L;
+        return h ^ (h >>> 29);
+    }
+    
+    /**
+     * Mínimo de distanciaKm / haversine sobre todas las aristas, acotado a 1.
+     * Con este factor la heurística geográfica es admisible y consistente.
+     */
+    private double calcularFactorGeografico() {
+        double factor = 1.0;
+        for (int u = 0; u < ciudades.length; u++) {
+            for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+                int v = destinos[e];
+                double recta = Geo.haversineKm(lat[u], lng[u], lat[v], lng[v]);
+                if (recta > 0) {
+                    factor = Math.min(factor, pesos[e] / recta);
+                }
+            }
+        }
+        return Math.max(0.0, factor);
+    }
+}
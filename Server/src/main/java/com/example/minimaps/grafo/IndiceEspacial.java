@@ -0,0 +1,296 @@
+package com.example.minimaps.grafo;
+
+import java.util.stream.IntStream;
+
+/**
+ * KD-tree estático sobre las coordenadas (lat, lng) de las ciudades de un grafo.
+ * 
+ * El árbol es implícito: los nodos se reordenan de modo que cada rango [desde, hasta) tiene
+ * la mediana en el medio, la mitad menor a la izquierda y la mayor a la derecha, alternando
+ * latitud y longitud por nivel. No hay objetos por nodo y construirlo cuesta O(n log n).
+ * 
+ * Las distancias son de círculo máximo. Para descartar una mitad del árbol se usa una cota
+ * inferior de la distancia a cualquier punto del otro lado del plano de corte: la diferencia
+ * de latitud o la distancia al meridiano de corte (considerando el antimeridiano), así que
+ * los k vecinos encontrados son exactos.
+ */
+public final class IndiceEspacial {
+    
+    /**
+     * Rangos de hasta este tamaño se recorren completos en lugar de seguir dividiendo.
+     */
+    private static final int HOJA = 8;
+    
+    private final int[] nodos;
+    
+    private final double[] lat;
+    
+    private final double[] lng;
+    
+    private IndiceEspacial(int[] nodos, double[] lat, double[] lng) {
+        this.nodos = nodos;
+        this.lat = lat;
+        this.lng = lng;
+    }
+    
+    /**
+     * Construye el índice sobre las coordenadas dadas (una por nodo del grafo).
+     */
+    static IndiceEspacial construir(double[] latNodos, double[] lngNodos) {
+        int n = latNodos.length;
+        int[] nodos = new int[n];
+        double[] lat = latNodos.clone();
+        double[] lng = lngNodos.clone();
+        for (int i = 0; i < n; i++) {
+            nodos[i] = i;
+        }
+        IndiceEspacial indice = new IndiceEspacial(nodos, lat, lng);
+        indice.dividir(0, n, 0);
+        return indice;
+    }
+    
+    public int tamano() {
+        return nodos.length;
+    }
+    
+    /**
+     * Los k nodos más cercanos al punto, del más cercano al más lejano.
+     * 
+     * @param latitud Latitud del punto en grados
+     * @param longitud Longitud del punto en grados
+     * @param k Cantidad de vecinos (se devuelven menos si el grafo tiene menos nodos)
+     * @return Índices de los nodos en el grafo
+     */
+    public int[] cercanos(double latitud, double longitud, int k) {
+        Vecinos vecinos = new Vecinos(Math.min(k, nodos.length));
+        if (vecinos.capacidad > 0) {
+            buscar(0, nodos.length, 0, latitud, longitud, vecinos);
+        }
+        return vecinos.ordenados();
+    }
+    
+    /**
+     * Nodo más cercano al punto, o -1 si el grafo no tiene nodos.
+     */
+    public int masCercano(double latitud, double longitud) {
+        int[] cercanos = cercanos(latitud, longitud, 1);
+        return cercanos.length == 0 ? -1 : cercanos[0];
+    }
+    
+    /**
+     * Nodos cuyas coordenadas caen dentro del rectángulo, en ningún orden particular.
+     * Cuesta O(√n + m) para m nodos encontrados.
+     */
+    public int[] dentroDe(Rectangulo rectangulo) {
+        IntStream.Builder encontrados = IntStream.builder();
+        if (rectangulo.cruzaAntimeridiano()) {
+            // Se parte en dos rangos, uno a cada lado del antimeridiano
+            rango(0, nodos.length, 0, rectangulo.minLat(), rectangulo.minLng(),
+                    rectangulo.maxLat(), 180, encontrados);
+            rango(0, nodos.length, 0, rectangulo.minLat(), -180,
+                    rectangulo.maxLat(), rectangulo.maxLng(), encontrados);
+        } else {
+            rango(0, nodos.length, 0, rectangulo.minLat(), rectangulo.minLng(),
+                    rectangulo.maxLat(), rectangulo.maxLng(), encontrados);
+        }
+        return encontrados.build().toArray();
+    }
+    
+    private void dividir(int desde, int hasta, int profundidad) {
+        while (hasta - desde > HOJA) {
+            int medio = (desde + hasta) >>> 1;
+            double[] eje = profundidad % 2 == 0 ? lat : lng;
+            seleccionar(eje, desde, hasta - 1, medio);
+            dividir(desde, medio, profundidad + 1);
+            // La mitad derecha sigue en el mismo ciclo, sin recursión
+            desde = medio + 1;
+            profundidad++;
+        }
+    }
+    
+    /**
+     * Quickselect: deja en la posición k el elemento que ocuparía ordenado por el eje, con los
+     * menores o iguales antes y los mayores o iguales después.
+     */
+    private void seleccionar(double[] eje, int izquierda, int derecha, int k) {
+        while (izquierda < derecha) {
+            double pivote = eje[(izquierda + derecha) >>> 1];
+            int i = izquierda;
+            int j = derecha;
+            while (i <= j) {
+                while (eje[i] < pivote) i++;
+                while (eje[j] > pivote) j--;
+                if (i <= j) {
+                    intercambiar(i++, j--);
+                }
+            }
+            if (k <= j) {
+                derecha = j;
+            } else if (k >= i) {
+                izquierda = i;
+            } else {
+                return;
+            }
+        }
+    }
+    
+    private void intercambiar(int i, int j) {
+        int nodo = nodos[i];
+        nodos[i] = nodos[j];
+        nodos[j] = nodo;
+        double valor = lat[i];
+        lat[i] = lat[j];
+        lat[j] = valor;
+        valor = lng[i];
+        lng[i] = lng[j];
+        lng[j] = valor;
+    }
+    
+    private void buscar(int desde, int hasta, int profundidad, double latitud, double longitud, Vecinos vecinos) {
+        if (hasta - desde <= HOJA) {
+            for (int i = desde; i < hasta; i++) {
+                vecinos.ofrecer(nodos[i], Geo.haversineKm(latitud, longitud, lat[i], lng[i]));
+            }
+            return;
+        }
+        int medio = (desde + hasta) >>> 1;
+        vecinos.ofrecer(nodos[medio], Geo.haversineKm(latitud, longitud, lat[medio], lng[medio]));
+        
+        boolean porLatitud = profundidad % 2 == 0;
+        double corte = porLatitud ? lat[medio] : lng[medio];
+        double valor = porLatitud ? latitud : longitud;
+        boolean primeroIzquierda = valor < corte;
+        if (primeroIzquierda) {
+            buscar(desde, medio, profundidad + 1, latitud, longitud, vecinos);
+        } else {
+            buscar(medio + 1, hasta, profundidad + 1, latitud, longitud, vecinos);
+        }
+        
+        double cota = porLatitud
+                ? cotaLatitud(latitud, corte)
+                : cotaLongitud(latitud, longitud, corte, primeroIzquierda);
+        if (cota <= vecinos.peor()) {
+            if (primeroIzquierda) {
+                buscar(medio + 1, hasta, profundidad + 1, latitud, longitud, vecinos);
+            } else {
+                buscar(desde, medio, profundidad + 1, latitud, longitud, vecinos);
+            }
+        }
+    }
+    
+    private void rango(int desde, int hasta, int profundidad, double minLat, double minLng,
+                       double maxLat, double maxLng, IntStream.Builder encontrados) {
+        if (hasta - desde <= HOJA) {
+            for (int i = desde; i < hasta; i++) {
+                if (lat[i] >= minLat && lat[i] <= maxLat && lng[i] >= minLng && lng[i] <= maxLng) {
+                    encontrados.add(nodos[i]);
+                }
+            }
+            return;
+        }
+        int medio = (desde + hasta) >>> 1;
+        if (lat[medio] >= minLat && lat[medio] <= maxLat && lng[medio] >= minLng && lng[medio] <= maxLng) {
+            encontrados.add(nodos[medio]);
+        }
+        boolean porLatitud = profundidad % 2 == 0;
+        double corte = porLatitud ? lat[medio] : lng[medio];
+        if ((porLatitud ? minLat : minLng) <= corte) {
+            rango(desde, medio, profundidad + 1, minLat, minLng, maxLat, maxLng, encontrados);
+        }
+        if ((porLatitud ? maxLat : maxLng) >= corte) {
+            rango(medio + 1, hasta, profundidad + 1, minLat, minLng, maxLat, maxLng, encontrados);
+        }
+    }
+    
+    /**
+     * Distancia mínima a cualquier punto con la latitud del corte o del otro lado.
+     */
+    private static double cotaLatitud(double latitud, double corte) {
+        return Math.toRadians(Math.abs(latitud - corte)) * Geo.RADIO_TIERRA_KM;
+    }
+    
+    /**
+     * Distancia mínima a cualquier punto del otro lado del meridiano de corte: para llegar hay
+     * que cruzar ese meridiano o el antimeridiano, y la distancia al círculo máximo de un
+     * meridiano a Δ grados de longitud es asin(cos(lat) sen(Δ)).
+     */
+    private static double cotaLongitud(double latitud, double longitud, double corte, boolean otroLadoMayor) {
+        double hastaCorte = Math.abs(corte - longitud);
+        double hastaAntimeridiano = otroLadoMayor ? longitud + 180 : 180 - longitud;
+        double delta = Math.min(Math.min(hastaCorte, hastaAntimeridiano), 90);
+        double seno = Math.cos(Math.toRadians(latitud)) * Math.sin(Math.toRadians(delta));
+        return Math.asin(Math.min(1.0, Math.max(0.0, seno))) * Geo.RADIO_TIERRA_KM;
+    }
+    
+    /**
+     * Los mejores k candidatos vistos, en un montículo binario de máximos por distancia.
+     */
+    private static final class Vecinos {
+        
+        private final int capacidad;
+        
+        private final int[] nodos;
+        
+        private final double[] distancias;
+        
+        private int tamano;
+        
+        Vecinos(int capacidad) {
+            this.capacidad = capacidad;
+            this.nodos = new int[capacidad];
+            this.distancias = new double[capacidad];
+        }
+        
+        /**
+         * Distancia del peor candidato, o infinito mientras no haya k.
+         */
+        double peor() {
+            return tamano < capacidad ? Double.POSITIVE_INFINITY : distancias[0];
+        }
+        
+        void ofrecer(int nodo, double distancia) {
+            if (tamano < capacidad) {
+                int i = tamano++;
+                while (i > 0 && distancias[(i - 1) / 2] < distancia) {
+                    nodos[i] = nodos[(i - 1) / 2];
+                    distancias[i] = distancias[(i - 1) / 2];
+                    i = (i - 1) / 2;
+                }
+                nodos[i] = nodo;
+                distancias[i] = distancia;
+            } else if (distancia < distancias[0]) {
+                hundir(nodo, distancia, tamano);
+            }
+        }
+        
+        /**
+         * Reemplaza la raíz por el elemento dado y lo hunde dentro de los primeros n.
+         */
+        private void hundir(int nodo, double distancia, int n) {
+            int i = 0;
+            while (true) {
+                int hijo = 2 * i + 1;
+                if (hijo >= n) break;
+                if (hijo + 1 < n && distancias[hijo + 1] > distancias[hijo]) hijo++;
+                if (distancias[hijo] <= distancia) break;
+                nodos[i] = nodos[hijo];
+                distancias[i] = distancias[hijo];
+                i = hijo;
+            }
+            nodos[i] = nodo;
+            distancias[i] = distancia;
+        }
+        
+        /**
+         * Vacía el montículo devolviendo los nodos del más cercano al más lejano.
+         */
+        int[] ordenados() {
+            int[] resultado = new int[tamano];
+            for (int n = tamano; n > 0; n--) {
+                resultado[n - 1] = nodos[0];
+                hundir(nodos[n - 1], distancias[n - 1], n - 1);
+            }
+            return resultado;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.example.minimaps.grafo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/**
+ * Grafo contraído (Contraction Hierarchies) listo para consultas punto a punto.
+ * 
+ * Guarda dos grafos "hacia arriba" en formato CSR, ambos indexados por el nodo de menor rango:
+ * <ul>
+ *   <li>arriba: aristas u -> w con rango[w] &gt; rango[u], para la búsqueda desde el origen.</li>
+ *   <li>abajo: aristas u -> w con rango[u] &gt; rango[w], guardadas en w, para la búsqueda
+ *       desde el destino sobre aristas invertidas.</li>
+ * </ul>
+ * Cada arista tiene su nodo intermedio (-1 si es una ruta original) para desempaquetar atajos.
+ * 
+ * Las consultas usan los espacios de trabajo por hilo de {@link EspacioBusqueda} y detienen
+ * (stall-on-demand) los nodos a los que ya se llega más barato bajando desde uno más importante.
+ */
+public final class JerarquiaContraccion {
+    
+    private static final int MAGICO = 0x4D4D4348; // "MMCH"
+    
+    private static final int FORMATO = 1;
+    
+    private final GrafoSnapshot grafo;
+    
+    private final int[] rango;
+    
+    private final Csr arriba;
+    
+    private final Csr abajo;
+    
+    private JerarquiaContraccion(GrafoSnapshot grafo, int[] rango, Csr arriba, Csr abajo) {
+        this.grafo = grafo;
+        this.rango = rango;
+        this.arriba = arriba;
+        this.abajo = abajo;
+    }
+    
+    /**
+     * Arma la jerarquía a partir de las listas que quedaron al terminar la contracción:
+     * al contraer un nodo, sus listas contienen exactamente sus aristas hacia nodos más importantes.
+     */
+    static JerarquiaContraccion desdeListas(GrafoSnapshot grafo, int[] rango,
+                                            ContraccionJerarquica.Lista[] salientes,
+                                            ContraccionJerarquica.Lista[] entrantes) {
+        return new JerarquiaContraccion(grafo, rango, Csr.desde(salientes), Csr.desde(entrantes));
+    }
+    
+    /**
+     * Grafo original sobre el que se construyó la jerarquía.
+     */
+    public GrafoSnapshot grafo() {
+        return grafo;
+    }
+    
+    /**
+     * Cantidad total de aristas de la jerarquía (originales más atajos).
+     */
+    public int numAristas() {
+        return arriba.vecinos.length + abajo.vecinos.length;
+    }
+    
+    /**
+     * Camino mínimo entre dos nodos con una búsqueda bidireccional que solo sube de rango.
+     * 
+     * @param origen Índice del nodo origen
+     * @param destino Índice del nodo destino
+     * @return Camino desempaquetado sobre el grafo original
+     */
+    public Camino buscar(int origen, int destino) {
+        EspacioBusqueda adelante = EspacioBusqueda.adelante(rango.length);
+        EspacioBusqueda atras = EspacioBusqueda.atras(rango.length);
+        int[] mediosAdelante = adelante.auxiliarEntero();
+        int[] mediosAtras = atras.auxiliarEntero();
+        adelante.iniciar(origen);
+        atras.iniciar(destino);
+        
+        double mejor = Double.POSITIVE_INFINITY;
+        int encuentro = -1;
+        int asentados = 0;
+        boolean turnoAdelante = true;
+        
+        while (true) {
+            boolean sigueAdelante = adelante.minimo() < mejor;
+            boolean sigueAtras = atras.minimo() < mejor;
+            if (!sigueAdelante && !sigueAtras) break;
+            if (turnoAdelante && !sigueAdelante) turnoAdelante = false;
+            if (!turnoAdelante && !sigueAtras) turnoAdelante = true;
+            
+            EspacioBusqueda actual = turnoAdelante ? adelante : atras;
+            EspacioBusqueda otra = turnoAdelante ? atras : adelante;
+            int[] medios = turnoAdelante ? mediosAdelante : mediosAtras;
+            Csr aristas = turnoAdelante ? arriba : abajo;
+            Csr opuestas = turnoAdelante ? abajo : arriba;
+            turnoAdelante = !turnoAdelante;
+            
+            int u = actual.extraer();
+            asentados++;
+            double distanciaU = actual.distancia(u);
+            double total = distanciaU + otra.distancia(u);
+            if (total < mejor) {
+                mejor = total;
+                encuentro = u;
+            }
+            if (detenido(actual, opuestas, u, distanciaU)) continue;
+            
+            for (int e = aristas.offsets[u]; e < aristas.offsets[u + 1]; e++) {
+                if (actual.relajar(aristas.vecinos[e], distanciaU + aristas.pesos[e], u)) {
+                    medios[aristas.vecinos[e]] = aristas.medios[e];
+                }
+            }
+        }
+        
+        if (encuentro < 0) {
+            return Camino.inalcanzable(asentados);
+        }
+        return new Camino(mejor, desempaquetar(adelante, mediosAdelante, atras, mediosAtras, encuentro), asentados);
+    }
+    
+    /**
+     * Stall-on-demand: si a u se llega más barato bajando desde un nodo más importante ya
+     * alcanzado, la distancia de u no es la mínima y sus aristas no necesitan relajarse. Las
+     * aristas opuestas son las que llegan a u desde arriba (hacia adelante) o salen de u hacia
+     * arriba (hacia atrás).
+     */
+    private static boolean detenido(EspacioBusqueda busqueda, Csr opuestas, int u, double distanciaU) {
+        for (int e = opuestas.offsets[u]; e < opuestas.offsets[u + 1]; e++) {
+            if (busqueda.distancia(opuestas.vecinos[e]) + opuestas.pesos[e] < distanciaU) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Reconstruye el camino sobre el grafo original expandiendo recursivamente cada atajo
+     * (u -> w vía m) en (u -> m) y (m -> w).
+     */
+    private int[] desempaquetar(EspacioBusqueda adelante, int[] mediosAdelante,
+                                EspacioBusqueda atras, int[] mediosAtras, int encuentro) {
+        ListaInt camino = new ListaInt();
+        
+        // Aristas de la mitad hacia adelante, en orden origen -> encuentro
+        ListaInt tramo = new ListaInt();
+        int raiz = encuentro;
+        while (adelante.predecesor(raiz) != -1) {
+            tramo.agregar(raiz);
+            raiz = adelante.predecesor(raiz);
+        }
+        camino.agregar(raiz);
+        for (int i = tramo.tam - 1; i >= 0; i--) {
+            int w = tramo.datos[i];
+            int u = adelante.predecesor(w);
+            expandir(u, w, mediosAdelante[w], camino);
+        }
+        
+        // Aristas de la mitad hacia atrás, en orden encuentro -> destino
+        for (int v = encuentro; atras.predecesor(v) != -1; v = atras.predecesor(v)) {
+            int w = atras.predecesor(v);
+            expandir(v, w, mediosAtras[v], camino);
+        }
+        return Arrays.copyOf(camino.datos, camino.tam);
+    }
+    
+    /**
+     * Agrega al camino los nodos de u -> w (sin u) expandiendo atajos con una pila explícita.
+     */
+    private void expandir(int u, int w, int medio, ListaInt camino) {
+        ListaInt pila = new ListaInt();
+        pila.agregar(u, w, medio);
+        while (pila.tam > 0) {
+            int m = pila.datos[--pila.tam];
+            int b = pila.datos[--pila.tam];
+            int a = pila.datos[--pila.tam];
+            if (m < 0) {
+                camino.agregar(b);
+            } else {
+                // Se apila primero (m -> b) para procesar antes (a -> m)
+                pila.agregar(m, b, medioDe(m, b));
+                pila.agregar(a, m, medioDe(a, m));
+            }
+        }
+    }
+    
+    /**
+     * Nodo intermedio de la arista a -> b de la jerarquía.
+     */
+    private int medioDe(int a, int b) {
+        if (rango[a] < rango[b]) {
+            return arriba.medioHacia(a, b);
+        }
+        return abajo.medioHacia(b, a);
+    }
+    
+    /**
+     * Guarda la jerarquía en disco junto con la huella del grafo original.
+     * Escribe en un archivo temporal y lo renombra, así nunca queda un archivo a medias.
+     */
+    public void guardar(Path archivo) throws IOException {
+        Path directorio = archivo.toAbsolutePath().getParent();
+        Files.createDirectories(directorio);
+        Path temporal = Files.createTempFile(directorio, "ch", ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporal), 1 << 16))) {
+            out.writeInt(MAGICO);
+            out.writeInt(FORMATO);
+            out.writeLong(grafo.huella());
+            out.writeInt(rango.length);
+            for (int r : rango) {
+                out.writeInt(r);
+            }
+            arriba.escribir(out);
+            abajo.escribir(out);
+        }
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    /**
+     * Lee una jerarquía guardada. Devuelve null si el archivo no existe o fue construido
+     * para otro grafo (la huella no coincide).
+     */
+    public static JerarquiaContraccion cargar(Path archivo, GrafoSnapshot grafo) throws IOException {
+        if (!Files.isRegularFile(archivo)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(archivo), 1 << 16))) {
+            if (in.readInt() != MAGICO || in.readInt() != FORMATO || in.readLong() != grafo.huella()) {
+                return null;
+            }
+            int n = in.readInt();
+            if (n != grafo.numNodos()) {
+                return null;
+            }
+            int[] rango = new int[n];
+            for (int i = 0; i < n; i++) {
+                rango[i] = in.readInt();
+            }
+            Csr arriba = Csr.leer(in, n);
+            Csr abajo = Csr.leer(in, n);
+            return new JerarquiaContraccion(grafo, rango, arriba, abajo);
+        }
+    }
+    
+    /**
+     * Grafo estático en formato CSR con nodo intermedio por arista.
+     */
+    private static final class Csr {
+        final int[] offsets;
+        final int[] vecinos;
+        final double[] pesos;
+        final int[] medios;
+        
+        Csr(int[] offsets, int[] vecinos, double[] pesos, int[] medios) {
+            this.offsets = offsets;
+            this.vecinos = vecinos;
+            this.pesos = pesos;
+            this.medios = medios;
+        }
+        
+        static Csr desde(ContraccionJerarquica.Lista[] listas) {
+            int n = listas.length;
+            int[] offsets = new int[n + 1];
+            for (int v = 0; v < n; v++) {
+                offsets[v + 1] = offsets[v] + listas[v].tam;
+            }
+            int[] vecinos = new int[offsets[n]];
+            double[] pesos = new double[offsets[n]];
+            int[] medios = new int[offsets[n]];
+            for (int v = 0; v < n; v++) {
+                ContraccionJerarquica.Lista lista = listas[v];
+                System.arraycopy(lista.nodos, 0, vecinos, offsets[v], lista.tam);
+                System.arraycopy(lista.pesos, 0, pesos, offsets[v], lista.tam);
+                System.arraycopy(lista.medios, 0, medios, offsets[v], lista.tam);
+            }
+            return new Csr(offsets, vecinos, pesos, medios);
+        }
+        
+        int medioHacia(int desde, int hacia) {
+            for (int e = offsets[desde]; e < offsets[desde + 1]; e++) {
+                if (vecinos[e] == hacia) {
+                    return medios[e];
+                }
+            }
+            throw new IllegalStateException("Arista inexistente en la jerarquía: " + desde + " -> " + hacia);
+        }
+        
+        void escribir(DataOutputStream out) throws IOException {
+            out.writeInt(vecinos.length);
+            for (int o : offsets) {
+                out.writeInt(o);
+            }
+            for (int i = 0; i < vecinos.length; i++) {
+                out.writeInt(vecinos[i]);
+                out.writeDouble(pesos[i]);
+                out.writeInt(medios[i]);
+            }
+        }
+        
+        static Csr leer(DataInputStream in, int n) throws IOException {
+            int m = in.readInt();
+            int[] offsets = new int[n + 1];
+            for (int i = 0; i <= n; i++) {
+                offsets[i] = in.readInt();
+            }
+            int[] vecinos = new int[m];
+            double[] pesos = new double[m];
+            int[] medios = new int[m];
+            for (int i = 0; i < m; i++) {
+                vecinos[i] = in.readInt();
+                pesos[i] = in.readDouble();
+                medios[i] = in.readInt();
+            }
+            return new Csr(offsets, vecinos, pesos, medios);
+        }
+    }
+    
+    /**
+     * Lista de enteros crecible, sin boxing.
+     */
+    private static final class ListaInt {
+        int[] datos = new int[16];
+        int tam;
+        
+        void agregar(int... valores) {
+            if (tam + valores.length > datos.length) {
+                datos = Arrays.copyOf(datos, Math.max(datos.length * 2, tam + valores.length));
+            }
+            System.arraycopy(valores, 0, datos, tam, valores.length);
+            tam += valores.length;
+        }
+    }
+}
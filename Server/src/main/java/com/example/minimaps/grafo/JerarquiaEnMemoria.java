@@ -0,0 +1,68 @@
+package com.example.minimaps.grafo;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Mantiene la Contraction Hierarchy del grafo vigente.
+ * 
+ * Cada vez que se publica un grafo nuevo la jerarquía se reconstruye en segundo plano
+ * (o se lee del archivo configurado si corresponde al mismo grafo). Mientras no esté lista,
+ * {@link #para(GrafoSnapshot)} devuelve null y las consultas usan otro motor.
+ */
+@Slf4j
+@Component
+public class JerarquiaEnMemoria extends PreprocesoEnMemoria<JerarquiaContraccion> {
+    
+    private final String archivo;
+    
+    public JerarquiaEnMemoria(@Value("${minimaps.ch.habilitada:true}") boolean habilitada,
+                              @Value("${minimaps.ch.archivo:}") String archivo) {
+        super("ch-preproceso", habilitada);
+        this.archivo = archivo;
+    }
+    
+    /**
+     * Lee la jerarquía del archivo configurado si corresponde al grafo; si no, la construye y
+     * la guarda.
+     */
+    @Override
+    protected JerarquiaContraccion construir(GrafoSnapshot grafo, JerarquiaContraccion anterior) {
+        JerarquiaContraccion jerarquia = leerArchivo(grafo);
+        if (jerarquia == null) {
+            long inicio = System.nanoTime();
+            jerarquia = ContraccionJerarquica.construir(grafo);
+            log.info("Contraction Hierarchy del grafo v{} construida en {} ms ({} aristas)",
+                    grafo.version(), (System.nanoTime() - inicio) / 1_000_000, jerarquia.numAristas());
+            guardarArchivo(jerarquia);
+        }
+        return jerarquia;
+    }
+    
+    private JerarquiaContraccion leerArchivo(GrafoSnapshot grafo) {
+        if (archivo.isBlank()) return null;
+        try {
+            JerarquiaContraccion jerarquia = JerarquiaContraccion.cargar(Path.of(archivo), grafo);
+            if (jerarquia != null) {
+                log.info("Contraction Hierarchy del grafo v{} leída de {}", grafo.version(), archivo);
+            }
+            return jerarquia;
+        } catch (IOException e) {
+            log.warn("No se pudo leer la Contraction Hierarchy de {}: {}", archivo, e.getMessage());
+            return null;
+        }
+    }
+    
+    private void guardarArchivo(JerarquiaContraccion jerarquia) {
+        if (archivo.isBlank()) return;
+        try {
+            jerarquia.guardar(Path.of(archivo));
+        } catch (IOException e) {
+            log.warn("No se pudo guardar la Contraction Hierarchy en {}: {}", archivo, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.minimaps.grafo;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Árbol (o bosque) de expansión mínima por Kruskal sobre arreglos primitivos.
+ * 
+ * Las aristas se tratan como no dirigidas: de cada ruta guardada en los dos sentidos se ordena
+ * una sola copia, así que el ordenamiento recibe la mitad de las aristas. Se ordenan con
+ * {@link Arrays#parallelSort(long[])} sobre claves (rango del peso, posición) y el Union-Find
+ * es un par de arreglos de enteros con compresión iterativa por mitades, sin recursión.
+ * 
+ * A igual peso las aristas se toman por sus extremos ({@link #precede}), no por su posición en
+ * el grafo: con ese orden total el bosque mínimo es único y {@link ArbolDinamico} llega al mismo.
+ */
+public final class Kruskal {
+    
+    private Kruskal() {
+    }
+    
+    /**
+     * Calcula el bosque de expansión mínima del grafo, un árbol por componente conexo.
+     * 
+     * @param g Grafo sobre el que se calcula
+     * @return Aristas del bosque en orden creciente de peso y, a igual peso, de extremos; cada
+     *         una con el extremo de menor índice como origen
+     */
+    public static ArbolExpansion calcular(GrafoSnapshot g) {
+        int n = g.numNodos();
+        int[] origenes = new int[g.numAristas()];
+        IntStream.range(0, n).parallel().forEach(u -> Arrays.fill(origenes, g.inicio(u), g.fin(u), u));
+        
+        // 1. Una copia por ruta no dirigida (sin lazos)
+        int[] aristas = IntStream.range(0, g.numAristas()).parallel()
+                .filter(e -> origenes[e] != g.destino(e) && !redundante(g, origenes[e], e))
+                .toArray();
+        
+        // 2. Ordenar por peso: el rango del peso en los 32 bits altos y la posición en los bajos
+        double[] pesos = new double[aristas.length];
+        IntStream.range(0, aristas.length).parallel().forEach(i -> pesos[i] = g.peso(aristas[i]));
+        double[] ordenados = pesos.clone();
+        Arrays.parallelSort(ordenados);
+        long[] claves = IntStream.range(0, aristas.length).parallel()
+                .mapToLong(i -> (long) Arrays.binarySearch(ordenados, pesos[i]) << 32 | i)
+                .toArray();
+        Arrays.parallelSort(claves);
+        
+        // 3. Agregar en orden las aristas que no cierran un ciclo
+        int[] padres = new int[n];
+        int[] rangos = new int[n];
+        for (int v = 0; v < n; v++) {
+            padres[v] = v;
+        }
+        int maximo = Math.max(0, n - 1);
+        int[] o = new int[maximo];
+        int[] d = new int[maximo];
+        double[] p = new double[maximo];
+        int total = 0;
+        long[] pares = new long[16];
+        int inicio = 0;
+        while (inicio < claves.length && total < maximo) {
+            // Aristas del mismo peso, ordenadas por sus extremos (menor, mayor)
+            int rango = (int) (claves[inicio] >>> 32);
+            int fin = inicio + 1;
+            while (fin < claves.length && (int) (claves[fin] >>> 32) == rango) {
+                fin++;
+            }
+            if (fin - inicio > pares.length) {
+                pares = new long[fin - inicio];
+            }
+            for (int j = inicio; j < fin; j++) {
+                int e = aristas[(int) claves[j]];
+                pares[j - inicio] = (long) Math.min(origenes[e], g.destino(e)) << 32 | Math.max(origenes[e], g.destino(e));
+            }
+            Arrays.sort(pares, 0, fin - inicio);
+            double peso = pesos[(int) claves[inicio]];
+            for (int j = 0; j < fin - inicio; j++) {
+                int u = (int) (pares[j] >>> 32);
+                int v = (int) pares[j];
+                if (total < maximo && unir(padres, rangos, u, v)) {
+                    o[total] = u;
+                    d[total] = v;
+                    p[total] = peso;
+                    total++;
+                }
+            }
+            inicio = fin;
+        }
+        return new ArbolExpansion(Arrays.copyOf(o, total), Arrays.copyOf(d, total), Arrays.copyOf(p, total));
+    }
+    
+    /**
+     * Una arista u→v sobra si existe la vuelta v→u más barata, o igual de barata con v &lt; u
+     * (así de un par idéntico queda exactamente una copia).
+     */
+    private static boolean redundante(GrafoSnapshot g, int u, int e) {
+        int v = g.destino(e);
+        double peso = g.peso(e);
+        for (int f = g.inicio(v); f < g.fin(v); f++) {
+            if (g.destino(f) == u && (g.peso(f) < peso || (g.peso(f) == peso && v < u))) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Orden total entre aristas no dirigidas: por peso y, a igual peso, por el extremo menor y
+     * luego el mayor. Retorna true si (u, v) con {@code peso} va antes que (x, y) con {@code otroPeso}.
+     */
+    static boolean precede(double peso, int u, int v, double otroPeso, int x, int y) {
+        if (peso != otroPeso) return peso < otroPeso;
+        int menor = Math.min(u, v);
+        int otroMenor = Math.min(x, y);
+        if (menor != otroMenor) return menor < otroMenor;
+        return Math.max(u, v) < Math.max(x, y);
+    }
+    
+    /**
+     * Representante del conjunto; cada nodo del camino pasa a apuntar a su abuelo.
+     */
+    private static int raiz(int[] padres, int x) {
+        while (padres[x] != x) {
+            padres[x] = padres[padres[x]];
+            x = padres[x];
+        }
+        return x;
+    }
+    
+    /**
+     * Une dos conjuntos por rango. Retorna false si ya estaban unidos (la arista crearía un ciclo).
+     */
+    private static boolean unir(int[] padres, int[] rangos, int a, int b) {
+        int raizA = raiz(padres, a);
+        int raizB = raiz(padres, b);
+        if (raizA == raizB) {
+            return false;
+        }
+        if (rangos[raizA] < rangos[raizB]) {
+            padres[raizA] = raizB;
+        } else if (rangos[raizA] > rangos[raizB]) {
+            padres[raizB] = raizA;
+        } else {
+            padres[raizB] = raizA;
+            rangos[raizA]++;
+        }
+        return true;
+    }
+}
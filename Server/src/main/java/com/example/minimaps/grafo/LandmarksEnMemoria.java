@@ -0,0 +1,32 @@
+package com.example.minimaps.grafo;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mantiene las tablas de landmarks (ALT) del grafo vigente.
+ * 
+ * Se recalculan en segundo plano cada vez que se publica un grafo nuevo. Mientras no estén
+ * listas, {@link #para(GrafoSnapshot)} devuelve null y las consultas usan solo la cota geográfica.
+ */
+@Slf4j
+@Component
+public class LandmarksEnMemoria extends PreprocesoEnMemoria<TablaLandmarks> {
+    
+    private final int cantidad;
+    
+    public LandmarksEnMemoria(@Value("${minimaps.alt.landmarks:8}") int cantidad) {
+        super("alt-landmarks", cantidad > 0);
+        this.cantidad = cantidad;
+    }
+    
+    @Override
+    protected TablaLandmarks construir(GrafoSnapshot grafo, TablaLandmarks anterior) {
+        long inicio = System.nanoTime();
+        TablaLandmarks tabla = TablaLandmarks.construir(grafo, cantidad);
+        log.info("Landmarks del grafo v{} calculados en {} ms ({} landmarks)",
+                grafo.version(), (System.nanoTime() - inicio) / 1_000_000, tabla.landmarks().length);
+        return tabla;
+    }
+}
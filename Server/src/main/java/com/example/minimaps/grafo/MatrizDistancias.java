@@ -0,0 +1,81 @@
+package com.example.minimaps.grafo;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Matriz de distancias muchos a muchos sobre el grafo en memoria.
+ * 
+ * Cada fila es una búsqueda de Dijkstra desde un origen que se detiene apenas quedan
+ * asentados todos los destinos pedidos. Las filas son independientes y se reparten
+ * entre los hilos del pool fork-join común.
+ */
+public final class MatrizDistancias {
+    
+    private MatrizDistancias() {
+    }
+    
+    /**
+     * Calcula las distancias de cada origen a cada destino.
+     * Los índices negativos (ciudades inexistentes) producen filas o columnas en infinito.
+     * 
+     * @param g Grafo sobre el que se busca
+     * @param origenes Índices de los nodos origen (filas)
+     * @param destinos Índices de los nodos destino (columnas)
+     * @return Matriz densa por filas: distancia(i, j) = resultado[i * destinos.length + j]
+     */
+    public static float[] calcular(GrafoSnapshot g, int[] origenes, int[] destinos) {
+        int columnas = destinos.length;
+        float[] resultado = new float[origenes.length * columnas];
+        Arrays.fill(resultado, Float.POSITIVE_INFINITY);
+        
+        // Destinos distintos y válidos: son los que cada búsqueda debe asentar
+        boolean[] esDestino = new boolean[g.numNodos()];
+        int distintos = 0;
+        for (int destino : destinos) {
+            if (destino >= 0 && !esDestino[destino]) {
+                esDestino[destino] = true;
+                distintos++;
+            }
+        }
+        int totalDestinos = distintos;
+        
+        IntStream.range(0, origenes.length).parallel().forEach(fila -> {
+            int origen = origenes[fila];
+            if (origen < 0 || totalDestinos == 0) return;
+            
+            EspacioBusqueda espacio = EspacioBusqueda.adelante(g.numNodos());
+            ejecutar(espacio, g, origen, esDestino, totalDestinos);
+            for (int j = 0; j < columnas; j++) {
+                if (destinos[j] >= 0) {
+                    resultado[fila * columnas + j] = (float) espacio.distancia(destinos[j]);
+                }
+            }
+        });
+        return resultado;
+    }
+    
+    /**
+     * Dijkstra uno a muchos que se corta al asentar todos los destinos.
+     */
+    private static void ejecutar(EspacioBusqueda espacio, GrafoSnapshot g, int origen,
+                                 boolean[] esDestino, int totalDestinos) {
+        espacio.iniciar(origen);
+        int pendientes = totalDestinos;
+        
+        while (espacio.hayPendientes()) {
+            int u = espacio.extraer();
+            
+            // Corte temprano: todos los destinos ya tienen su distancia definitiva
+            if (esDestino[u] && --pendientes == 0) break;
+            
+            double distanciaU = espacio.distancia(u);
+            for (int e = g.inicio(u); e < g.fin(u); e++) {
+                int v = g.destino(e);
+                if (!espacio.asentado(v)) {
+                    espacio.relajar(v, distanciaU + g.peso(e), u);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.minimaps.grafo;
+
+import java.util.Arrays;
+
+/**
+ * Cola de prioridad de nodos (enteros 0..n-1) sobre un montículo 4-ario con decrease-key.
+ * 
+ * Cada nodo figura a lo sumo una vez: insertar un nodo que ya está en la cola solo baja su
+ * prioridad, así que la cola nunca tiene entradas obsoletas ni crea objetos por relajación.
+ * La posición de cada nodo se valida con una marca de tiempo: vaciar la cola es O(1) y se
+ * reutiliza entre búsquedas sin limpiar arreglos.
+ */
+final class MonticuloIndexado {
+    
+    private static final int ARIDAD = 4;
+    
+    private final int[] nodos;
+    
+    private final double[] prioridades;
+    
+    private final int[] posiciones;
+    
+    private final int[] marcas;
+    
+    private int marcaActual = 1;
+    
+    private int tam;
+    
+    MonticuloIndexado(int capacidad) {
+        nodos = new int[capacidad];
+        prioridades = new double[capacidad];
+        posiciones = new int[capacidad];
+        marcas = new int[capacidad];
+    }
+    
+    /**
+     * Cantidad de nodos distintos que admite (índices 0..capacidad-1).
+     */
+    int capacidad() {
+        return posiciones.length;
+    }
+    
+    void limpiar() {
+        tam = 0;
+        if (++marcaActual == 0) {
+            Arrays.fill(marcas, 0);
+            marcaActual = 1;
+        }
+    }
+    
+    boolean vacio() {
+        return tam == 0;
+    }
+    
+    boolean contiene(int nodo) {
+        return marcas[nodo] == marcaActual && posiciones[nodo] >= 0;
+    }
+    
+    /**
+     * Inserta el nodo con la prioridad dada o, si ya está en la cola con una prioridad mayor, la baja.
+     */
+    void insertarOBajar(int nodo, double prioridad) {
+        int pos;
+        if (contiene(nodo)) {
+            pos = posiciones[nodo];
+            if (prioridad >= prioridades[pos]) return;
+        } else {
+            marcas[nodo] = marcaActual;
+            pos = tam++;
+        }
+        subir(pos, nodo, prioridad);
+    }
+    
+    /**
+     * Menor prioridad de la cola, o infinito si está vacía.
+     */
+    double minimo() {
+        return tam == 0 ? Double.POSITIVE_INFINITY : prioridades[0];
+    }
+    
+    /**
+     * Quita y devuelve el nodo de menor prioridad. La cola no debe estar vacía.
+     */
+    int extraerMinimo() {
+        int nodo = nodos[0];
+        posiciones[nodo] = -1;
+        tam--;
+        if (tam > 0) {
+            bajar(0, nodos[tam], prioridades[tam]);
+        }
+        return nodo;
+    }
+    
+    private void subir(int pos, int nodo, double prioridad) {
+        while (pos > 0) {
+            int padre = (pos - 1) / ARIDAD;
+            if (prioridades[padre] <= prioridad) break;
+            mover(padre, pos);
+            pos = padre;
+        }
+        colocar(pos, nodo, prioridad);
+    }
+    
+    private void bajar(int pos, int nodo, double prioridad) {
+        while (true) {
+            int primerHijo = pos * ARIDAD + 1;
+            if (primerHijo >= tam) break;
+            int finHijos = Math.min(primerHijo + ARIDAD, tam);
+            int menor = primerHijo;
+            for (int h = primerHijo + 1; h < finHijos; h++) {
+                if (prioridades[h] < prioridades[menor]) {
+                    menor = h;
+                }
+            }
+            if (prioridades[menor] >= prioridad) break;
+            mover(menor, pos);
+            pos = menor;
+        }
+        colocar(pos, nodo, prioridad);
+    }
+    
+    private void mover(int desde, int hacia) {
+        nodos[hacia] = nodos[desde];
+        prioridades[hacia] = prioridades[desde];
+        posiciones[nodos[hacia]] = hacia;
+    }
+    
+    private void colocar(int pos, int nodo, double prioridad) {
+        nodos[pos] = nodo;
+        prioridades[pos] = prioridad;
+        posiciones[nodo] = pos;
+    }
+}
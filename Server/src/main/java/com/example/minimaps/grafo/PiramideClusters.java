@@ -0,0 +1,380 @@
+package com.example.minimaps.grafo;
+
+import java.util.Arrays;
+
+/**
+ * Agrupamiento jerárquico de las ciudades por nivel de zoom, para dibujar mapas con muchos nodos.
+ * 
+ * Cada nivel divide el mapa (proyección Web Mercator, teselas de 256 px) en celdas de 64 px:
+ * las ciudades de una misma celda forman un cluster ubicado en su centroide. Las celdas de un
+ * nivel contienen exactamente cuatro celdas del nivel siguiente, así que la pirámide se
+ * construye de abajo hacia arriba agrupando los clusters del nivel inferior, y las rutas entre
+ * clusters también: cada arista agregada cuenta las rutas que representa y guarda la más corta.
+ * 
+ * Construirla cuesta O((V + E) log V) por nivel en el peor caso; cada nivel trae su propio
+ * {@link IndiceEspacial} para responder consultas por rectángulo sin recorrer todos los clusters.
+ */
+public final class PiramideClusters {
+    
+    /**
+     * Zoom máximo admitido: a ese nivel una celda se identifica con 32 bits.
+     */
+    public static final int MAX_ZOOM = 14;
+    
+    /**
+     * Celdas por lado de una tesela, en potencia de dos (4 celdas de 64 px).
+     */
+    private static final int CELDAS_POR_TESELA = 2;
+    
+    /**
+     * Latitud máxima representable en Web Mercator.
+     */
+    private static final double MAX_LATITUD = 85.05112878;
+    
+    private final GrafoSnapshot grafo;
+    
+    private final Nivel[] niveles;
+    
+    private PiramideClusters(GrafoSnapshot grafo, Nivel[] niveles) {
+        this.grafo = grafo;
+        this.niveles = niveles;
+    }
+    
+    /**
+     * Construye la pirámide desde el zoom 0 hasta el indicado.
+     * 
+     * @param g Grafo con las ciudades y rutas a agrupar
+     * @param maxZoom Zoom más detallado (entre 0 y {@link #MAX_ZOOM})
+     * @return Pirámide lista para consultas
+     */
+    public static PiramideClusters construir(GrafoSnapshot g, int maxZoom) {
+        if (maxZoom < 0 || maxZoom > MAX_ZOOM) {
+            throw new IllegalArgumentException("El zoom máximo debe estar entre 0 y " + MAX_ZOOM + ": " + maxZoom);
+        }
+        int n = g.numNodos();
+        int lado = 1 << (maxZoom + CELDAS_POR_TESELA);
+        
+        // 1. Las ciudades son el nivel inicial: un "cluster" por ciudad, en su celda del zoom máximo
+        int[] celdaX = new int[n];
+        int[] celdaY = new int[n];
+        int[] cantidad = new int[n];
+        double[] lat = new double[n];
+        double[] lng = new double[n];
+        int[] representante = new int[n];
+        int[] grado = new int[n];
+        for (int v = 0; v < n; v++) {
+            celdaX[v] = celda((g.lng(v) + 180) / 360, lado);
+            celdaY[v] = celda(mercatorY(g.lat(v)), lado);
+            cantidad[v] = 1;
+            lat[v] = g.lat(v);
+            lng[v] = g.lng(v);
+            representante[v] = v;
+            grado[v] = g.fin(v) - g.inicio(v) + g.finInverso(v) - g.inicioInverso(v);
+        }
+        int[] origenes = new int[g.numAristas()];
+        int[] destinos = new int[g.numAristas()];
+        int[] rutas = new int[g.numAristas()];
+        double[] distancias = new double[g.numAristas()];
+        for (int u = 0; u < n; u++) {
+            for (int e = g.inicio(u); e < g.fin(u); e++) {
+                origenes[e] = u;
+                destinos[e] = g.destino(e);
+                rutas[e] = 1;
+                distancias[e] = g.peso(e);
+            }
+        }
+        
+        // 2. Cada nivel agrupa al anterior: primero en las celdas del zoom máximo, después de a cuatro
+        Nivel[] niveles = new Nivel[maxZoom + 1];
+        Nivel nivel = agrupar(maxZoom, 0, celdaX, celdaY, cantidad, lat, lng, representante, grado,
+                origenes, destinos, rutas, distancias, origenes.length);
+        niveles[maxZoom] = nivel;
+        for (int zoom = maxZoom - 1; zoom >= 0; zoom--) {
+            // Las aristas del nivel inferior, una vez por par (están guardadas en los dos sentidos)
+            int m = nivel.vecinos.length / 2;
+            origenes = new int[m];
+            destinos = new int[m];
+            rutas = new int[m];
+            distancias = new double[m];
+            int k = 0;
+            for (int c = 0; c < nivel.tamano(); c++) {
+                for (int e = nivel.inicio(c); e < nivel.fin(c); e++) {
+                    if (c < nivel.vecino(e)) {
+                        origenes[k] = c;
+                        destinos[k] = nivel.vecino(e);
+                        rutas[k] = nivel.rutas(e);
+                        distancias[k] = nivel.distanciaKm(e);
+                        k++;
+                    }
+                }
+            }
+            nivel = agrupar(zoom, 1, nivel.celdaX, nivel.celdaY, nivel.cantidad, nivel.lat, nivel.lng,
+                    nivel.representante, grado, origenes, destinos, rutas, distancias, k);
+            niveles[zoom] = nivel;
+        }
+        return new PiramideClusters(g, niveles);
+    }
+    
+    public GrafoSnapshot grafo() {
+        return grafo;
+    }
+    
+    public int maxZoom() {
+        return niveles.length - 1;
+    }
+    
+    /**
+     * Nivel de un zoom; los zooms mayores que el máximo usan el nivel más detallado.
+     */
+    public Nivel nivel(int zoom) {
+        return niveles[Math.max(0, Math.min(zoom, maxZoom()))];
+    }
+    
+    /**
+     * Agrupa los elementos de un nivel en las celdas del zoom indicado.
+     * 
+     * @param desplazamiento Bits que se descartan de las celdas de los elementos (0 o 1)
+     * @param grado Rutas de cada ciudad, para elegir como representante la más conectada
+     */
+    private static Nivel agrupar(int zoom, int desplazamiento, int[] celdaX, int[] celdaY, int[] cantidad,
+                                 double[] lat, double[] lng, int[] representante, int[] grado,
+                                 int[] origenes, int[] destinos, int[] rutas, double[] distancias, int m) {
+        int n = celdaX.length;
+        long lado = 1L << (zoom + CELDAS_POR_TESELA);
+        
+        // 1. Ordenar los elementos por celda: la celda en los bits altos y el elemento en los bajos
+        long[] claves = new long[n];
+        for (int i = 0; i < n; i++) {
+            long celda = (celdaY[i] >> desplazamiento) * lado + (celdaX[i] >> desplazamiento);
+            claves[i] = celda << 31 | i;
+        }
+        Arrays.parallelSort(claves);
+        
+        // 2. Un cluster por celda distinta, con el centroide ponderado por cantidad de ciudades
+        int[] padres = new int[n];
+        int[] x = new int[n];
+        int[] y = new int[n];
+        int[] cantidades = new int[n];
+        double[] sumaLat = new double[n];
+        double[] sumaLng = new double[n];
+        int[] representantes = new int[n];
+        int clusters = 0;
+        for (int j = 0; j < n; j++) {
+            int i = (int) (claves[j] & Integer.MAX_VALUE);
+            if (j == 0 || claves[j] >>> 31 != claves[j - 1] >>> 31) {
+                x[clusters] = celdaX[i] >> desplazamiento;
+                y[clusters] = celdaY[i] >> desplazamiento;
+                representantes[clusters] = representante[i];
+                clusters++;
+            }
+            int c = clusters - 1;
+            padres[i] = c;
+            cantidades[c] += cantidad[i];
+            sumaLat[c] += lat[i] * cantidad[i];
+            sumaLng[c] += lng[i] * cantidad[i];
+            int actual = representantes[c];
+            if (grado[representante[i]] > grado[actual]
+                    || (grado[representante[i]] == grado[actual] && representante[i] < actual)) {
+                representantes[c] = representante[i];
+            }
+        }
+        double[] latitudes = new double[clusters];
+        double[] longitudes = new double[clusters];
+        for (int c = 0; c < clusters; c++) {
+            latitudes[c] = sumaLat[c] / cantidades[c];
+            longitudes[c] = sumaLng[c] / cantidades[c];
+        }
+        
+        // 3. Aristas entre clusters distintos, en los dos sentidos
+        int[] inicio = new int[clusters + 1];
+        for (int k = 0; k < m; k++) {
+            int a = padres[origenes[k]];
+            int b = padres[destinos[k]];
+            if (a != b) {
+                inicio[a + 1]++;
+                inicio[b + 1]++;
+            }
+        }
+        for (int c = 0; c < clusters; c++) {
+            inicio[c + 1] += inicio[c];
+        }
+        int[] vecinos = new int[inicio[clusters]];
+        int[] cantidadRutas = new int[inicio[clusters]];
+        double[] minimas = new double[inicio[clusters]];
+        int[] siguiente = Arrays.copyOf(inicio, clusters);
+        for (int k = 0; k < m; k++) {
+            int a = padres[origenes[k]];
+            int b = padres[destinos[k]];
+            if (a != b) {
+                int e = siguiente[a]++;
+                vecinos[e] = b;
+                cantidadRutas[e] = rutas[k];
+                minimas[e] = distancias[k];
+                e = siguiente[b]++;
+                vecinos[e] = a;
+                cantidadRutas[e] = rutas[k];
+                minimas[e] = distancias[k];
+            }
+        }
+        
+        // 4. Juntar las aristas repetidas de cada cluster (ultimas[d] es la posición de d en el cluster actual)
+        int[] ultimas = new int[clusters];
+        Arrays.fill(ultimas, -1);
+        int escritas = 0;
+        int desde = 0;
+        for (int c = 0; c < clusters; c++) {
+            int hasta = inicio[c + 1];
+            inicio[c] = escritas;
+            for (int e = desde; e < hasta; e++) {
+                int d = vecinos[e];
+                int previa = ultimas[d];
+                if (previa >= inicio[c]) {
+                    cantidadRutas[previa] += cantidadRutas[e];
+                    minimas[previa] = Math.min(minimas[previa], minimas[e]);
+                } else {
+                    ultimas[d] = escritas;
+                    vecinos[escritas] = d;
+                    cantidadRutas[escritas] = cantidadRutas[e];
+                    minimas[escritas] = minimas[e];
+                    escritas++;
+                }
+            }
+            desde = hasta;
+        }
+        inicio[clusters] = escritas;
+        
+        return new Nivel(zoom, Arrays.copyOf(x, clusters), Arrays.copyOf(y, clusters),
+                Arrays.copyOf(cantidades, clusters), latitudes, longitudes,
+                Arrays.copyOf(representantes, clusters), inicio, Arrays.copyOf(vecinos, escritas),
+                Arrays.copyOf(cantidadRutas, escritas), Arrays.copyOf(minimas, escritas));
+    }
+    
+    private static int celda(double posicion, int lado) {
+        return (int) Math.max(0, Math.min(lado - 1, Math.floor(posicion * lado)));
+    }
+    
+    /**
+     * Coordenada vertical Web Mercator normalizada a [0, 1] (0 arriba).
+     */
+    private static double mercatorY(double latitud) {
+        double phi = Math.toRadians(Math.max(-MAX_LATITUD, Math.min(MAX_LATITUD, latitud)));
+        return (1 - Math.log(Math.tan(Math.PI / 4 + phi / 2)) / Math.PI) / 2;
+    }
+    
+    /**
+     * Clusters de un nivel de zoom y las aristas entre ellos. Cada arista está guardada en los
+     * dos sentidos, como lista de adyacencia (CSR) igual que en {@link GrafoSnapshot}.
+     */
+    public static final class Nivel {
+        
+        private final int zoom;
+        
+        private final int[] celdaX;
+        
+        private final int[] celdaY;
+        
+        private final int[] cantidad;
+        
+        private final double[] lat;
+        
+        private final double[] lng;
+        
+        /**
+         * Ciudad con más rutas de cada cluster (índice en el grafo).
+         */
+        private final int[] representante;
+        
+        private final int[] inicio;
+        
+        private final int[] vecinos;
+        
+        private final int[] rutas;
+        
+        private final double[] distancias;
+        
+        private final IndiceEspacial indice;
+        
+        private Nivel(int zoom, int[] celdaX, int[] celdaY, int[] cantidad, double[] lat, double[] lng,
+                      int[] representante, int[] inicio, int[] vecinos, int[] rutas, double[] distancias) {
+            this.zoom = zoom;
+            this.celdaX = celdaX;
+            this.celdaY = celdaY;
+            this.cantidad = cantidad;
+            this.lat = lat;
+            this.lng = lng;
+            this.representante = representante;
+            this.inicio = inicio;
+            this.vecinos = vecinos;
+            this.rutas = rutas;
+            this.distancias = distancias;
+            this.indice = IndiceEspacial.construir(lat, lng);
+        }
+        
+        public int zoom() {
+            return zoom;
+        }
+        
+        public int tamano() {
+            return cantidad.length;
+        }
+        
+        /**
+         * Identificador estable del cluster entre versiones del grafo: "zoom/x/y" de su celda.
+         */
+        public String id(int cluster) {
+            return zoom + "/" + celdaX[cluster] + "/" + celdaY[cluster];
+        }
+        
+        public double lat(int cluster) {
+            return lat[cluster];
+        }
+        
+        public double lng(int cluster) {
+            return lng[cluster];
+        }
+        
+        /**
+         * Cantidad de ciudades agrupadas en el cluster.
+         */
+        public int cantidad(int cluster) {
+            return cantidad[cluster];
+        }
+        
+        public int representante(int cluster) {
+            return representante[cluster];
+        }
+        
+        public int inicio(int cluster) {
+            return inicio[cluster];
+        }
+        
+        public int fin(int cluster) {
+            return inicio[cluster + 1];
+        }
+        
+        public int vecino(int arista) {
+            return vecinos[arista];
+        }
+        
+        /**
+         * Cantidad de rutas (en cualquier sentido) entre los dos clusters.
+         */
+        public int rutas(int arista) {
+            return rutas[arista];
+        }
+        
+        /**
+         * Distancia de la ruta más corta entre los dos clusters.
+         */
+        public double distanciaKm(int arista) {
+            return distancias[arista];
+        }
+        
+        /**
+         * Clusters con el centroide dentro del rectángulo, en ningún orden particular.
+         */
+        public int[] dentroDe(Rectangulo rectangulo) {
+            return indice.dentroDe(rectangulo);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.minimaps.grafo;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Mantiene la pirámide de clusters por zoom ({@link PiramideClusters}) del grafo vigente.
+ * 
+ * Se reconstruye en segundo plano cada vez que se publica un grafo nuevo. Mientras no esté
+ * lista, {@link #para(GrafoSnapshot)} devuelve null y las consultas no la construyen.
+ */
+@Slf4j
+@Component
+public class PiramideEnMemoria extends PreprocesoEnMemoria<PiramideClusters> {
+    
+    private final int maxZoom;
+    
+    public PiramideEnMemoria(@Value("${minimaps.clusters.habilitada:true}") boolean habilitada,
+                             @Value("${minimaps.clusters.max-zoom:14}") int maxZoom) {
+        super("piramide-clusters", habilitada);
+        if (maxZoom < 0 || maxZoom > PiramideClusters.MAX_ZOOM) {
+            throw new IllegalArgumentException("minimaps.clusters.max-zoom debe estar entre 0 y "
+                    + PiramideClusters.MAX_ZOOM);
+        }
+        this.maxZoom = maxZoom;
+    }
+    
+    @Override
+    protected PiramideClusters construir(GrafoSnapshot grafo, PiramideClusters anterior) {
+        long inicio = System.nanoTime();
+        PiramideClusters piramide = PiramideClusters.construir(grafo, maxZoom);
+        log.info("Pirámide de clusters del grafo v{} construida en {} ms (zoom 0 a {}, {} clusters en el más detallado)",
+                grafo.version(), (System.nanoTime() - inicio) / 1_000_000, maxZoom,
+                piramide.nivel(maxZoom).tamano());
+        return piramide;
+    }
+}
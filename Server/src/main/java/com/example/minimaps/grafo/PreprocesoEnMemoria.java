@@ -0,0 +1,113 @@
+package com.example.minimaps.grafo;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Mantiene una estructura precalculada para el grafo vigente.
+ * 
+ * Cada vez que se publica un grafo nuevo la estructura se construye en segundo plano, en un
+ * único hilo propio; si mientras tanto llegan otros grafos, solo se construye el último.
+ * Mientras no esté lista, {@link #para(GrafoSnapshot)} devuelve null y quien la consulta
+ * sigue sin ella. Las subclases solo indican cómo se construye la estructura de un grafo.
+ * 
+ * Si la construcción falla se registra el error y la estructura queda sin preparar (o con la
+ * del grafo anterior) hasta que se publique otro grafo.
+ * 
+ * @param <T> Estructura precalculada
+ */
+@Slf4j
+public abstract class PreprocesoEnMemoria<T> {
+    
+    private final String nombre;
+    
+    private final boolean habilitado;
+    
+    private final AtomicReference<Preparado<T>> actual = new AtomicReference<>();
+    
+    private volatile GrafoSnapshot ultimoSolicitado;
+    
+    private final ExecutorService ejecutor;
+    
+    /**
+     * @param nombreHilo Nombre del hilo que construye en segundo plano
+     * @param habilitado Si es false no se construye nada al publicarse un grafo
+     */
+    protected PreprocesoEnMemoria(String nombreHilo, boolean habilitado) {
+        this.nombre = nombreHilo;
+        this.habilitado = habilitado;
+        this.ejecutor = Executors.newSingleThreadExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, nombreHilo);
+            hilo.setDaemon(true);
+            return hilo;
+        });
+    }
+    
+    /**
+     * Construye la estructura de un grafo.
+     * 
+     * @param grafo Grafo a preprocesar
+     * @param anterior Estructura publicada hasta ahora (de otro grafo), o null si no hay
+     * @return Estructura del grafo
+     */
+    protected abstract T construir(GrafoSnapshot grafo, T anterior);
+    
+    @EventListener
+    public void alActualizarGrafo(GrafoActualizadoEvent evento) {
+        if (!habilitado) return;
+        GrafoSnapshot grafo = evento.getSnapshot();
+        ultimoSolicitado = grafo;
+        ejecutor.execute(() -> {
+            // Si mientras tanto llegó otro grafo, esta versión ya no interesa
+            if (grafo == ultimoSolicitado) {
+                try {
+                    preparar(grafo);
+                } catch (Throwable e) {
+                    // Un error del hilo del ejecutor solo llegaría a stderr
+                    log.error("No se pudo preparar {} para el grafo v{}", nombre, grafo.version(), e);
+                }
+            }
+        });
+    }
+    
+    /**
+     * Estructura construida para el grafo indicado, o null si todavía no está lista.
+     */
+    public T para(GrafoSnapshot grafo) {
+        Preparado<T> preparado = actual.get();
+        return preparado != null && preparado.grafo() == grafo ? preparado.valor() : null;
+    }
+    
+    /**
+     * Devuelve la estructura del grafo, construyéndola y publicándola si hace falta. Bloquea
+     * hasta terminar; si otro hilo ya la está construyendo, espera esa construcción. Si mientras
+     * tanto se publicó la estructura de un grafo más nuevo, la construida no la reemplaza.
+     * 
+     * @param grafo Grafo a preprocesar
+     * @return Estructura publicada
+     */
+    public synchronized T preparar(GrafoSnapshot grafo) {
+        Preparado<T> anterior = actual.get();
+        if (anterior != null && anterior.grafo() == grafo) {
+            return anterior.valor();
+        }
+        T valor = construir(grafo, anterior != null ? anterior.valor() : null);
+        if (anterior == null || anterior.grafo().version() <= grafo.version()) {
+            actual.set(new Preparado<>(grafo, valor));
+        }
+        return valor;
+    }
+    
+    @PreDestroy
+    public void detener() {
+        ejecutor.shutdownNow();
+    }
+    
+    private record Preparado<T>(GrafoSnapshot grafo, T valor) {
+    }
+}
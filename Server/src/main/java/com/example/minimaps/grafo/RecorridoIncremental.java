@@ -0,0 +1,98 @@
+package com.example.minimaps.grafo;
+
+/**
+ * BFS y DFS secuenciales que entregan cada nodo al visitarlo, sin acumular el resultado.
+ * 
+ * Sirven para transmitir el recorrido mientras se calcula: el visitante puede cortar en
+ * cualquier momento devolviendo false (límite alcanzado, cliente desconectado) y el recorrido
+ * no guarda más que los arreglos de enteros de la cola o pila y las marcas de visitado.
+ * El orden es el mismo que el de {@code GrafoService.bfs} y {@code GrafoService.dfs}.
+ */
+public final class RecorridoIncremental {
+    
+    /**
+     * Recibe cada nodo visitado con su nivel (BFS) o profundidad en el árbol (DFS).
+     */
+    @FunctionalInterface
+    public interface Visitante {
+        
+        /**
+         * @return false para detener el recorrido
+         */
+        boolean visitar(int nodo, int nivel);
+    }
+    
+    private RecorridoIncremental() {
+    }
+    
+    /**
+     * Recorrido en anchura hasta el nivel indicado.
+     * 
+     * @param g Grafo a recorrer
+     * @param origen Índice del nodo origen
+     * @param maxNivel Nivel máximo a visitar (el origen es el nivel 0)
+     * @param visitante Recibe cada nodo en orden BFS
+     */
+    public static void bfs(GrafoSnapshot g, int origen, int maxNivel, Visitante visitante) {
+        int[] cola = new int[g.numNodos()];
+        int[] niveles = new int[g.numNodos()];
+        boolean[] visitados = new boolean[g.numNodos()];
+        int frente = 0;
+        int fondo = 0;
+        cola[fondo++] = origen;
+        visitados[origen] = true;
+        
+        while (frente < fondo) {
+            int actual = cola[frente++];
+            int nivel = niveles[actual];
+            if (!visitante.visitar(actual, nivel)) return;
+            if (nivel == maxNivel) continue;
+            
+            for (int e = g.inicio(actual); e < g.fin(actual); e++) {
+                int vecino = g.destino(e);
+                if (!visitados[vecino]) {
+                    visitados[vecino] = true;
+                    niveles[vecino] = nivel + 1;
+                    cola[fondo++] = vecino;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Recorrido en profundidad hasta la profundidad indicada del árbol DFS.
+     * 
+     * @param g Grafo a recorrer
+     * @param origen Índice del nodo origen
+     * @param maxProfundidad Profundidad máxima a visitar (el origen es la profundidad 0)
+     * @param visitante Recibe cada nodo en orden DFS
+     */
+    public static void dfs(GrafoSnapshot g, int origen, int maxProfundidad, Visitante visitante) {
+        // Cada arista apila a lo sumo un nodo
+        int[] pila = new int[g.numAristas() + 1];
+        int[] profundidades = new int[g.numAristas() + 1];
+        boolean[] visitados = new boolean[g.numNodos()];
+        int tope = 0;
+        pila[tope] = origen;
+        profundidades[tope++] = 0;
+        
+        while (tope > 0) {
+            tope--;
+            int actual = pila[tope];
+            int profundidad = profundidades[tope];
+            if (visitados[actual]) continue;
+            visitados[actual] = true;
+            if (!visitante.visitar(actual, profundidad)) return;
+            if (profundidad == maxProfundidad) continue;
+            
+            // Vecinos en orden inverso para visitarlos en el orden de las aristas
+            for (int e = g.fin(actual) - 1; e >= g.inicio(actual); e--) {
+                int vecino = g.destino(e);
+                if (!visitados[vecino]) {
+                    pila[tope] = vecino;
+                    profundidades[tope++] = profundidad + 1;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.minimaps.grafo;
+
+/**
+ * Rectángulo de latitud/longitud en grados, como el que muestra un mapa en pantalla.
+ * Si minLng es mayor que maxLng el rectángulo cruza el antimeridiano.
+ */
+public record Rectangulo(double minLat, double minLng, double maxLat, double maxLng) {
+    
+    /**
+     * Lee un rectángulo con el formato "minLat,minLng,maxLat,maxLng".
+     * 
+     * @throws IllegalArgumentException si no son cuatro números o minLat supera a maxLat
+     */
+    public static Rectangulo parse(String texto) {
+        String[] partes = texto.split(",");
+        if (partes.length != 4) {
+            throw new IllegalArgumentException("Se esperaba minLat,minLng,maxLat,maxLng: " + texto);
+        }
+        double[] valores = new double[4];
+        for (int i = 0; i < 4; i++) {
+            valores[i] = Double.parseDouble(partes[i].trim());
+        }
+        if (valores[0] > valores[2]) {
+            throw new IllegalArgumentException("minLat no puede ser mayor que maxLat: " + texto);
+        }
+        return new Rectangulo(valores[0], valores[1], valores[2], valores[3]);
+    }
+    
+    public boolean cruzaAntimeridiano() {
+        return minLng > maxLng;
+    }
+    
+    public boolean contiene(double lat, double lng) {
+        if (lat < minLat || lat > maxLat) return false;
+        return cruzaAntimeridiano() ? lng >= minLng || lng <= maxLng : lng >= minLng && lng <= maxLng;
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.minimaps.grafo;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * K rutas alternativas entre dos nodos con el algoritmo de Yen.
+ * 
+ * Yen genera caminos simples en orden de distancia: para el último camino encontrado, cada
+ * nodo se toma como punto de desvío (spur), se bloquean el prefijo y las aristas que ya usaron
+ * los caminos con ese mismo prefijo, y se busca el mejor camino desde el desvío al destino.
+ * Las búsquedas de desvío son independientes y corren en paralelo, cada una sobre un espacio
+ * de trabajo reutilizado por hilo.
+ * 
+ * Para que las alternativas sean realmente distintas, un candidato solo se devuelve si la
+ * distancia que comparte con cada ruta ya aceptada no supera la fracción máxima indicada.
+ * La búsqueda respeta un plazo: al vencer se devuelven las rutas encontradas hasta ese momento.
+ * El plazo no corre para la ruta más corta, que siempre se calcula y se devuelve si existe.
+ */
+public final class RutasAlternativas {
+    
+    /**
+     * Máximo de caminos explorados por cada ruta pedida, para acotar el trabajo cuando
+     * muchos candidatos se descartan por solapamiento.
+     */
+    private static final int EXPLORADOS_POR_RUTA = 10;
+    
+    private final GrafoSnapshot g;
+    
+    private RutasAlternativas(GrafoSnapshot g) {
+        this.g = g;
+    }
+    
+    /**
+     * Calcula hasta k rutas alternativas, ordenadas por distancia.
+     * 
+     * @param g Grafo sobre el que se busca
+     * @param origen Índice del nodo origen
+     * @param destino Índice del nodo destino
+     * @param k Cantidad de rutas deseada
+     * @param maxSolapamiento Fracción máxima (0..1) de la distancia de un candidato compartida con una ruta aceptada
+     * @param plazoNanos Tiempo máximo de cálculo de las alternativas en nanosegundos
+     * @return Rutas encontradas (la primera es siempre la más corta, si existe)
+     */
+    public static List<Camino> calcular(GrafoSnapshot g, int origen, int destino, int k,
+                                        double maxSolapamiento, long plazoNanos) {
+        return new RutasAlternativas(g).yen(origen, destino, k, maxSolapamiento, System.nanoTime() + plazoNanos);
+    }
+    
+    private List<Camino> yen(int origen, int destino, int k, double maxSolapamiento, long vencimiento) {
+        List<Camino> aceptados = new ArrayList<>();
+        List<Set<Long>> aristasAceptadas = new ArrayList<>();
+        List<int[]> explorados = new ArrayList<>();
+        
+        EspacioBusqueda espacio = EspacioBusqueda.adelante(g.numNodos());
+        espacio.iniciar(origen);
+        Camino primero = buscar(espacio, destino, Long.MAX_VALUE);
+        if (!primero.existe() || k <= 0) {
+            return aceptados;
+        }
+        
+        PriorityQueue<Camino> candidatos = new PriorityQueue<>((a, b) -> Double.compare(a.distancia(), b.distancia()));
+        Set<List<Integer>> vistos = new HashSet<>();
+        candidatos.offer(primero);
+        vistos.add(clave(primero.nodos()));
+        
+        // La primera vuelta acepta la más corta aunque el plazo ya haya vencido
+        while (!candidatos.isEmpty() && aceptados.size() < k && explorados.size() < k * EXPLORADOS_POR_RUTA
+                && (aceptados.isEmpty() || System.nanoTime() < vencimiento)) {
+            Camino actual = candidatos.poll();
+            int[] nodos = actual.nodos();
+            explorados.add(nodos);
+            
+            // 1. ¿Es suficientemente distinto de las rutas ya aceptadas?
+            Set<Long> aristas = aristas(nodos);
+            if (aceptados.isEmpty() || solapamientoMaximo(nodos, actual.distancia(), aristasAceptadas) <= maxSolapamiento) {
+                aceptados.add(actual);
+                aristasAceptadas.add(aristas);
+                if (aceptados.size() == k) break;
+            }
+            
+            // 2. Desvíos desde cada nodo del camino, en paralelo
+            double[] prefijo = distanciasAcumuladas(nodos);
+            List<int[]> exploradosHastaAhora = List.copyOf(explorados);
+            Camino[] desvios = new Camino[nodos.length - 1];
+            IntStream.range(0, nodos.length - 1).parallel().forEach(i -> {
+                if (System.nanoTime() < vencimiento) {
+                    desvios[i] = desvio(nodos, i, prefijo, exploradosHastaAhora, destino, vencimiento);
+                }
+            });
+            
+            // 3. Agregar los candidatos nuevos
+            for (Camino desvio : desvios) {
+                if (desvio != null && desvio.existe() && vistos.add(clave(desvio.nodos()))) {
+                    candidatos.offer(desvio);
+                }
+            }
+        }
+        return aceptados;
+    }
+    
+    /**
+     * Mejor camino que comparte con el camino dado los primeros i + 1 nodos y luego se desvía.
+     */
+    private Camino desvio(int[] camino, int i, double[] prefijo, List<int[]> explorados, int destino, long vencimiento) {
+        EspacioBusqueda espacio = EspacioBusqueda.adelante(g.numNodos());
+        espacio.iniciar(camino[i]);
+        
+        // Aristas que ya tomaron, desde el nodo de desvío, los caminos con el mismo prefijo
+        for (int[] otro : explorados) {
+            if (otro.length > i + 1 && Arrays.equals(otro, 0, i + 1, camino, 0, i + 1)) {
+                for (int e = g.inicio(otro[i]); e < g.fin(otro[i]); e++) {
+                    if (g.destino(e) == otro[i + 1]) {
+                        espacio.bloquearArista(e);
+                    }
+                }
+            }
+        }
+        // El prefijo tampoco se puede volver a visitar
+        for (int j = 0; j < i; j++) {
+            espacio.bloquearNodo(camino[j]);
+        }
+        Camino tramo = buscar(espacio, destino, vencimiento);
+        if (!tramo.existe()) {
+            return null;
+        }
+        
+        int[] nodos = Arrays.copyOf(camino, i + tramo.nodos().length);
+        System.arraycopy(tramo.nodos(), 0, nodos, i, tramo.nodos().length);
+        return new Camino(prefijo[i] + tramo.distancia(), nodos, tramo.asentados());
+    }
+    
+    private double solapamientoMaximo(int[] nodos, double distancia, List<Set<Long>> aristasAceptadas) {
+        if (distancia <= 0) return 0;
+        double maximo = 0;
+        for (Set<Long> aceptada : aristasAceptadas) {
+            double compartida = 0;
+            for (int j = 0; j + 1 < nodos.length; j++) {
+                if (aceptada.contains(claveArista(nodos[j], nodos[j + 1]))) {
+                    compartida += pesoMinimo(nodos[j], nodos[j + 1]);
+                }
+            }
+            maximo = Math.max(maximo, compartida / distancia);
+        }
+        return maximo;
+    }
+    
+    private double[] distanciasAcumuladas(int[] nodos) {
+        double[] acumuladas = new double[nodos.length];
+        for (int j = 1; j < nodos.length; j++) {
+            acumuladas[j] = acumuladas[j - 1] + pesoMinimo(nodos[j - 1], nodos[j]);
+        }
+        return acumuladas;
+    }
+    
+    private double pesoMinimo(int u, int v) {
+        double minimo = Double.POSITIVE_INFINITY;
+        for (int e = g.inicio(u); e < g.fin(u); e++) {
+            if (g.destino(e) == v) {
+                minimo = Math.min(minimo, g.peso(e));
+            }
+        }
+        return minimo;
+    }
+    
+    private static Set<Long> aristas(int[] nodos) {
+        Set<Long> aristas = new HashSet<>();
+        for (int j = 0; j + 1 < nodos.length; j++) {
+            aristas.add(claveArista(nodos[j], nodos[j + 1]));
+        }
+        return aristas;
+    }
+    
+    private static long claveArista(int u, int v) {
+        return ((long) u << 32) | (v & 0xffffffffL);
+    }
+    
+    private static List<Integer> clave(int[] nodos) {
+        return Arrays.stream(nodos).boxed().toList();
+    }
+    
+    /**
+     * Camino mínimo desde el origen con que se inició el espacio hasta el destino, sin pasar
+     * por los nodos ni las aristas bloqueados en el espacio. Si se vence el plazo devuelve
+     * "inalcanzable".
+     */
+    private Camino buscar(EspacioBusqueda busqueda, int destino, long vencimiento) {
+        int asentados = 0;
+        while (busqueda.hayPendientes()) {
+            int u = busqueda.extraer();
+            asentados++;
+            
+            if (u == destino) {
+                return new Camino(busqueda.distancia(u), busqueda.camino(u), asentados);
+            }
+            if ((asentados & 1023) == 0 && System.nanoTime() > vencimiento) {
+                break;
+            }
+            
+            double distanciaU = busqueda.distancia(u);
+            for (int e = g.inicio(u); e < g.fin(u); e++) {
+                int v = g.destino(e);
+                if (busqueda.aristaBloqueada(e) || busqueda.nodoBloqueado(v)) continue;
+                if (!busqueda.asentado(v)) {
+                    busqueda.relajar(v, distanciaU + g.peso(e), u);
+                }
+            }
+        }
+        return Camino.inalcanzable(asentados);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.minimaps.grafo;
+
+import com.example.minimaps.domain.Ruta;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Rutas salientes de una ciudad leídas directamente del CSR del grafo.
+ * 
+ * Reemplaza al conjunto de {@link Ruta} de las ciudades del grafo en memoria (leídas por
+ * {@link CargadorGrafo} o de {@link ArchivoGrafo}): en lugar de guardar un objeto por arista,
+ * cada {@link Ruta} se crea sin id al recorrer el conjunto (por ejemplo al serializar la ciudad)
+ * y se descarta después. Es de solo lectura, igual que el grafo.
+ */
+final class RutasDelGrafo extends AbstractSet<Ruta> {
+    
+    private final GrafoSnapshot grafo;
+    
+    private final int nodo;
+    
+    RutasDelGrafo(GrafoSnapshot grafo, int nodo) {
+        this.grafo = grafo;
+        this.nodo = nodo;
+    }
+    
+    @Override
+    public int size() {
+        return grafo.fin(nodo) - grafo.inicio(nodo);
+    }
+    
+    @Override
+    public Iterator<Ruta> iterator() {
+        return new Iterator<>() {
+            private int arista = grafo.inicio(nodo);
+            
+            @Override
+            public boolean hasNext() {
+                return arista < grafo.fin(nodo);
+            }
+            
+            @Override
+            public Ruta next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int e = arista++;
+                return new Ruta(grafo.peso(e), grafo.ciudad(grafo.destino(e)));
+            }
+        };
+    }
+}
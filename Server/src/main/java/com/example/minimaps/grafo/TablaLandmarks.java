@@ -0,0 +1,168 @@
+package com.example.minimaps.grafo;
+
+import java.util.Arrays;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Tablas de distancias desde y hacia un conjunto de landmarks, para el algoritmo ALT
+ * (A*, Landmarks y desigualdad Triangular).
+ * 
+ * Para un landmark L y cualquier par (v, t), la desigualdad triangular da dos cotas inferiores
+ * de d(v, t): d(L, t) - d(L, v) y d(v, L) - d(t, L). Se usa el máximo sobre todos los landmarks.
+ * A diferencia de la cota geográfica, sigue siendo ajustada cuando las rutas rodean montañas o costas.
+ * 
+ * Las distancias se guardan en arreglos double[] (uno por landmark y sentido) para que las cotas
+ * sean exactas y la heurística siga siendo admisible.
+ */
+public final class TablaLandmarks {
+    
+    private final GrafoSnapshot grafo;
+    
+    private final int[] landmarks;
+    
+    /**
+     * desde[i][v] = d(landmark i, v).
+     */
+    private final double[][] desde;
+    
+    /**
+     * hacia[i][v] = d(v, landmark i).
+     */
+    private final double[][] hacia;
+    
+    private TablaLandmarks(GrafoSnapshot grafo, int[] landmarks, double[][] desde, double[][] hacia) {
+        this.grafo = grafo;
+        this.landmarks = landmarks;
+        this.desde = desde;
+        this.hacia = hacia;
+    }
+    
+    /**
+     * Elige k landmarks por el método del punto más lejano y calcula sus tablas.
+     * 
+     * La elección es secuencial (cada landmark es el nodo alcanzable más lejano de los ya
+     * elegidos, sobre las distancias hacia adelante); las búsquedas hacia atrás, que son
+     * independientes entre sí, se hacen en paralelo. Si quedan menos nodos alcanzables que
+     * landmarks pedidos, se usan menos landmarks.
+     * 
+     * @param grafo Grafo sobre el que se calculan las tablas
+     * @param k Cantidad de landmarks deseada
+     * @return Tablas listas para consultas
+     */
+    public static TablaLandmarks construir(GrafoSnapshot grafo, int k) {
+        int n = grafo.numNodos();
+        k = Math.min(k, n);
+        int[] elegidos = new int[k];
+        double[][] desdeElegidos = new double[k][];
+        boolean[] elegido = new boolean[n];
+        double[] minimaDistancia = new double[n];
+        Arrays.fill(minimaDistancia, Double.POSITIVE_INFINITY);
+        
+        // 1. Punto de partida: el nodo más lejano desde el nodo 0
+        int candidato = k > 0 ? masLejano(unoATodos(grafo, 0, false), elegido) : -1;
+        int cantidad = 0;
+        while (cantidad < k && candidato >= 0) {
+            elegidos[cantidad] = candidato;
+            elegido[candidato] = true;
+            desdeElegidos[cantidad] = unoATodos(grafo, candidato, false);
+            for (int v = 0; v < n; v++) {
+                minimaDistancia[v] = Math.min(minimaDistancia[v], desdeElegidos[cantidad][v]);
+            }
+            cantidad++;
+            // 2. Siguiente landmark: el que maximiza la distancia al landmark más cercano
+            candidato = masLejano(minimaDistancia, elegido);
+        }
+        int[] landmarks = Arrays.copyOf(elegidos, cantidad);
+        double[][] desde = Arrays.copyOf(desdeElegidos, cantidad);
+        
+        // 3. Distancias hacia cada landmark, en paralelo
+        double[][] hacia = new double[cantidad][];
+        IntStream.range(0, cantidad).parallel().forEach(i -> hacia[i] = unoATodos(grafo, landmarks[i], true));
+        
+        return new TablaLandmarks(grafo, landmarks, desde, hacia);
+    }
+    
+    public GrafoSnapshot grafo() {
+        return grafo;
+    }
+    
+    public int[] landmarks() {
+        return landmarks.clone();
+    }
+    
+    /**
+     * Cota inferior de d(v, destino) según la desigualdad triangular con todos los landmarks.
+     * Infinito significa que el destino no es alcanzable desde v.
+     */
+    public double cota(int v, int destino) {
+        double mejor = 0.0;
+        for (int i = 0; i < landmarks.length; i++) {
+            double[] d = desde[i];
+            double[] h = hacia[i];
+            
+            // d(L, t) - d(L, v): si L llega a v pero no a t, v tampoco llega a t
+            if (d[v] < Double.POSITIVE_INFINITY) {
+                mejor = Math.max(mejor, d[destino] - d[v]);
+            }
+            // d(v, L) - d(t, L): si t llega a L pero v no, v tampoco llega a t
+            if (h[destino] < Double.POSITIVE_INFINITY) {
+                mejor = Math.max(mejor, h[v] - h[destino]);
+            }
+        }
+        return mejor;
+    }
+    
+    /**
+     * Heurística para A*: máximo entre la cota de landmarks y la cota geográfica.
+     * El máximo de dos heurísticas consistentes sigue siendo consistente.
+     */
+    public IntToDoubleFunction heuristica(int destino) {
+        IntToDoubleFunction geografica = AEstrella.heuristicaGeografica(grafo, destino);
+        return v -> Math.max(cota(v, destino), geografica.applyAsDouble(v));
+    }
+    
+    /**
+     * Nodo con mayor distancia finita, ignorando los ya elegidos, o -1 si no queda ninguno.
+     */
+    private static int masLejano(double[] distancias, boolean[] elegido) {
+        int mejor = -1;
+        double maxima = -1;
+        for (int v = 0; v < distancias.length; v++) {
+            if (distancias[v] < Double.POSITIVE_INFINITY && distancias[v] > maxima && !elegido[v]) {
+                maxima = distancias[v];
+                mejor = v;
+            }
+        }
+        return mejor;
+    }
+    
+    /**
+     * Dijkstra de un origen a todos los nodos.
+     * 
+     * @param inverso true para recorrer las aristas entrantes (distancias hacia el origen)
+     */
+    static double[] unoATodos(GrafoSnapshot g, int origen, boolean inverso) {
+        double[] distancias = new double[g.numNodos()];
+        Arrays.fill(distancias, Double.POSITIVE_INFINITY);
+        MonticuloIndexado cola = new MonticuloIndexado(g.numNodos());
+        distancias[origen] = 0.0;
+        cola.insertarOBajar(origen, 0.0);
+        
+        while (!cola.vacio()) {
+            int u = cola.extraerMinimo();
+            
+            int inicio = inverso ? g.inicioInverso(u) : g.inicio(u);
+            int fin = inverso ? g.finInverso(u) : g.fin(u);
+            for (int e = inicio; e < fin; e++) {
+                int v = inverso ? g.origenInverso(e) : g.destino(e);
+                double nueva = distancias[u] + (inverso ? g.pesoInverso(e) : g.peso(e));
+                if (nueva < distancias[v]) {
+                    distancias[v] = nueva;
+                    cola.insertarOBajar(v, nueva);
+                }
+            }
+        }
+        return distancias;
+    }
+}
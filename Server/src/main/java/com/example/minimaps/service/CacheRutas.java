@@ -0,0 +1,162 @@
+package com.example.minimaps.service;
+
+import com.example.minimaps.dto.BfsResponse;
+import com.example.minimaps.dto.CacheEstadisticasResponse;
+import com.example.minimaps.dto.MapaResponse;
+import com.example.minimaps.dto.RutaResponse;
+import com.example.minimaps.grafo.GrafoActualizadoEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Cache acotada de resultados de algoritmos sobre el grafo.
+ * 
+ * La clave es (algoritmo, origen, destino, versión del grafo), así que cualquier recarga
+ * invalida los resultados anteriores sin coordinación extra; además, al publicarse un grafo
+ * nuevo se descartan las entradas de versiones viejas para liberar memoria, y un cálculo sobre
+ * una versión vieja que termina después ya no se guarda.
+ * 
+ * El desalojo es LRU y respeta dos límites: cantidad de entradas y peso total, donde el peso
+ * de una entrada es la cantidad de ciudades y aristas que contiene. El cálculo se hace fuera
+ * del bloqueo, por lo que dos pedidos simultáneos de la misma clave pueden calcularla ambos.
+ * 
+ * Los resultados se comparten entre pedidos: quien los reciba no debe modificarlos.
+ */
+@Component
+public class CacheRutas {
+    
+    private final boolean habilitada;
+    
+    private final int maxEntradas;
+    
+    private final long maxPeso;
+    
+    private final LinkedHashMap<Clave, Entrada> entradas = new LinkedHashMap<>(16, 0.75f, true);
+    
+    private long pesoTotal;
+    
+    /**
+     * Versión más nueva anunciada por {@link GrafoActualizadoEvent}: no se guarda nada más viejo.
+     */
+    private long versionVigente;
+    
+    private final LongAdder aciertos = new LongAdder();
+    
+    private final LongAdder fallos = new LongAdder();
+    
+    private final LongAdder desalojos = new LongAdder();
+    
+    public CacheRutas(@Value("${minimaps.cache.habilitada:true}") boolean habilitada,
+                      @Value("${minimaps.cache.max-entradas:10000}") int maxEntradas,
+                      @Value("${minimaps.cache.max-peso:2000000}") long maxPeso) {
+        this.habilitada = habilitada;
+        this.maxEntradas = maxEntradas;
+        this.maxPeso = maxPeso;
+    }
+    
+    /**
+     * Devuelve el resultado guardado para la clave o lo calcula y lo guarda.
+     * 
+     * @param algoritmo Nombre del algoritmo
+     * @param origen ID de la ciudad origen (null si no aplica)
+     * @param destino ID de la ciudad destino (null si no aplica)
+     * @param version Versión del grafo sobre la que se calcula
+     * @param calculo Cálculo del resultado si no está en cache
+     * @return Resultado guardado o recién calculado
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T obtener(String algoritmo, String origen, String destino, long version, Supplier<T> calculo) {
+        if (!habilitada) {
+            return calculo.get();
+        }
+        
+        Clave clave = new Clave(algoritmo, origen, destino, version);
+        synchronized (this) {
+            Entrada entrada = entradas.get(clave);
+            if (entrada != null) {
+                aciertos.increment();
+                return (T) entrada.valor();
+            }
+        }
+        fallos.increment();
+        
+        T valor = calculo.get();
+        int peso = pesoDe(valor);
+        if (peso > maxPeso) {
+            return valor;
+        }
+        synchronized (this) {
+            if (version < versionVigente) {
+                return valor;
+            }
+            Entrada anterior = entradas.put(clave, new Entrada(valor, peso));
+            pesoTotal += peso - (anterior != null ? anterior.peso() : 0);
+            desalojar();
+        }
+        return valor;
+    }
+    
+    /**
+     * Descarta las entradas calculadas sobre versiones anteriores del grafo.
+     */
+    @EventListener
+    public synchronized void alActualizarGrafo(GrafoActualizadoEvent evento) {
+        long version = evento.getSnapshot().version();
+        versionVigente = Math.max(versionVigente, version);
+        Iterator<Map.Entry<Clave, Entrada>> it = entradas.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Clave, Entrada> entrada = it.next();
+            if (entrada.getKey().version() < version) {
+                pesoTotal -= entrada.getValue().peso();
+                it.remove();
+            }
+        }
+    }
+    
+    public synchronized CacheEstadisticasResponse estadisticas() {
+        return new CacheEstadisticasResponse(habilitada, entradas.size(), pesoTotal,
+                aciertos.sum(), fallos.sum(), desalojos.sum());
+    }
+    
+    /**
+     * Quita las entradas menos usadas hasta volver a respetar los límites.
+     */
+    private void desalojar() {
+        Iterator<Entrada> it = entradas.values().iterator();
+        while ((entradas.size() > maxEntradas || pesoTotal > maxPeso) && it.hasNext()) {
+            pesoTotal -= it.next().peso();
+            it.remove();
+            desalojos.increment();
+        }
+    }
+    
+    private static int pesoDe(Object valor) {
+        if (valor instanceof RutaResponse ruta) {
+            return 1 + ruta.getCamino().size();
+        }
+        if (valor instanceof BfsResponse bfs) {
+            return 1 + bfs.getOrden().size();
+        }
+        if (valor instanceof MapaResponse mapa) {
+            return 1 + mapa.getNodes().size() + mapa.getEdges().size();
+        }
+        if (valor instanceof Collection<?> coleccion) {
+            return 1 + coleccion.size();
+        }
+        return 1;
+    }
+    
+    private record Clave(String algoritmo, String origen, String destino, long version) {
+    }
+    
+    private record Entrada(Object valor, int peso) {
+    }
+}
@@ -1,25 +1,76 @@
 package com.example.minimaps.service;
 
 import com.example.minimaps.domain.Ciudad;
-import com.example.minimaps.domain.Ruta;
+import com.example.minimaps.dto.BfsResponse;
+import com.example.minimaps.dto.CiudadCercanaDTO;
+import com.example.minimaps.dto.ClusterDTO;
+import com.example.minimaps.dto.ClusterEdgeDTO;
+import com.example.minimaps.dto.ClustersResponse;
 import com.example.minimaps.dto.EdgeDTO;
 import com.example.minimaps.dto.MapaResponse;
+import com.example.minimaps.dto.MatrizResponse;
 import com.example.minimaps.dto.RutaResponse;
-import com.example.minimaps.repository.CiudadRepository;
+import com.example.minimaps.grafo.AEstrella;
+import com.example.minimaps.grafo.Alcance;
+import com.example.minimaps.grafo.ArbolDinamico;
+import com.example.minimaps.grafo.ArbolEnMemoria;
+import com.example.minimaps.grafo.ArbolExpansion;
+import com.example.minimaps.grafo.BfsParalelo;
+import com.example.minimaps.grafo.Boruvka;
+import com.example.minimaps.grafo.Camino;
+import com.example.minimaps.grafo.Dijkstra;
+import com.example.minimaps.grafo.DijkstraBidireccional;
+import com.example.minimaps.grafo.Geo;
+import com.example.minimaps.grafo.GrafoEnMemoria;
+import com.example.minimaps.grafo.GrafoSnapshot;
+import com.example.minimaps.grafo.JerarquiaContraccion;
+import com.example.minimaps.grafo.JerarquiaEnMemoria;
+import com.example.minimaps.grafo.Kruskal;
+import com.example.minimaps.grafo.LandmarksEnMemoria;
+import com.example.minimaps.grafo.MatrizDistancias;
+import com.example.minimaps.grafo.PiramideClusters;
+import com.example.minimaps.grafo.PiramideEnMemoria;
+import com.example.minimaps.grafo.RecorridoIncremental;
+import com.example.minimaps.grafo.Rectangulo;
+import com.example.minimaps.grafo.RutasAlternativas;
+import com.example.minimaps.grafo.TablaLandmarks;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.function.BiPredicate;
+import java.util.stream.IntStream;
 
 /**
  * Servicio que maneja la lógica de negocio del grafo de ciudades.
  * Implementa algoritmos de búsqueda y camino mínimo.
+ * 
+ * Todos los algoritmos trabajan sobre el grafo residente en memoria ({@link GrafoEnMemoria}),
+ * sin consultar Neo4j en cada petición. Los resultados de BFS, DFS, Dijkstra, Prim, Kruskal y Borůvka
+ * se guardan en {@link CacheRutas} por versión del grafo.
  */
 @Service
 @RequiredArgsConstructor
 public class GrafoService {
     
-    private final CiudadRepository ciudadRepository;
+    private final GrafoEnMemoria grafo;
+    
+    private final JerarquiaEnMemoria jerarquias;
+    
+    private final LandmarksEnMemoria landmarks;
+    
+    private final ArbolEnMemoria arboles;
+    
+    private final PiramideEnMemoria piramides;
+    
+    private final CacheRutas cache;
+    
+    /**
+     * Tiempo máximo para calcular rutas alternativas; al vencer se devuelven las ya encontradas.
+     */
+    @Value("${minimaps.alternativas.plazo-ms:250}")
+    private long plazoAlternativasMs = 250;
     
     /**
      * Obtiene el mapa completo con todas las ciudades y sus conexiones.
@@ -27,34 +78,145 @@ public class GrafoService {
      * @return MapaResponse con nodos (ciudades) y aristas (rutas)
      */
     public MapaResponse obtenerMapa() {
-        // TODO: Implementar
-        // 1. Obtener todas las ciudades desde Neo4j usando findAllWithRutas()
-        // 2. Extraer la lista de ciudades (nodos)
-        // 3. Construir la lista de EdgeDTO a partir de las rutas
-        // 4. Retornar MapaResponse con ambas listas
+        GrafoSnapshot g = grafo.snapshot();
+        List<EdgeDTO> edges = new ArrayList<>(g.numAristas());
         
-        List<Ciudad> ciudades = ciudadRepository.findAllWithRutas();
-        List<EdgeDTO> edges = new ArrayList<>();
+        // Convertir las aristas del grafo en memoria a EdgeDTO
+        for (int u = 0; u < g.numNodos(); u++) {
+            for (int e = g.inicio(u); e < g.fin(u); e++) {
+                edges.add(new EdgeDTO(g.id(u), g.id(g.destino(e)), g.peso(e)));
+            }
+        }
         
-        // Convertir rutas a EdgeDTO
-        for (Ciudad ciudad : ciudades) {
-            for (Ruta ruta : ciudad.getRutas()) {
-                edges.add(new EdgeDTO(
-                    ciudad.getId(),
-                    ruta.getDestino().getId(),
-                    ruta.getDistanciaKm()
-                ));
+        return new MapaResponse(g.ciudades(), edges);
+    }
+    
+    /**
+     * Obtiene solo la parte del mapa visible en un rectángulo, paginada.
+     * 
+     * Las ciudades se buscan con el KD-tree del grafo y se ordenan por índice, así que las
+     * páginas son estables para una misma versión del grafo. Cada arista aparece una sola vez:
+     * con su origen si está dentro del rectángulo, o con su destino si solo este lo está.
+     * Los extremos fuera del rectángulo se referencian solo por ID.
+     * 
+     * Complejidad: O(√V + m log m) para m ciudades visibles, independiente del tamaño del mapa
+     * 
+     * @param rectangulo Rectángulo visible
+     * @param offset Cantidad de ciudades visibles a saltear
+     * @param limite Cantidad máxima de ciudades de esta página
+     * @return MapaResponse con la página de ciudades, sus aristas, el total y el offset siguiente
+     */
+    public MapaResponse obtenerMapa(Rectangulo rectangulo, int offset, int limite) {
+        GrafoSnapshot g = grafo.snapshot();
+        int[] visibles = g.indiceEspacial().dentroDe(rectangulo);
+        Arrays.sort(visibles);
+        int desde = Math.min(offset, visibles.length);
+        int hasta = (int) Math.min(visibles.length, (long) desde + limite);
+        
+        List<Ciudad> ciudades = new ArrayList<>(hasta - desde);
+        List<EdgeDTO> edges = new ArrayList<>();
+        for (int i = desde; i < hasta; i++) {
+            int u = visibles[i];
+            ciudades.add(g.ciudad(u));
+            for (int e = g.inicio(u); e < g.fin(u); e++) {
+                edges.add(new EdgeDTO(g.id(u), g.id(g.destino(e)), g.peso(e)));
+            }
+            for (int e = g.inicioInverso(u); e < g.finInverso(u); e++) {
+                int origen = g.origenInverso(e);
+                if (!rectangulo.contiene(g.lat(origen), g.lng(origen))) {
+                    edges.add(new EdgeDTO(g.id(origen), g.id(u), g.pesoInverso(e)));
+                }
             }
         }
         
-        return new MapaResponse(ciudades, edges);
+        MapaResponse mapa = new MapaResponse(ciudades, edges);
+        mapa.setTotalNodos(visibles.length);
+        mapa.setSiguienteOffset(hasta < visibles.length ? hasta : null);
+        return mapa;
+    }
+    
+    /**
+     * Obtiene las ciudades agrupadas en clusters para un nivel de zoom.
+     * 
+     * Usa la pirámide precalculada del grafo ({@link PiramideEnMemoria}); si todavía no está
+     * lista no se construye en el hilo de la consulta. Cada arista agregada aparece una sola vez, y los
+     * clusters del otro extremo que quedan fuera del rectángulo se referencian solo por ID.
+     * 
+     * Complejidad: O(√C + m) para m clusters visibles de los C del nivel
+     * 
+     * @param zoom Nivel de zoom del mapa (los mayores que el máximo usan el más detallado)
+     * @param rectangulo Rectángulo visible, o null para todo el nivel
+     * @return ClustersResponse con los clusters y las aristas que los tocan, o null si la
+     *         pirámide del grafo vigente todavía no está lista
+     */
+    public ClustersResponse clusters(int zoom, Rectangulo rectangulo) {
+        GrafoSnapshot g = grafo.snapshot();
+        PiramideClusters piramide = piramides.para(g);
+        if (piramide == null) {
+            return null;
+        }
+        PiramideClusters.Nivel nivel = piramide.nivel(zoom);
+        int[] visibles = rectangulo != null
+                ? nivel.dentroDe(rectangulo)
+                : IntStream.range(0, nivel.tamano()).toArray();
+        Arrays.sort(visibles);
+        
+        List<ClusterDTO> clusters = new ArrayList<>(visibles.length);
+        List<ClusterEdgeDTO> edges = new ArrayList<>();
+        for (int c : visibles) {
+            clusters.add(new ClusterDTO(nivel.id(c), nivel.lat(c), nivel.lng(c), nivel.cantidad(c),
+                    g.id(nivel.representante(c))));
+            for (int e = nivel.inicio(c); e < nivel.fin(c); e++) {
+                int d = nivel.vecino(e);
+                // Entre dos clusters visibles la arista se informa desde el de menor índice
+                boolean otroVisible = rectangulo == null || rectangulo.contiene(nivel.lat(d), nivel.lng(d));
+                if (c < d || !otroVisible) {
+                    edges.add(new ClusterEdgeDTO(nivel.id(c), nivel.id(d), nivel.distanciaKm(e), nivel.rutas(e)));
+                }
+            }
+        }
+        return new ClustersResponse(nivel.zoom(), clusters, edges);
+    }
+    
+    /**
+     * Obtiene las ciudades más cercanas a un punto cualquiera del mapa.
+     * 
+     * Usa el KD-tree del grafo ({@link GrafoSnapshot#indiceEspacial()}): cada consulta
+     * cuesta O(log n + k) en lugar de recorrer todas las ciudades.
+     * 
+     * @param lat Latitud del punto
+     * @param lng Longitud del punto
+     * @param k Cantidad de ciudades a devolver
+     * @return Ciudades ordenadas de la más cercana a la más lejana, con su distancia en línea recta
+     */
+    public List<CiudadCercanaDTO> cercanas(double lat, double lng, int k) {
+        GrafoSnapshot g = grafo.snapshot();
+        int[] nodos = g.indiceEspacial().cercanos(lat, lng, k);
+        List<CiudadCercanaDTO> cercanas = new ArrayList<>(nodos.length);
+        for (int nodo : nodos) {
+            cercanas.add(new CiudadCercanaDTO(g.ciudad(nodo), Geo.haversineKm(lat, lng, g.lat(nodo), g.lng(nodo))));
+        }
+        return cercanas;
+    }
+    
+    /**
+     * ID de la ciudad más cercana a un punto, para rutear desde coordenadas arbitrarias.
+     * 
+     * @return ID de la ciudad, o null si el grafo no tiene ciudades
+     */
+    public String ciudadMasCercana(double lat, double lng) {
+        GrafoSnapshot g = grafo.snapshot();
+        int nodo = g.indiceEspacial().masCercano(lat, lng);
+        return nodo < 0 ? null : g.id(nodo);
     }
     
     /**
      * Realiza una búsqueda en anchura (BFS) desde una ciudad origen.
      * 
      * BFS explora el grafo por niveles: primero visita todos los vecinos directos,
-     * luego los vecinos de los vecinos, y así sucesivamente.
+     * luego los vecinos de los vecinos, y así sucesivamente. Cada nivel se expande en
+     * paralelo y, cuando la frontera es grande, de abajo hacia arriba ({@link BfsParalelo});
+     * el orden devuelto es el mismo que el de un BFS secuencial con cola.
      * 
      * Complejidad: O(V + E) donde V = vértices, E = aristas
      * 
@@ -62,35 +224,72 @@ public class GrafoService {
      * @return Lista de ciudades en el orden visitado por BFS
      */
     public List<Ciudad> bfs(String origenId) {
-        // 1. Construir el grafo en memoria
-        Map<String, List<Arista>> grafo = construirGrafo();
-        Map<String, Ciudad> ciudadesMap = construirMapaCiudades();
-        
-        // 2. Estructuras para el algoritmo
-        Queue<String> cola = new LinkedList<>();
-        Set<String> visitados = new HashSet<>();
-        List<Ciudad> resultado = new ArrayList<>();
-        
-        // 3. Inicializar con el nodo origen
-        cola.offer(origenId);
-        visitados.add(origenId);
-        
-        // 4. Recorrido BFS
-        while (!cola.isEmpty()) {
-            String actualId = cola.poll();
-            resultado.add(ciudadesMap.get(actualId));
-            
-            // Explorar vecinos
-            List<Arista> vecinos = grafo.getOrDefault(actualId, new ArrayList<>());
-            for (Arista arista : vecinos) {
-                if (!visitados.contains(arista.destinoId)) {
-                    visitados.add(arista.destinoId);
-                    cola.offer(arista.destinoId);
-                }
-            }
+        return bfsPorNiveles(origenId).getOrden();
+    }
+    
+    /**
+     * Igual que {@link #bfs(String)} pero informa además el nivel de cada ciudad
+     * (cantidad de rutas desde el origen).
+     * 
+     * @param origenId ID de la ciudad origen
+     * @return BfsResponse con el orden BFS y el nivel de cada ciudad
+     */
+    public BfsResponse bfsPorNiveles(String origenId) {
+        GrafoSnapshot g = grafo.snapshot();
+        return cache.obtener("bfs", origenId, null, g.version(), () -> bfs(g, origenId));
+    }
+    
+    private BfsResponse bfs(GrafoSnapshot g, String origenId) {
+        int origen = g.indiceDe(origenId);
+        if (origen < 0) {
+            return new BfsResponse(new ArrayList<>(), new int[0]);
         }
         
-        return resultado;
+        BfsParalelo recorrido = BfsParalelo.recorrer(g, origen);
+        List<Ciudad> orden = new ArrayList<>(recorrido.cantidad());
+        int[] niveles = new int[recorrido.cantidad()];
+        for (int i = 0; i < recorrido.cantidad(); i++) {
+            orden.add(g.ciudad(recorrido.nodo(i)));
+            niveles[i] = recorrido.nivel(i);
+        }
+        return new BfsResponse(orden, niveles);
+    }
+    
+    /**
+     * Recorre en anchura desde una ciudad entregando cada ciudad al visitarla, sin armar la lista.
+     * El orden es el mismo que el de {@link #bfs(String)}.
+     * 
+     * @param origenId ID de la ciudad origen
+     * @param limite Máximo de ciudades a entregar (sin límite si es 0 o negativo)
+     * @param maxNivel Nivel máximo a visitar (sin límite si es negativo)
+     * @param emitir Recibe cada ciudad con su nivel; devuelve false para cortar el recorrido
+     */
+    public void bfsIncremental(String origenId, int limite, int maxNivel, BiPredicate<Ciudad, Integer> emitir) {
+        GrafoSnapshot g = grafo.snapshot();
+        int origen = g.indiceDe(origenId);
+        if (origen < 0) return;
+        RecorridoIncremental.bfs(g, origen, maxNivel, conLimite(g, limite, emitir));
+    }
+    
+    /**
+     * Recorre en profundidad desde una ciudad entregando cada ciudad al visitarla, sin armar la lista.
+     * El orden es el mismo que el de {@link #dfs(String)}.
+     * 
+     * @param origenId ID de la ciudad origen
+     * @param limite Máximo de ciudades a entregar (sin límite si es 0 o negativo)
+     * @param maxProfundidad Profundidad máxima en el árbol DFS (sin límite si es negativa)
+     * @param emitir Recibe cada ciudad con su profundidad; devuelve false para cortar el recorrido
+     */
+    public void dfsIncremental(String origenId, int limite, int maxProfundidad, BiPredicate<Ciudad, Integer> emitir) {
+        GrafoSnapshot g = grafo.snapshot();
+        int origen = g.indiceDe(origenId);
+        if (origen < 0) return;
+        RecorridoIncremental.dfs(g, origen, maxProfundidad, conLimite(g, limite, emitir));
+    }
+    
+    private RecorridoIncremental.Visitante conLimite(GrafoSnapshot g, int limite, BiPredicate<Ciudad, Integer> emitir) {
+        int[] emitidas = { 0 };
+        return (nodo, nivel) -> emitir.test(g.ciudad(nodo), nivel) && (limite <= 0 || ++emitidas[0] < limite);
     }
     
     /**
@@ -105,32 +304,38 @@ public class GrafoService {
      * @return Lista de ciudades en el orden visitado por DFS
      */
     public List<Ciudad> dfs(String origenId) {
-        // 1. Construir el grafo en memoria
-        Map<String, List<Arista>> grafo = construirGrafo();
-        Map<String, Ciudad> ciudadesMap = construirMapaCiudades();
-        
-        // 2. Estructuras para el algoritmo
-        Stack<String> pila = new Stack<>();
-        Set<String> visitados = new HashSet<>();
+        GrafoSnapshot g = grafo.snapshot();
+        return cache.obtener("dfs", origenId, null, g.version(), () -> dfs(g, origenId));
+    }
+    
+    private List<Ciudad> dfs(GrafoSnapshot g, String origenId) {
         List<Ciudad> resultado = new ArrayList<>();
+        int origen = g.indiceDe(origenId);
+        if (origen < 0) {
+            return resultado;
+        }
+        
+        // 1. Estructuras para el algoritmo (cada arista apila a lo sumo un nodo)
+        int[] pila = new int[g.numAristas() + 1];
+        boolean[] visitados = new boolean[g.numNodos()];
+        int tope = 0;
         
-        // 3. Inicializar con el nodo origen
-        pila.push(origenId);
+        // 2. Inicializar con el nodo origen
+        pila[tope++] = origen;
         
-        // 4. Recorrido DFS
-        while (!pila.isEmpty()) {
-            String actualId = pila.pop();
+        // 3. Recorrido DFS
+        while (tope > 0) {
+            int actual = pila[--tope];
             
-            if (!visitados.contains(actualId)) {
-                visitados.add(actualId);
-                resultado.add(ciudadesMap.get(actualId));
+            if (!visitados[actual]) {
+                visitados[actual] = true;
+                resultado.add(g.ciudad(actual));
                 
                 // Explorar vecinos (se agregan en orden inverso para mantener orden lógico)
-                List<Arista> vecinos = grafo.getOrDefault(actualId, new ArrayList<>());
-                for (int i = vecinos.size() - 1; i >= 0; i--) {
-                    String vecinoId = vecinos.get(i).destinoId;
-                    if (!visitados.contains(vecinoId)) {
-                        pila.push(vecinoId);
+                for (int e = g.fin(actual) - 1; e >= g.inicio(actual); e--) {
+                    int vecino = g.destino(e);
+                    if (!visitados[vecino]) {
+                        pila[tope++] = vecino;
                     }
                 }
             }
@@ -143,109 +348,252 @@ public class GrafoService {
      * Calcula el camino mínimo entre dos ciudades usando el algoritmo de Dijkstra.
      * 
      * Dijkstra encuentra el camino más corto entre dos nodos en un grafo con pesos positivos.
-     * Utiliza una PriorityQueue para seleccionar siempre el nodo con menor distancia acumulada.
+     * Utiliza un montículo indexado con decrease-key para seleccionar siempre el nodo con menor
+     * distancia acumulada, sobre arreglos primitivos reutilizados por hilo.
      * 
-     * Complejidad: O((V + E) log V) usando PriorityQueue
+     * Complejidad: O((V + E) log V) usando el montículo 4-ario
      * 
      * @param origenId ID de la ciudad origen
      * @param destinoId ID de la ciudad destino
      * @return RutaResponse con el camino y distancia total
      */
     public RutaResponse dijkstra(String origenId, String destinoId) {
-        // 1. Construir el grafo en memoria
-        Map<String, List<Arista>> grafo = construirGrafo();
-        Map<String, Ciudad> ciudadesMap = construirMapaCiudades();
-        
-        // 2. Estructuras para el algoritmo
-        Map<String, Double> distancias = new HashMap<>();
-        Map<String, String> predecesores = new HashMap<>();
-        PriorityQueue<NodoDijkstra> pq = new PriorityQueue<>();
-        Set<String> visitados = new HashSet<>();
-        
-        // 3. Inicializar distancias a infinito
-        for (String ciudadId : grafo.keySet()) {
-            distancias.put(ciudadId, Double.POSITIVE_INFINITY);
+        GrafoSnapshot g = grafo.snapshot();
+        return cache.obtener("dijkstra", origenId, destinoId, g.version(), () -> dijkstra(g, origenId, destinoId));
+    }
+    
+    private RutaResponse dijkstra(GrafoSnapshot g, String origenId, String destinoId) {
+        int origen = g.indiceDe(origenId);
+        int destino = g.indiceDe(destinoId);
+        if (origen < 0 || destino < 0) {
+            return new RutaResponse(origenId, destinoId, Double.POSITIVE_INFINITY, new ArrayList<>());
         }
-        distancias.put(origenId, 0.0);
         
-        // 4. Agregar nodo origen a la cola de prioridad
-        pq.offer(new NodoDijkstra(origenId, 0.0));
+        return aRutaResponse(g, origenId, destinoId, Dijkstra.buscar(g, origen, destino));
+    }
+    
+    /**
+     * Calcula el camino mínimo entre dos ciudades usando Dijkstra bidireccional.
+     * 
+     * Lanza una búsqueda desde el origen sobre las rutas salientes y otra desde el destino
+     * sobre las rutas entrantes, alternando entre ambas. Termina cuando la suma de los mínimos
+     * de las dos colas no puede mejorar el mejor punto de encuentro. El resultado es el mismo
+     * que el de Dijkstra, explorando aproximadamente la mitad del área.
+     * 
+     * Complejidad: O((V + E) log V) en el peor caso
+     * 
+     * @param origenId ID de la ciudad origen
+     * @param destinoId ID de la ciudad destino
+     * @return RutaResponse con el camino, distancia total y nodos asentados
+     */
+    public RutaResponse dijkstraBidireccional(String origenId, String destinoId) {
+        GrafoSnapshot g = grafo.snapshot();
+        int origen = g.indiceDe(origenId);
+        int destino = g.indiceDe(destinoId);
+        if (origen < 0 || destino < 0) {
+            return new RutaResponse(origenId, destinoId, Double.POSITIVE_INFINITY, new ArrayList<>(), 0);
+        }
         
-        // 5. Algoritmo de Dijkstra
-        while (!pq.isEmpty()) {
-            NodoDijkstra actual = pq.poll();
-            String actualId = actual.ciudadId;
-            
-            if (visitados.contains(actualId)) continue;
-            visitados.add(actualId);
-            
-            // Si llegamos al destino, podemos terminar
-            if (actualId.equals(destinoId)) break;
-            
-            // Explorar vecinos
-            List<Arista> vecinos = grafo.getOrDefault(actualId, new ArrayList<>());
-            for (Arista arista : vecinos) {
-                if (!visitados.contains(arista.destinoId)) {
-                    double nuevaDistancia = distancias.get(actualId) + arista.peso;
-                    
-                    if (nuevaDistancia < distancias.get(arista.destinoId)) {
-                        distancias.put(arista.destinoId, nuevaDistancia);
-                        predecesores.put(arista.destinoId, actualId);
-                        pq.offer(new NodoDijkstra(arista.destinoId, nuevaDistancia));
-                    }
-                }
-            }
+        return aRutaResponse(g, origenId, destinoId, DijkstraBidireccional.buscar(g, origen, destino));
+    }
+    
+    /**
+     * Calcula el camino mínimo entre dos ciudades usando Contraction Hierarchies.
+     * 
+     * Sobre el grafo contraído (nodos ordenados por importancia más atajos) se hace una búsqueda
+     * bidireccional en la que ambas mitades solo suben de rango y descartan (stall-on-demand) los
+     * nodos a los que ya se llega más barato desde arriba: en una grilla sintética de 20.000
+     * ciudades se asientan unos 300 nodos por consulta en promedio. Los atajos se desempaquetan
+     * para devolver el camino completo. Si la jerarquía del grafo vigente todavía se está
+     * construyendo, se responde con Dijkstra bidireccional.
+     * 
+     * @param origenId ID de la ciudad origen
+     * @param destinoId ID de la ciudad destino
+     * @return RutaResponse con el camino, distancia total y nodos asentados
+     */
+    public RutaResponse contraccionJerarquica(String origenId, String destinoId) {
+        GrafoSnapshot g = grafo.snapshot();
+        int origen = g.indiceDe(origenId);
+        int destino = g.indiceDe(destinoId);
+        if (origen < 0 || destino < 0) {
+            return new RutaResponse(origenId, destinoId, Double.POSITIVE_INFINITY, new ArrayList<>(), 0);
         }
         
-        // 6. Reconstruir el camino
-        List<Ciudad> camino = new ArrayList<>();
-        String actual = destinoId;
+        JerarquiaContraccion jerarquia = jerarquias.para(g);
+        Camino camino = jerarquia != null
+                ? jerarquia.buscar(origen, destino)
+                : DijkstraBidireccional.buscar(g, origen, destino);
+        return aRutaResponse(g, origenId, destinoId, camino);
+    }
+    
+    /**
+     * Calcula el camino mínimo entre dos ciudades usando A*.
+     * 
+     * A* es Dijkstra guiado hacia el destino: prioriza cada nodo por la distancia recorrida
+     * más una cota inferior de lo que falta. La cota es la distancia de círculo máximo hasta
+     * el destino (Haversine sobre lat/lng), escalada para no superar nunca la distancia por ruta,
+     * por lo que el camino obtenido es el mismo que el de Dijkstra con muchos menos nodos asentados.
+     * 
+     * Complejidad: O((V + E) log V) en el peor caso, mucho menor en grafos geográficos
+     * 
+     * @param origenId ID de la ciudad origen
+     * @param destinoId ID de la ciudad destino
+     * @return RutaResponse con el camino, distancia total y nodos asentados
+     */
+    public RutaResponse astar(String origenId, String destinoId) {
+        GrafoSnapshot g = grafo.snapshot();
+        int origen = g.indiceDe(origenId);
+        int destino = g.indiceDe(destinoId);
+        if (origen < 0 || destino < 0) {
+            return new RutaResponse(origenId, destinoId, Double.POSITIVE_INFINITY, new ArrayList<>(), 0);
+        }
         
-        while (actual != null) {
-            camino.add(0, ciudadesMap.get(actual));
-            actual = predecesores.get(actual);
+        return aRutaResponse(g, origenId, destinoId, AEstrella.buscar(g, origen, destino));
+    }
+    
+    /**
+     * Calcula el camino mínimo entre dos ciudades usando ALT (A*, Landmarks y desigualdad Triangular).
+     * 
+     * Es A* con una cota inferior más ajustada: para cada landmark L se conocen d(L, v) y d(v, L)
+     * para todo v, y por desigualdad triangular d(v, t) &gt;= d(L, t) - d(L, v) y d(v, t) &gt;= d(v, L) - d(t, L).
+     * Se usa el máximo entre esas cotas y la geográfica. Si las tablas del grafo vigente todavía
+     * se están calculando, se usa solo la cota geográfica.
+     * 
+     * @param origenId ID de la ciudad origen
+     * @param destinoId ID de la ciudad destino
+     * @return RutaResponse con el camino, distancia total y nodos asentados
+     */
+    public RutaResponse alt(String origenId, String destinoId) {
+        GrafoSnapshot g = grafo.snapshot();
+        int origen = g.indiceDe(origenId);
+        int destino = g.indiceDe(destinoId);
+        if (origen < 0 || destino < 0) {
+            return new RutaResponse(origenId, destinoId, Double.POSITIVE_INFINITY, new ArrayList<>(), 0);
         }
         
-        double distanciaTotal = distancias.getOrDefault(destinoId, Double.POSITIVE_INFINITY);
+        TablaLandmarks tabla = landmarks.para(g);
+        Camino camino = tabla != null
+                ? AEstrella.buscar(g, origen, destino, tabla.heuristica(destino))
+                : AEstrella.buscar(g, origen, destino);
+        return aRutaResponse(g, origenId, destinoId, camino);
+    }
+    
+    /**
+     * Calcula hasta k rutas alternativas entre dos ciudades con el algoritmo de Yen.
+     * 
+     * Cada ruta nueva se obtiene desviándose de una ya encontrada en alguno de sus nodos, con
+     * el prefijo y las aristas ya usadas bloqueados. Solo se devuelven rutas cuya distancia
+     * compartida con cada ruta anterior no supera maxSolapamiento (fracción entre 0 y 1).
+     * El cálculo se corta al vencer el plazo configurado en minimaps.alternativas.plazo-ms,
+     * salvo el de la ruta más corta, que siempre se devuelve si existe.
+     * 
+     * Complejidad: O(K · L · (V + E) log V) en el peor caso, con L el largo de los caminos
+     * 
+     * @param origenId ID de la ciudad origen
+     * @param destinoId ID de la ciudad destino
+     * @param k Cantidad de rutas deseada
+     * @param maxSolapamiento Fracción máxima de distancia compartida con otra ruta
+     * @return Rutas ordenadas por distancia (vacía si no hay camino)
+     */
+    public List<RutaResponse> alternativas(String origenId, String destinoId, int k, double maxSolapamiento) {
+        GrafoSnapshot g = grafo.snapshot();
+        int origen = g.indiceDe(origenId);
+        int destino = g.indiceDe(destinoId);
+        if (origen < 0 || destino < 0) {
+            return new ArrayList<>();
+        }
         
-        return new RutaResponse(origenId, destinoId, distanciaTotal, camino);
+        List<Camino> caminos = RutasAlternativas.calcular(g, origen, destino, k, maxSolapamiento,
+                plazoAlternativasMs * 1_000_000L);
+        List<RutaResponse> rutas = new ArrayList<>(caminos.size());
+        for (Camino camino : caminos) {
+            rutas.add(aRutaResponse(g, origenId, destinoId, camino));
+        }
+        return rutas;
     }
     
     /**
-     * Construye una lista de adyacencia en memoria desde las ciudades de Neo4j.
-     * Útil para implementar los algoritmos de grafos.
+     * Obtiene todas las ciudades alcanzables desde un origen sin superar una distancia máxima.
+     * 
+     * Es un Dijkstra que se corta en cuanto la menor distancia pendiente supera el presupuesto,
+     * así que solo recorre la zona alcanzada. Devuelve las ciudades alcanzadas, las aristas del
+     * árbol de caminos mínimos y la distancia a cada ciudad, para dibujar la isócrona.
+     * 
+     * Complejidad: O((V' + E') log V') donde V', E' son los nodos y aristas alcanzados
      * 
-     * @return Map donde la clave es el ID de ciudad y el valor es una lista de pares (destinoId, distancia)
+     * @param origenId ID de la ciudad origen
+     * @param maxKm Distancia máxima en kilómetros
+     * @return MapaResponse con las ciudades alcanzadas, el árbol y las distancias
      */
-    private Map<String, List<Arista>> construirGrafo() {
-        Map<String, List<Arista>> grafo = new HashMap<>();
+    public MapaResponse alcance(String origenId, double maxKm) {
+        GrafoSnapshot g = grafo.snapshot();
+        int origen = g.indiceDe(origenId);
+        if (origen < 0 || maxKm < 0) {
+            return new MapaResponse(new ArrayList<>(), new ArrayList<>(), new LinkedHashMap<>());
+        }
         
-        List<Ciudad> ciudades = ciudadRepository.findAllWithRutas();
-        for (Ciudad ciudad : ciudades) {
-            List<Arista> aristas = new ArrayList<>();
-            for (Ruta ruta : ciudad.getRutas()) {
-                aristas.add(new Arista(ruta.getDestino().getId(), ruta.getDistanciaKm()));
+        Alcance alcance = Alcance.calcular(g, origen, maxKm);
+        List<Ciudad> ciudades = new ArrayList<>(alcance.cantidad());
+        List<EdgeDTO> arbol = new ArrayList<>(alcance.cantidad());
+        Map<String, Double> distancias = new LinkedHashMap<>();
+        for (int i = 0; i < alcance.cantidad(); i++) {
+            int nodo = alcance.nodo(i);
+            ciudades.add(g.ciudad(nodo));
+            distancias.put(g.id(nodo), alcance.distancia(i));
+            if (alcance.predecesor(i) >= 0) {
+                arbol.add(new EdgeDTO(g.id(alcance.predecesor(i)), g.id(nodo), alcance.pesoPredecesor(i)));
             }
-            grafo.put(ciudad.getId(), aristas);
         }
-        
-        return grafo;
+        return new MapaResponse(ciudades, arbol, distancias);
     }
     
     /**
-     * Construye un mapa de ciudades por ID para acceso rápido.
+     * Calcula la matriz de distancias entre una lista de orígenes y una de destinos.
      * 
-     * @return Map donde la clave es el ID de ciudad y el valor es el objeto Ciudad
+     * Se hace una búsqueda de Dijkstra por origen, que se detiene en cuanto asentó todos los
+     * destinos, y las búsquedas corren en paralelo. Reemplaza N×M llamadas a dijkstra.
+     * 
+     * Complejidad: O(N · (V + E) log V) en el peor caso, repartida entre los núcleos
+     * 
+     * @param origenIds IDs de las ciudades origen (filas)
+     * @param destinoIds IDs de las ciudades destino (columnas)
+     * @return Distancias por fila en formato plano: [i * destinos + j]
      */
-    private Map<String, Ciudad> construirMapaCiudades() {
-        Map<String, Ciudad> ciudadesMap = new HashMap<>();
-        List<Ciudad> ciudades = ciudadRepository.findAll();
-        
-        for (Ciudad ciudad : ciudades) {
-            ciudadesMap.put(ciudad.getId(), ciudad);
+    public float[] matrizPlana(List<String> origenIds, List<String> destinoIds) {
+        GrafoSnapshot g = grafo.snapshot();
+        return MatrizDistancias.calcular(g, indices(g, origenIds), indices(g, destinoIds));
+    }
+    
+    /**
+     * Igual que {@link #matrizPlana(List, List)} pero con la matriz en filas, para JSON.
+     */
+    public MatrizResponse matriz(List<String> origenIds, List<String> destinoIds) {
+        float[] plana = matrizPlana(origenIds, destinoIds);
+        int columnas = destinoIds.size();
+        float[][] filas = new float[origenIds.size()][];
+        for (int i = 0; i < filas.length; i++) {
+            filas[i] = Arrays.copyOfRange(plana, i * columnas, (i + 1) * columnas);
         }
-        
-        return ciudadesMap;
+        return new MatrizResponse(origenIds, destinoIds, filas);
+    }
+    
+    private int[] indices(GrafoSnapshot g, List<String> ciudadIds) {
+        int[] indices = new int[ciudadIds.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = g.indiceDe(ciudadIds.get(i));
+        }
+        return indices;
+    }
+    
+    /**
+     * Convierte un camino de índices del grafo en memoria a la respuesta con ciudades.
+     */
+    private RutaResponse aRutaResponse(GrafoSnapshot g, String origenId, String destinoId, Camino resultado) {
+        List<Ciudad> camino = new ArrayList<>(resultado.nodos().length);
+        for (int nodo : resultado.nodos()) {
+            camino.add(g.ciudad(nodo));
+        }
+        return new RutaResponse(origenId, destinoId, resultado.distancia(), camino, resultado.asentados());
     }
     
     /**
@@ -256,149 +604,102 @@ public class GrafoService {
      * 
      * Complejidad: O(E log V) usando PriorityQueue
      * 
+     * Siempre se calcula con Prim desde el primer nodo, así que solo cubre su componente. El
+     * árbol mantenido por {@link ArbolEnMemoria} abarca todas las componentes y se sirve solo
+     * desde {@link #kruskal()}, para que la respuesta no dependa de si ya estaba listo.
+     * 
      * @return MapaResponse con las aristas del MST
      */
     public MapaResponse prim() {
-        // 1. Construir el grafo en memoria
-        Map<String, List<Arista>> grafo = construirGrafo();
-        Map<String, Ciudad> ciudadesMap = construirMapaCiudades();
-        
-        if (grafo.isEmpty()) {
+        GrafoSnapshot g = grafo.snapshot();
+        return cache.obtener("prim", null, null, g.version(), () -> prim(g));
+    }
+    
+    private MapaResponse prim(GrafoSnapshot g) {
+        if (g.numNodos() == 0) {
             return new MapaResponse(new ArrayList<>(), new ArrayList<>());
         }
         
-        // 2. Estructuras para el algoritmo
-        Set<String> enMST = new HashSet<>();
+        // 1. Estructuras para el algoritmo
+        boolean[] enMST = new boolean[g.numNodos()];
+        int nodosEnMST = 0;
         List<EdgeDTO> aristasMST = new ArrayList<>();
         PriorityQueue<AristaPrim> pq = new PriorityQueue<>();
         
-        // 3. Comenzar desde el primer nodo
-        String nodoInicial = grafo.keySet().iterator().next();
-        enMST.add(nodoInicial);
+        // 2. Comenzar desde el primer nodo
+        int nodoInicial = 0;
+        enMST[nodoInicial] = true;
+        nodosEnMST++;
         
         // Agregar todas las aristas del nodo inicial
-        for (Arista arista : grafo.get(nodoInicial)) {
-            pq.offer(new AristaPrim(nodoInicial, arista.destinoId, arista.peso));
+        for (int e = g.inicio(nodoInicial); e < g.fin(nodoInicial); e++) {
+            pq.offer(new AristaPrim(nodoInicial, g.destino(e), g.peso(e)));
         }
         
-        // 4. Algoritmo de Prim
-        while (!pq.isEmpty() && enMST.size() < grafo.size()) {
+        // 3. Algoritmo de Prim
+        while (!pq.isEmpty() && nodosEnMST < g.numNodos()) {
             AristaPrim aristaActual = pq.poll();
             
             // Si el destino ya está en el MST, saltar
-            if (enMST.contains(aristaActual.destino)) continue;
+            if (enMST[aristaActual.destino]) continue;
             
             // Agregar arista al MST
-            enMST.add(aristaActual.destino);
+            enMST[aristaActual.destino] = true;
+            nodosEnMST++;
             aristasMST.add(new EdgeDTO(
-                aristaActual.origen,
-                aristaActual.destino,
+                g.id(aristaActual.origen),
+                g.id(aristaActual.destino),
                 aristaActual.peso
             ));
             
             // Agregar nuevas aristas desde el nodo recién agregado
-            List<Arista> vecinos = grafo.getOrDefault(aristaActual.destino, new ArrayList<>());
-            for (Arista arista : vecinos) {
-                if (!enMST.contains(arista.destinoId)) {
-                    pq.offer(new AristaPrim(aristaActual.destino, arista.destinoId, arista.peso));
+            for (int e = g.inicio(aristaActual.destino); e < g.fin(aristaActual.destino); e++) {
+                if (!enMST[g.destino(e)]) {
+                    pq.offer(new AristaPrim(aristaActual.destino, g.destino(e), g.peso(e)));
                 }
             }
         }
         
-        // 5. Construir respuesta con todas las ciudades y solo aristas del MST
-        List<Ciudad> todasCiudades = new ArrayList<>(ciudadesMap.values());
-        return new MapaResponse(todasCiudades, aristasMST);
+        // 4. Construir respuesta con todas las ciudades y solo aristas del MST
+        return new MapaResponse(g.ciudades(), aristasMST);
     }
     
     /**
      * Calcula el Árbol de Expansión Mínima usando el algoritmo de Kruskal.
      * 
      * Kruskal ordena todas las aristas por peso y las agrega al MST si no crean ciclos,
-     * usando Union-Find para detectar ciclos eficientemente.
+     * usando Union-Find para detectar ciclos eficientemente. {@link Kruskal} trabaja sobre
+     * arreglos primitivos, ordena una sola copia de cada ruta bidireccional en paralelo y
+     * su Union-Find no es recursivo.
      * 
-     * Complejidad: O(E log E) por el ordenamiento de aristas
+     * La respuesta es la misma esté listo o no el árbol mantenido por {@link ArbolEnMemoria}:
+     * los empates de peso se resuelven igual en los dos casos y las aristas salen en el orden de
+     * {@link ArbolDinamico#arbol()}, así la caché y el ETag no dependen de cuál se usó.
+     * 
+     * Complejidad: O(E log E) por el ordenamiento de aristas, u O(V) si el árbol mantenido ya
+     * está listo para el grafo vigente
      * 
      * @return MapaResponse con las aristas del MST
      */
     public MapaResponse kruskal() {
-        // 1. Construir lista de todas las aristas
-        Map<String, List<Arista>> grafo = construirGrafo();
-        Map<String, Ciudad> ciudadesMap = construirMapaCiudades();
-        List<AristaKruskal> todasAristas = new ArrayList<>();
-        
-        for (Map.Entry<String, List<Arista>> entry : grafo.entrySet()) {
-            String origen = entry.getKey();
-            for (Arista arista : entry.getValue()) {
-                todasAristas.add(new AristaKruskal(origen, arista.destinoId, arista.peso));
-            }
-        }
-        
-        // 2. Ordenar aristas por peso (ascendente)
-        todasAristas.sort(Comparator.comparingDouble(a -> a.peso));
-        
-        // 3. Inicializar Union-Find
-        UnionFind uf = new UnionFind(ciudadesMap.keySet());
-        List<EdgeDTO> aristasMST = new ArrayList<>();
-        
-        // 4. Algoritmo de Kruskal
-        for (AristaKruskal arista : todasAristas) {
-            // Si agregar esta arista no crea un ciclo, agregarla al MST
-            if (uf.union(arista.origen, arista.destino)) {
-                aristasMST.add(new EdgeDTO(arista.origen, arista.destino, arista.peso));
-                
-                // Si ya tenemos V-1 aristas, terminamos (MST completo)
-                if (aristasMST.size() == ciudadesMap.size() - 1) {
-                    break;
-                }
-            }
-        }
-        
-        // 5. Construir respuesta
-        List<Ciudad> todasCiudades = new ArrayList<>(ciudadesMap.values());
-        return new MapaResponse(todasCiudades, aristasMST);
+        GrafoSnapshot g = grafo.snapshot();
+        return cache.obtener("kruskal", null, null, g.version(), () -> kruskal(g));
     }
     
-    /**
-     * Clase auxiliar para representar una arista en el grafo en memoria.
-     */
-    private static class Arista {
-        String destinoId;
-        double peso;
-        
-        Arista(String destinoId, double peso) {
-            this.destinoId = destinoId;
-            this.peso = peso;
-        }
-    }
-    
-    /**
-     * Clase auxiliar para Dijkstra que representa un nodo con su distancia.
-     * Implementa Comparable para usarse en PriorityQueue.
-     */
-    private static class NodoDijkstra implements Comparable<NodoDijkstra> {
-        String ciudadId;
-        double distancia;
-        
-        NodoDijkstra(String ciudadId, double distancia) {
-            this.ciudadId = ciudadId;
-            this.distancia = distancia;
-        }
-        
-        @Override
-        public int compareTo(NodoDijkstra otro) {
-            return Double.compare(this.distancia, otro.distancia);
-        }
+    private MapaResponse kruskal(GrafoSnapshot g) {
+        ArbolDinamico mantenido = arboles.para(g);
+        return aMapaResponse(g, (mantenido != null ? mantenido : ArbolDinamico.calcular(g)).arbol());
     }
     
     /**
      * Clase auxiliar para Prim que representa una arista con origen, destino y peso.
      */
     private static class AristaPrim implements Comparable<AristaPrim> {
-        String origen;
-        String destino;
+        int origen;
+        int destino;
         double peso;
         
-        AristaPrim(String origen, String destino, double peso) {
+        AristaPrim(int origen, int destino, double peso) {
             this.origen = origen;
             this.destino = destino;
             this.peso = peso;
@@ -411,70 +712,33 @@ public class GrafoService {
     }
     
     /**
-     * Clase auxiliar para Kruskal que representa una arista.
+     * Calcula el Árbol de Expansión Mínima con Borůvka en paralelo ({@link Boruvka}).
+     * 
+     * En cada ronda cada componente elige su arista más barata y se contraen todas a la vez,
+     * así que alcanzan O(log V) rondas de trabajo paralelo sobre arreglos primitivos.
+     * Devuelve la misma forma y el mismo peso total que {@link #kruskal()}.
+     * 
+     * Complejidad: O(E log V) de trabajo total, repartido entre los hilos del pool común
+     * 
+     * @return MapaResponse con las aristas del MST
      */
-    private static class AristaKruskal {
-        String origen;
-        String destino;
-        double peso;
-        
-        AristaKruskal(String origen, String destino, double peso) {
-            this.origen = origen;
-            this.destino = destino;
-            this.peso = peso;
-        }
+    public MapaResponse boruvka() {
+        GrafoSnapshot g = grafo.snapshot();
+        return cache.obtener("boruvka", null, null, g.version(), () -> boruvka(g));
+    }
+    
+    private MapaResponse boruvka(GrafoSnapshot g) {
+        return aMapaResponse(g, Boruvka.calcular(g));
     }
     
     /**
-     * Estructura Union-Find (Disjoint Set Union) para detectar ciclos en Kruskal.
-     * Utiliza compresión de caminos y unión por rango para eficiencia.
+     * Todas las ciudades y solo las aristas del árbol, con los ids de la base.
      */
-    private static class UnionFind {
-        Map<String, String> padre;
-        Map<String, Integer> rango;
-        
-        UnionFind(Set<String> elementos) {
-            padre = new HashMap<>();
-            rango = new HashMap<>();
-            
-            for (String elem : elementos) {
-                padre.put(elem, elem);
-                rango.put(elem, 0);
-            }
-        }
-        
-        /**
-         * Encuentra el representante del conjunto (con compresión de caminos).
-         */
-        String find(String x) {
-            if (!padre.get(x).equals(x)) {
-                padre.put(x, find(padre.get(x)));
-            }
-            return padre.get(x);
-        }
-        
-        /**
-         * Une dos conjuntos. Retorna true si se unieron, false si ya estaban unidos.
-         */
-        boolean union(String x, String y) {
-            String raizX = find(x);
-            String raizY = find(y);
-            
-            if (raizX.equals(raizY)) {
-                return false; // Ya están en el mismo conjunto (crearía ciclo)
-            }
-            
-            // Unión por rango
-            if (rango.get(raizX) < rango.get(raizY)) {
-                padre.put(raizX, raizY);
-            } else if (rango.get(raizX) > rango.get(raizY)) {
-                padre.put(raizY, raizX);
-            } else {
-                padre.put(raizY, raizX);
-                rango.put(raizX, rango.get(raizX) + 1);
-            }
-            
-            return true;
+    private MapaResponse aMapaResponse(GrafoSnapshot g, ArbolExpansion arbol) {
+        List<EdgeDTO> aristasMST = new ArrayList<>(arbol.cantidad());
+        for (int i = 0; i < arbol.cantidad(); i++) {
+            aristasMST.add(new EdgeDTO(g.id(arbol.origen(i)), g.id(arbol.destino(i)), arbol.peso(i)));
         }
+        return new MapaResponse(g.ciudades(), aristasMST);
     }
 }
@@ -0,0 +1,95 @@
+package com.example.minimaps.service;
+
+import com.example.minimaps.grafo.GrafoActualizadoEvent;
+import com.example.minimaps.grafo.GrafoEnMemoria;
+import com.example.minimaps.grafo.GrafoSnapshot;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Respuestas ya serializadas (y comprimidas con gzip) por versión del grafo.
+ * 
+ * El mapa completo y los árboles de expansión solo cambian cuando se recarga el grafo, así que
+ * se serializan una vez por versión y después se escriben tal cual, sin pasar de nuevo por
+ * Jackson. Cada variante lleva un ETag fuerte (MD5 de sus bytes) para responder 304 a los
+ * clientes que ya la tienen.
+ * 
+ * Igual que en {@link CacheRutas}, dos pedidos simultáneos de una respuesta que todavía no está
+ * pueden serializarla ambos; se guarda la primera.
+ */
+@Component
+@RequiredArgsConstructor
+public class RespuestasSerializadas {
+    
+    private final GrafoEnMemoria grafo;
+    
+    private final ConcurrentHashMap<Clave, Serializada> entradas = new ConcurrentHashMap<>();
+    
+    /**
+     * Devuelve la respuesta serializada sobre el grafo vigente, calculándola si hace falta.
+     * 
+     * @param recurso Nombre de la respuesta y su formato (por ejemplo "prim.json")
+     * @param serializar Serialización de la respuesta sobre el grafo vigente
+     * @return Bytes, bytes comprimidos y sus ETags
+     */
+    public Serializada obtener(String recurso, Supplier<byte[]> serializar) {
+        while (true) {
+            GrafoSnapshot g = grafo.snapshot();
+            Clave clave = new Clave(recurso, g.version());
+            Serializada guardada = entradas.get(clave);
+            if (guardada != null) {
+                return guardada;
+            }
+            byte[] bytes = serializar.get();
+            // Si se recargó el grafo mientras tanto, los bytes pueden ser de otra versión
+            if (grafo.snapshot() != g) {
+                continue;
+            }
+            byte[] gzip = comprimir(bytes);
+            Serializada nueva = new Serializada(bytes, etag(bytes), gzip, etag(gzip));
+            guardada = entradas.putIfAbsent(clave, nueva);
+            return guardada != null ? guardada : nueva;
+        }
+    }
+    
+    /**
+     * Descarta las respuestas de versiones anteriores del grafo.
+     */
+    @EventListener
+    public void alActualizarGrafo(GrafoActualizadoEvent evento) {
+        long version = evento.getSnapshot().version();
+        entradas.keySet().removeIf(clave -> clave.version() < version);
+    }
+    
+    private static byte[] comprimir(byte[] bytes) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(salida)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return salida.toByteArray();
+    }
+    
+    private static String etag(byte[] bytes) {
+        return "\"" + DigestUtils.md5DigestAsHex(bytes) + "\"";
+    }
+    
+    /**
+     * Una respuesta serializada, sin comprimir y con gzip, cada una con su ETag.
+     */
+    public record Serializada(byte[] bytes, String etag, byte[] gzip, String etagGzip) {
+    }
+    
+    private record Clave(String recurso, long version) {
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.minimaps;
+
+import com.example.minimaps.domain.Ciudad;
+import com.example.minimaps.domain.Ruta;
+import com.example.minimaps.grafo.CargadorGrafo;
+import com.example.minimaps.grafo.GeneradorGrafos;
+import com.example.minimaps.grafo.GrafoEnMemoria;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Grafo de prueba con las mismas ciudades y rutas que neo4j-seed-data.cypher.
+ * Permite probar los algoritmos sin una base Neo4j.
+ */
+public final class GrafoDePrueba {
+    
+    private GrafoDePrueba() {
+    }
+    
+    /**
+     * Ciudades del seed con sus rutas bidireccionales.
+     */
+    public static List<Ciudad> ciudadesSeed() {
+        Map<String, Ciudad> ciudades = new LinkedHashMap<>();
+        agregar(ciudades, "bsas", "Buenos Aires", -34.6037, -58.3816);
+        agregar(ciudades, "cordoba", "Córdoba", -31.4201, -64.1888);
+        agregar(ciudades, "rosario", "Rosario", -32.9442, -60.6505);
+        agregar(ciudades, "mdq", "Mar del Plata", -38.0055, -57.5426);
+        agregar(ciudades, "mendoza", "Mendoza", -32.8895, -68.8458);
+        agregar(ciudades, "salta", "Salta", -24.7821, -65.4232);
+        agregar(ciudades, "tucuman", "San Miguel de Tucumán", -26.8083, -65.2176);
+        agregar(ciudades, "bariloche", "San Carlos de Bariloche", -41.1335, -71.3103);
+        agregar(ciudades, "chubut", "Rawson (Chubut)", -43.3002, -65.1023);
+        agregar(ciudades, "misiones", "Posadas (Misiones)", -27.3671, -55.8961);
+        agregar(ciudades, "corrientes", "Corrientes", -27.4806, -58.8341);
+        
+        conectar(ciudades, "bsas", "rosario", 300);
+        conectar(ciudades, "bsas", "cordoba", 700);
+        conectar(ciudades, "bsas", "mdq", 404);
+        conectar(ciudades, "rosario", "cordoba", 350);
+        conectar(ciudades, "cordoba", "mendoza", 600);
+        conectar(ciudades, "cordoba", "tucuman", 550);
+        conectar(ciudades, "tucuman", "salta", 311);
+        conectar(ciudades, "bsas", "bariloche", 1640);
+        conectar(ciudades, "mendoza", "bariloche", 1080);
+        conectar(ciudades, "bariloche", "chubut", 530);
+        conectar(ciudades, "bsas", "chubut", 1400);
+        conectar(ciudades, "bsas", "corrientes", 1040);
+        conectar(ciudades, "corrientes", "misiones", 340);
+        conectar(ciudades, "rosario", "corrientes", 750);
+        conectar(ciudades, "tucuman", "corrientes", 720);
+        
+        return new ArrayList<>(ciudades.values());
+    }
+    
+    /**
+     * Grafo dirigido aleatorio: ciudades en un rectángulo de Argentina, cada una con rutas
+     * hacia algunas de sus vecinas más cercanas y pesos algo mayores que la distancia en línea recta.
+     */
+    public static List<Ciudad> ciudadesAleatorias(int n, int rutasPorCiudad, long semilla) {
+        Random random = new Random(semilla);
+        List<Ciudad> ciudades = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            ciudades.add(new Ciudad("c" + i, "Ciudad " + i,
+                    -45 + random.nextDouble() * 20, -70 + random.nextDouble() * 14));
+        }
+        for (Ciudad origen : ciudades) {
+            for (int k = 0; k < rutasPorCiudad; k++) {
+                Ciudad destino = ciudades.get(random.nextInt(n));
+                if (destino == origen) continue;
+                double recta = com.example.minimaps.grafo.Geo.haversineKm(
+                        origen.getLat(), origen.getLng(), destino.getLat(), destino.getLng());
+                origen.getRutas().add(new Ruta(Math.ceil(recta * (1.05 + random.nextDouble())), destino));
+            }
+        }
+        return ciudades;
+    }
+    
+    /**
+     * Agrega la ruta inversa de cada ruta, con el mismo peso, para tener un grafo no dirigido.
+     */
+    public static List<Ciudad> bidireccionales(List<Ciudad> ciudades) {
+        List<Ruta[]> originales = new ArrayList<>();
+        for (Ciudad origen : ciudades) {
+            originales.add(origen.getRutas().toArray(new Ruta[0]));
+        }
+        for (int i = 0; i < ciudades.size(); i++) {
+            for (Ruta ruta : originales.get(i)) {
+                ruta.getDestino().getRutas().add(new Ruta(ruta.getDistanciaKm(), ciudades.get(i)));
+            }
+        }
+        return ciudades;
+    }
+    
+    /**
+     * Grafo en memoria ya cargado con las ciudades dadas, sin repositorio real.
+     */
+    public static GrafoEnMemoria grafoEnMemoria(List<Ciudad> ciudades) {
+        GrafoEnMemoria grafo = new GrafoEnMemoria(Mockito.mock(CargadorGrafo.class), evento -> { }, "");
+        grafo.publicar(ciudades);
+        return grafo;
+    }
+    
+    /**
+     * Grafo en memoria ya cargado con un grafo sintético de {@link GeneradorGrafos}.
+     */
+    public static GrafoEnMemoria grafoSintetico(GeneradorGrafos.Modelo modelo, int nodos, long semilla) {
+        GrafoEnMemoria grafo = new GrafoEnMemoria(Mockito.mock(CargadorGrafo.class), evento -> { }, "");
+        grafo.publicar(version -> GeneradorGrafos.generar(modelo, nodos, semilla, version));
+        return grafo;
+    }
+    
+    private static void agregar(Map<String, Ciudad> ciudades, String id, String nombre, double lat, double lng) {
+        ciudades.put(id, new Ciudad(id, nombre, lat, lng));
+    }
+    
+    private static void conectar(Map<String, Ciudad> ciudades, String a, String b, double km) {
+        ciudades.get(a).getRutas().add(new Ruta(km, ciudades.get(b)));
+        ciudades.get(b).getRutas().add(new Ruta(km, ciudades.get(a)));
+    }
+}
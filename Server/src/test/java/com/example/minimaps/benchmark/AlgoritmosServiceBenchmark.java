@@ -0,0 +1,185 @@
+package com.example.minimaps.benchmark;
+
+import com.example.minimaps.dto.Item;
+import com.example.minimaps.service.AlgoritmosService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ordenamientos, mochila, subconjuntos y cambio de {@link AlgoritmosService} según el tamaño y la
+ * forma de la entrada, con {@code Arrays.sort} y {@code List.sort} como referencia para los
+ * ordenamientos.
+ * 
+ * El quicksort del servicio toma el último elemento como pivote, así que con listas ordenadas,
+ * invertidas o con muchos repetidos cae en O(n²) y en n niveles de recursión: el fork corre con
+ * una pila grande para que esos casos den un tiempo en lugar de un StackOverflowError.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx3g", "-Xss64m" })
+public class AlgoritmosServiceBenchmark {
+    
+    /**
+     * Forma de la lista a ordenar.
+     */
+    public enum Distribucion {
+        ALEATORIA, ORDENADA, INVERSA, REPETIDOS
+    }
+    
+    @State(Scope.Benchmark)
+    public static class Ordenamiento {
+        
+        @Param({ "1000", "10000", "50000" })
+        public int tamano;
+        
+        @Param({ "ALEATORIA", "ORDENADA", "INVERSA", "REPETIDOS" })
+        public Distribucion distribucion;
+        
+        final AlgoritmosService servicio = new AlgoritmosService();
+        
+        List<Integer> lista;
+        
+        int[] arreglo;
+        
+        @Setup(Level.Trial)
+        public void preparar() {
+            SplittableRandom random = new SplittableRandom(tamano);
+            arreglo = new int[tamano];
+            for (int i = 0; i < tamano; i++) {
+                arreglo[i] = switch (distribucion) {
+                    case ALEATORIA -> random.nextInt();
+                    case ORDENADA -> i;
+                    case INVERSA -> tamano - i;
+                    case REPETIDOS -> random.nextInt(10);
+                };
+            }
+            lista = new ArrayList<>(tamano);
+            for (int valor : arreglo) {
+                lista.add(valor);
+            }
+        }
+    }
+    
+    @State(Scope.Benchmark)
+    public static class Mochila {
+        
+        @Param({ "100", "1000", "10000" })
+        public int capacidad;
+        
+        @Param({ "20", "100", "1000" })
+        public int cantidadItems;
+        
+        final AlgoritmosService servicio = new AlgoritmosService();
+        
+        List<Item> items;
+        
+        @Setup(Level.Trial)
+        public void preparar() {
+            // Pesos y valores independientes, con pesos proporcionales a la capacidad
+            SplittableRandom random = new SplittableRandom(capacidad * 31L + cantidadItems);
+            int pesoMaximo = Math.max(2, capacidad / 10);
+            items = new ArrayList<>(cantidadItems);
+            for (int i = 0; i < cantidadItems; i++) {
+                items.add(new Item("item" + i, random.nextInt(1, pesoMaximo), random.nextInt(1, 1000)));
+            }
+        }
+    }
+    
+    @State(Scope.Benchmark)
+    public static class Subconjuntos {
+        
+        @Param({ "10", "15", "20" })
+        public int elementos;
+        
+        final AlgoritmosService servicio = new AlgoritmosService();
+        
+        List<Integer> nums;
+        
+        @Setup(Level.Trial)
+        public void preparar() {
+            nums = new ArrayList<>(elementos);
+            for (int i = 0; i < elementos; i++) {
+                nums.add(i);
+            }
+        }
+    }
+    
+    @State(Scope.Benchmark)
+    public static class Cambio {
+        
+        @Param({ "1000", "1000000" })
+        public int monto;
+        
+        final AlgoritmosService servicio = new AlgoritmosService();
+        
+        final List<Integer> monedas = List.of(1, 2, 5, 10, 20, 50, 100, 200, 500, 1000);
+    }
+    
+    @Benchmark
+    public List<Integer> quicksort(Ordenamiento estado) {
+        return estado.servicio.quicksort(estado.lista);
+    }
+    
+    @Benchmark
+    public List<Integer> mergesort(Ordenamiento estado) {
+        return estado.servicio.mergesort(estado.lista);
+    }
+    
+    /**
+     * Referencia: TimSort sobre una copia de la lista, igual que copian los métodos del servicio.
+     */
+    @Benchmark
+    public List<Integer> listSort(Ordenamiento estado) {
+        List<Integer> copia = new ArrayList<>(estado.lista);
+        copia.sort(null);
+        return copia;
+    }
+    
+    /**
+     * Referencia: Dual-Pivot Quicksort sobre una copia del arreglo de primitivos, sin boxing.
+     */
+    @Benchmark
+    public int[] arraysSort(Ordenamiento estado) {
+        int[] copia = estado.arreglo.clone();
+        Arrays.sort(copia);
+        return copia;
+    }
+    
+    @Benchmark
+    public int mochilaDP(Mochila estado) {
+        return estado.servicio.mochilaDP(estado.capacidad, estado.items);
+    }
+    
+    @Benchmark
+    public int mochilaBranchBound(Mochila estado) {
+        return estado.servicio.mochilaBranchBound(estado.capacidad, estado.items);
+    }
+    
+    @Benchmark
+    public List<List<Integer>> subconjuntosBacktracking(Subconjuntos estado) {
+        return estado.servicio.subconjuntosBacktracking(estado.nums);
+    }
+    
+    @Benchmark
+    public List<Integer> greedyCambio(Cambio estado) {
+        return estado.servicio.greedyCambio(estado.monto, estado.monedas);
+    }
+}
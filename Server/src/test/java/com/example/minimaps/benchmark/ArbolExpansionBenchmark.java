@@ -0,0 +1,76 @@
+package com.example.minimaps.benchmark;
+
+import com.example.minimaps.GrafoDePrueba;
+import com.example.minimaps.dto.EdgeDTO;
+import com.example.minimaps.dto.MapaResponse;
+import com.example.minimaps.grafo.ArbolEnMemoria;
+import com.example.minimaps.grafo.GrafoEnMemoria;
+import com.example.minimaps.grafo.JerarquiaEnMemoria;
+import com.example.minimaps.grafo.LandmarksEnMemoria;
+import com.example.minimaps.grafo.PiramideEnMemoria;
+import com.example.minimaps.service.CacheRutas;
+import com.example.minimaps.service.GrafoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prim, Kruskal y Borůvka de {@link GrafoService} sobre grafos aleatorios no dirigidos cada
+ * vez más grandes. Sin cache ni árbol mantenido, así cada operación calcula el árbol completo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class ArbolExpansionBenchmark {
+    
+    @Param({ "10000", "40000", "160000", "640000" })
+    public int nodos;
+    
+    private GrafoService servicio;
+    
+    @Setup(Level.Trial)
+    public void preparar() {
+        GrafoEnMemoria grafo = GrafoDePrueba.grafoEnMemoria(
+                GrafoDePrueba.bidireccionales(GrafoDePrueba.ciudadesAleatorias(nodos, 3, nodos)));
+        servicio = new GrafoService(grafo, new JerarquiaEnMemoria(false, ""),
+                new LandmarksEnMemoria(0), new ArbolEnMemoria(false, 0), new PiramideEnMemoria(false, 0),
+                new CacheRutas(false, 0, 0));
+        // Prim solo cubre la componente de la primera ciudad; Kruskal y Borůvka, el bosque completo
+        if (Math.abs(peso(servicio.kruskal()) - peso(servicio.boruvka())) > 1e-3) {
+            throw new IllegalStateException("Kruskal y Borůvka no dan el mismo peso");
+        }
+    }
+    
+    private static double peso(MapaResponse arbol) {
+        return arbol.getEdges().stream().mapToDouble(EdgeDTO::getDistanciaKm).sum();
+    }
+    
+    @Benchmark
+    public MapaResponse prim() {
+        return servicio.prim();
+    }
+    
+    @Benchmark
+    public MapaResponse kruskal() {
+        return servicio.kruskal();
+    }
+    
+    @Benchmark
+    public MapaResponse boruvka() {
+        return servicio.boruvka();
+    }
+}
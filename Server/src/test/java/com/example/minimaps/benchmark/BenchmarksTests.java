@@ -0,0 +1,52 @@
+package com.example.minimaps.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Corre los benchmarks JMH de este paquete con el perfilador de GC (bytes asignados por
+ * operación) y guarda los resultados en JSON para comparar entre versiones.
+ * No corre con el resto de las pruebas: {@code mvn test -Pbenchmark}.
+ * 
+ * Con {@code -Djmh.incluir=<regex>} se elige qué benchmarks correr (por ejemplo
+ * {@code GrafoServiceBenchmark.dijkstra}) y con {@code -Djmh.resultado=<archivo>} dónde
+ * guardar el JSON (por defecto {@code target/jmh-resultados.json}). Cada
+ * {@code -Djmh.param.<nombre>=a,b} reemplaza los valores de ese {@code @Param}.
+ */
+@Tag("benchmark")
+class BenchmarksTests {
+    
+    private static final String PARAMETRO = "jmh.param.";
+    
+    @Test
+    void correrBenchmarks() throws Exception {
+        Path resultado = Path.of(System.getProperty("jmh.resultado", "target/jmh-resultados.json"));
+        Files.createDirectories(resultado.toAbsolutePath().getParent());
+        ChainedOptionsBuilder opciones = new OptionsBuilder()
+                .include(System.getProperty("jmh.incluir", BenchmarksTests.class.getPackageName() + "\\..*Benchmark"))
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultado.toString());
+        for (String propiedad : System.getProperties().stringPropertyNames()) {
+            if (propiedad.startsWith(PARAMETRO)) {
+                opciones.param(propiedad.substring(PARAMETRO.length()), System.getProperty(propiedad).split(","));
+            }
+        }
+        Options construidas = opciones.build();
+        Collection<RunResult> resultados = new Runner(construidas).run();
+        assertFalse(resultados.isEmpty(), "Ningún benchmark coincide con " + construidas.getIncludes());
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.minimaps.benchmark;
+
+import com.example.minimaps.GrafoDePrueba;
+import com.example.minimaps.domain.Ciudad;
+import com.example.minimaps.dto.MapaResponse;
+import com.example.minimaps.dto.RutaResponse;
+import com.example.minimaps.grafo.ArbolEnMemoria;
+import com.example.minimaps.grafo.GeneradorGrafos;
+import com.example.minimaps.grafo.GrafoEnMemoria;
+import com.example.minimaps.grafo.GrafoSnapshot;
+import com.example.minimaps.grafo.JerarquiaEnMemoria;
+import com.example.minimaps.grafo.LandmarksEnMemoria;
+import com.example.minimaps.grafo.PiramideEnMemoria;
+import com.example.minimaps.service.CacheRutas;
+import com.example.minimaps.service.GrafoService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BFS, DFS, Dijkstra, Prim y Kruskal de {@link GrafoService} sobre grillas sintéticas cada vez
+ * más grandes. El grafo se genera una vez por tamaño, sin Neo4j, y la cache y los
+ * preprocesamientos en segundo plano están apagados para medir el cálculo completo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.AverageTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class GrafoServiceBenchmark {
+    
+    @Param({ "10000", "100000", "1000000" })
+    public int nodos;
+    
+    private GrafoService servicio;
+    
+    private String origen;
+    
+    private String destino;
+    
+    @Setup(Level.Trial)
+    public void preparar() {
+        GrafoEnMemoria grafo = GrafoDePrueba.grafoSintetico(GeneradorGrafos.Modelo.GRILLA, nodos, 42);
+        servicio = new GrafoService(grafo, new JerarquiaEnMemoria(false, ""),
+                new LandmarksEnMemoria(0), new ArbolEnMemoria(false, 0), new PiramideEnMemoria(false, 0),
+                new CacheRutas(false, 0, 0));
+        // Esquinas opuestas de la grilla: el camino cruza todo el mapa
+        GrafoSnapshot g = grafo.snapshot();
+        origen = g.id(g.indiceEspacial().masCercano(-54, -72));
+        destino = g.id(g.indiceEspacial().masCercano(-23, -55));
+        if (Double.isInfinite(servicio.dijkstra(origen, destino).getDistanciaTotalKm())) {
+            throw new IllegalStateException("No hay camino entre " + origen + " y " + destino);
+        }
+    }
+    
+    @Benchmark
+    public List<Ciudad> bfs() {
+        return servicio.bfs(origen);
+    }
+    
+    @Benchmark
+    public List<Ciudad> dfs() {
+        return servicio.dfs(origen);
+    }
+    
+    @Benchmark
+    public RutaResponse dijkstra() {
+        return servicio.dijkstra(origen, destino);
+    }
+    
+    @Benchmark
+    public MapaResponse prim() {
+        return servicio.prim();
+    }
+    
+    @Benchmark
+    public MapaResponse kruskal() {
+        return servicio.kruskal();
+    }
+}
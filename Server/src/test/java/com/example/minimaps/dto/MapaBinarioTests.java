@@ -0,0 +1,78 @@
+package com.example.minimaps.dto;
+
+import com.example.minimaps.GrafoDePrueba;
+import com.example.minimaps.domain.Ciudad;
+import com.example.minimaps.grafo.GrafoSnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MapaBinarioTests {
+    
+    @Test
+    void codificaIdsUnaVezYAristasPorIndice() throws Exception {
+        GrafoSnapshot g = GrafoSnapshot.desde(1,
+                GrafoDePrueba.bidireccionales(GrafoDePrueba.ciudadesAleatorias(2_000, 3, 19)));
+        List<EdgeDTO> edges = new ArrayList<>();
+        for (int u = 0; u < g.numNodos(); u++) {
+            for (int e = g.inicio(u); e < g.fin(u); e++) {
+                edges.add(new EdgeDTO(g.id(u), g.id(g.destino(e)), g.peso(e)));
+            }
+        }
+        // La última arista apunta a una ciudad que no viene como nodo
+        edges.add(new EdgeDTO(g.id(0), "afuera", 12.5));
+        MapaResponse mapa = new MapaResponse(g.ciudades(), edges);
+        
+        byte[] bytes = MapaBinario.codificar(mapa);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(MapaBinario.MAGIA, buffer.getInt());
+        assertEquals(MapaBinario.FORMATO, buffer.getInt());
+        int n = buffer.getInt();
+        int k = buffer.getInt();
+        int m = buffer.getInt();
+        int bytesTexto = buffer.getInt();
+        assertEquals(g.numNodos(), n);
+        assertEquals(n + 1, k);
+        assertEquals(edges.size(), m);
+        
+        int[] inicios = new int[k + n + 1];
+        buffer.asIntBuffer().get(inicios);
+        int texto = buffer.position() + inicios.length * Integer.BYTES;
+        List<String> textos = new ArrayList<>();
+        for (int i = 0; i < k + n; i++) {
+            textos.add(new String(bytes, texto + inicios[i], inicios[i + 1] - inicios[i], StandardCharsets.UTF_8));
+        }
+        assertEquals(bytesTexto, inicios[k + n]);
+        
+        // Cada arreglo numérico empieza alineado a 8 bytes
+        int coordenadas = (texto + bytesTexto + 7) & ~7;
+        int indices = coordenadas + 2 * n * Double.BYTES;
+        int distancias = (indices + 2 * m * Integer.BYTES + 7) & ~7;
+        assertEquals(bytes.length, distancias + m * Double.BYTES);
+        for (int i = 0; i < n; i++) {
+            Ciudad ciudad = g.ciudad(i);
+            assertEquals(ciudad.getId(), textos.get(i));
+            assertEquals(ciudad.getNombre(), textos.get(k + i));
+            assertEquals(ciudad.getLat(), buffer.getDouble(coordenadas + i * Double.BYTES));
+            assertEquals(ciudad.getLng(), buffer.getDouble(coordenadas + (n + i) * Double.BYTES));
+        }
+        assertEquals("afuera", textos.get(n));
+        for (int i = 0; i < m; i++) {
+            EdgeDTO edge = edges.get(i);
+            assertEquals(edge.getOrigenId(), textos.get(buffer.getInt(indices + i * Integer.BYTES)));
+            assertEquals(edge.getDestinoId(), textos.get(buffer.getInt(indices + (m + i) * Integer.BYTES)));
+            assertEquals(edge.getDistanciaKm(), buffer.getDouble(distancias + i * Double.BYTES));
+        }
+        
+        int json = new ObjectMapper().writeValueAsBytes(mapa).length;
+        assertTrue(bytes.length * 5 < json, "binario " + bytes.length + " B, JSON " + json + " B");
+    }
+}
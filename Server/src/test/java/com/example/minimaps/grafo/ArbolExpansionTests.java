@@ -0,0 +1,140 @@
+package com.example.minimaps.grafo;
+
+import com.example.minimaps.GrafoDePrueba;
+import com.example.minimaps.domain.Ciudad;
+import com.example.minimaps.domain.Ruta;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArbolExpansionTests {
+    
+    @Test
+    void kruskalYBoruvkaCoincidenConKruskalDeReferencia() {
+        // Pesos redondeados: hay muchos empates. Las dos mitades del último grafo no se conectan
+        List<Ciudad> partido = new ArrayList<>(GrafoDePrueba.ciudadesAleatorias(3_000, 2, 5));
+        for (Ciudad ciudad : GrafoDePrueba.ciudadesAleatorias(3_000, 2, 6)) {
+            ciudad.setId("b" + ciudad.getId());
+            partido.add(ciudad);
+        }
+        for (GrafoSnapshot g : new GrafoSnapshot[] {
+                GrafoSnapshot.desde(1, GrafoDePrueba.ciudadesSeed()),
+                GrafoSnapshot.desde(2, GrafoDePrueba.ciudadesAleatorias(30_000, 3, 11)),
+                GrafoSnapshot.desde(3, GrafoDePrueba.bidireccionales(GrafoDePrueba.ciudadesAleatorias(20_000, 3, 13))),
+                GrafoSnapshot.desde(4, partido) }) {
+            
+            // Kruskal de referencia sobre las aristas como no dirigidas
+            int[] padres = IntStream.range(0, g.numNodos()).toArray();
+            Integer[] aristas = new Integer[g.numAristas()];
+            int[] origenes = new int[g.numAristas()];
+            for (int u = 0; u < g.numNodos(); u++) {
+                for (int e = g.inicio(u); e < g.fin(u); e++) {
+                    aristas[e] = e;
+                    origenes[e] = u;
+                }
+            }
+            Arrays.sort(aristas, (a, b) -> Double.compare(g.peso(a), g.peso(b)));
+            double pesoKruskal = 0;
+            int aristasKruskal = 0;
+            for (int e : aristas) {
+                int a = raiz(padres, origenes[e]);
+                int b = raiz(padres, g.destino(e));
+                if (a != b) {
+                    padres[a] = b;
+                    pesoKruskal += g.peso(e);
+                    aristasKruskal++;
+                }
+            }
+            
+            ArbolExpansion kruskal = Kruskal.calcular(g);
+            for (ArbolExpansion arbol : new ArbolExpansion[] { kruskal, Boruvka.calcular(g) }) {
+                assertEquals(aristasKruskal, arbol.cantidad());
+                int[] componentes = IntStream.range(0, g.numNodos()).toArray();
+                for (int i = 0; i < arbol.cantidad(); i++) {
+                    int a = raiz(componentes, arbol.origen(i));
+                    int b = raiz(componentes, arbol.destino(i));
+                    assertTrue(a != b, "el resultado no debe tener ciclos");
+                    componentes[a] = b;
+                }
+                assertEquals(pesoKruskal, arbol.pesoTotal(), 1e-6);
+            }
+            for (int i = 1; i < kruskal.cantidad(); i++) {
+                assertTrue(kruskal.peso(i - 1) <= kruskal.peso(i));
+            }
+        }
+    }
+    
+    @Test
+    void arbolDinamicoSigueAKruskalTrasCambiosDeRutas() {
+        // Pocos nodos y pesos redondeados: muchos empates y muchos cambios por lote
+        List<Ciudad> ciudades = GrafoDePrueba.bidireccionales(GrafoDePrueba.ciudadesAleatorias(400, 2, 3));
+        Random random = new Random(7);
+        ArbolDinamico arbol = ArbolDinamico.calcular(GrafoSnapshot.desde(1, ciudades));
+        for (int version = 2; version < 40; version++) {
+            for (int cambio = 0; cambio < 1 + random.nextInt(30); cambio++) {
+                Ciudad origen = ciudades.get(random.nextInt(ciudades.size()));
+                List<Ruta> rutas = new ArrayList<>(origen.getRutas());
+                int accion = random.nextInt(3);
+                if (accion == 0 || rutas.isEmpty()) {
+                    Ciudad destino = ciudades.get(random.nextInt(ciudades.size()));
+                    origen.getRutas().add(new Ruta(1 + random.nextInt(1500), destino));
+                } else {
+                    Ruta ruta = rutas.get(random.nextInt(rutas.size()));
+                    origen.getRutas().remove(ruta);
+                    if (accion == 1) {
+                        origen.getRutas().add(new Ruta(1 + random.nextInt(1500), ruta.getDestino()));
+                    }
+                }
+            }
+            // Cada tanto otro orden de ciudades: los índices cambian y hay que recalcular
+            if (version % 5 == 0) {
+                Collections.shuffle(ciudades, random);
+            }
+            GrafoSnapshot g = GrafoSnapshot.desde(version, ciudades);
+            
+            ArbolDinamico actualizado = arbol.actualizar(g, Integer.MAX_VALUE);
+            assertEquals(version % 5 == 0, actualizado == null);
+            arbol = actualizado != null ? actualizado : ArbolDinamico.calcular(g);
+            ArbolExpansion kruskal = Kruskal.calcular(g);
+            assertEquals(kruskal.cantidad(), arbol.arbol().cantidad());
+            assertEquals(kruskal.pesoTotal(), arbol.arbol().pesoTotal(), 1e-6);
+            // Con empates las aristas elegidas y su orden son los mismos que al recalcular
+            assertEquals(aristas(ArbolDinamico.calcular(g).arbol()), aristas(arbol.arbol()));
+            List<String> deKruskal = aristas(kruskal);
+            Collections.sort(deKruskal);
+            List<String> mantenidas = aristas(arbol.arbol());
+            Collections.sort(mantenidas);
+            assertEquals(deKruskal, mantenidas);
+        }
+        
+        assertNull(arbol.actualizar(GrafoSnapshot.desde(50, ciudades.subList(1, ciudades.size())), 1000));
+        ciudades.get(0).getRutas().add(new Ruta(1, ciudades.get(1)));
+        ciudades.get(2).getRutas().add(new Ruta(1, ciudades.get(3)));
+        assertNull(arbol.actualizar(GrafoSnapshot.desde(51, ciudades), 1));
+    }
+    
+    private static List<String> aristas(ArbolExpansion arbol) {
+        List<String> aristas = new ArrayList<>();
+        for (int i = 0; i < arbol.cantidad(); i++) {
+            aristas.add(arbol.origen(i) + "-" + arbol.destino(i) + ":" + arbol.peso(i));
+        }
+        return aristas;
+    }
+    
+    private static int raiz(int[] padres, int x) {
+        while (padres[x] != x) {
+            padres[x] = padres[padres[x]];
+            x = padres[x];
+        }
+        return x;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.minimaps.grafo;
+
+import com.example.minimaps.GrafoDePrueba;
+import com.example.minimaps.domain.Ciudad;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ArchivoGrafoTests {
+    
+    @Test
+    void grafoGuardadoSeLeeIgual(@TempDir Path directorio) throws Exception {
+        List<Ciudad> ciudades = new ArrayList<>(GrafoDePrueba.ciudadesAleatorias(500, 3, 31));
+        ciudades.add(new Ciudad("aislada", "Ñandú", -30, -60));
+        GrafoSnapshot original = GrafoSnapshot.desde(1, ciudades);
+        Path archivo = directorio.resolve("grafo.bin");
+        ArchivoGrafo.guardar(original, archivo);
+        
+        GrafoSnapshot leido = ArchivoGrafo.cargar(archivo, 7);
+        assertEquals(7, leido.version());
+        assertEquals(original.huella(), leido.huella());
+        assertEquals(original.numNodos(), leido.numNodos());
+        assertEquals(original.numAristas(), leido.numAristas());
+        for (int u = 0; u < original.numNodos(); u++) {
+            assertEquals(original.id(u), leido.id(u));
+            assertEquals(original.ciudad(u).getNombre(), leido.ciudad(u).getNombre());
+            assertEquals(rutas(original.ciudad(u)), rutas(leido.ciudad(u)));
+        }
+        assertEquals(Dijkstra.buscar(original, 0, 400).distancia(), Dijkstra.buscar(leido, 0, 400).distancia(), 1e-9);
+        
+        assertNull(ArchivoGrafo.cargar(directorio.resolve("no-existe.bin"), 1));
+    }
+    
+    /**
+     * Destino y distancia de cada ruta de la ciudad, ordenados.
+     */
+    private static List<String> rutas(Ciudad ciudad) {
+        return ciudad.getRutas().stream()
+                .map(ruta -> ruta.getDestino().getId() + ":" + ruta.getDistanciaKm())
+                .sorted()
+                .toList();
+    }
+    
+    @Test
+    void archivoModificadoSeRechaza(@TempDir Path directorio) throws Exception {
+        Path archivo = directorio.resolve("grafo.bin");
+        ArchivoGrafo.guardar(GrafoSnapshot.desde(1, GrafoDePrueba.ciudadesAleatorias(200, 3, 32)), archivo);
+        byte[] bytes = Files.readAllBytes(archivo);
+        
+        byte[] modificado = bytes.clone();
+        modificado[modificado.length - 3] ^= 1;
+        Files.write(archivo, modificado);
+        assertThrows(IOException.class, () -> ArchivoGrafo.cargar(archivo, 1));
+        
+        Files.write(archivo, Arrays.copyOf(bytes, bytes.length - 8));
+        assertThrows(IOException.class, () -> ArchivoGrafo.cargar(archivo, 1));
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.minimaps.grafo;
+
+import com.example.minimaps.GrafoDePrueba;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BfsParaleloTests {
+    
+    @Test
+    void ordenYNivelesCoincidenConBfsSecuencial() {
+        // Con 20000 nodos la frontera crece lo suficiente para pasar a bottom-up y volver
+        for (GrafoSnapshot g : new GrafoSnapshot[] {
+                GrafoSnapshot.desde(1, GrafoDePrueba.ciudadesSeed()),
+                GrafoSnapshot.desde(2, GrafoDePrueba.ciudadesAleatorias(20_000, 3, 21)) }) {
+            for (int origen = 0; origen < g.numNodos(); origen += Math.max(1, g.numNodos() / 5)) {
+                BfsParalelo recorrido = BfsParalelo.recorrer(g, origen);
+                
+                int[] cola = new int[g.numNodos()];
+                int[] nivel = new int[g.numNodos()];
+                boolean[] visitado = new boolean[g.numNodos()];
+                int frente = 0;
+                int fondo = 0;
+                cola[fondo++] = origen;
+                visitado[origen] = true;
+                while (frente < fondo) {
+                    int u = cola[frente++];
+                    for (int e = g.inicio(u); e < g.fin(u); e++) {
+                        int v = g.destino(e);
+                        if (!visitado[v]) {
+                            visitado[v] = true;
+                            nivel[v] = nivel[u] + 1;
+                            cola[fondo++] = v;
+                        }
+                    }
+                }
+                
+                assertEquals(fondo, recorrido.cantidad());
+                for (int i = 0; i < fondo; i++) {
+                    assertEquals(cola[i], recorrido.nodo(i));
+                    assertEquals(nivel[cola[i]], recorrido.nivel(i));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.minimaps.grafo;
+
+import com.example.minimaps.GrafoDePrueba;
+import com.example.minimaps.domain.Ciudad;
+import com.example.minimaps.domain.Ruta;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CargadorGrafoTests {
+    
+    @Test
+    void armaElMismoGrafoQueLasEntidades() {
+        List<Ciudad> ciudades = new ArrayList<>(GrafoDePrueba.ciudadesAleatorias(500, 3, 23));
+        ciudades.add(new Ciudad("aislada", "Sin rutas", -30, -60));
+        GrafoSnapshot esperado = GrafoSnapshot.desde(1, ciudades);
+        
+        // Filas como las de la consulta, en cualquier orden: una por ruta y una sola si no tiene rutas
+        List<Object[]> filas = new ArrayList<>();
+        for (Ciudad ciudad : ciudades) {
+            if (ciudad.getRutas().isEmpty()) {
+                filas.add(new Object[] { ciudad, null });
+            }
+            for (Ruta ruta : ciudad.getRutas()) {
+                filas.add(new Object[] { ciudad, ruta });
+            }
+        }
+        Collections.shuffle(filas, new Random(24));
+        CargadorGrafo.Acumulador acumulador = new CargadorGrafo.Acumulador();
+        for (Object[] fila : filas) {
+            Ciudad ciudad = (Ciudad) fila[0];
+            Ruta ruta = (Ruta) fila[1];
+            acumulador.agregar(ciudad.getId(), ciudad.getNombre(), ciudad.getLat(), ciudad.getLng(),
+                    ruta != null ? ruta.getDestino().getId() : null, ruta != null ? ruta.getDistanciaKm() : 0);
+        }
+        GrafoSnapshot cargado = acumulador.construir(1);
+        
+        assertEquals(esperado.numNodos(), cargado.numNodos());
+        assertEquals(esperado.numAristas(), cargado.numAristas());
+        for (int u = 0; u < esperado.numNodos(); u++) {
+            int v = cargado.indiceDe(esperado.id(u));
+            assertEquals(esperado.ciudad(u).getNombre(), cargado.ciudad(v).getNombre());
+            assertEquals(esperado.lat(u), cargado.lat(v));
+            assertEquals(esperado.lng(u), cargado.lng(v));
+            assertEquals(aristas(esperado, u), aristas(cargado, v));
+            assertEquals(esperado.ciudad(u).getRutas().size(), cargado.ciudad(v).getRutas().size());
+        }
+    }
+    
+    @Test
+    void rutasConLaMismaDistanciaNoSeConfunden() {
+        CargadorGrafo.Acumulador acumulador = new CargadorGrafo.Acumulador();
+        acumulador.agregar("a", "A", -34, -58, "b", 100);
+        acumulador.agregar("a", "A", -34, -58, "c", 100);
+        acumulador.agregar("b", "B", -33, -60, null, 0);
+        acumulador.agregar("c", "C", -31, -64, null, 0);
+        GrafoSnapshot cargado = acumulador.construir(1);
+        
+        Set<Ruta> rutas = cargado.ciudad(cargado.indiceDe("a")).getRutas();
+        assertEquals(2, rutas.size());
+        for (Ruta ruta : rutas) {
+            assertNull(ruta.getId());
+        }
+    }
+    
+    private static List<String> aristas(GrafoSnapshot g, int u) {
+        List<String> aristas = new ArrayList<>();
+        for (int e = g.inicio(u); e < g.fin(u); e++) {
+            aristas.add(g.id(g.destino(e)) + ":" + g.peso(e));
+        }
+        Collections.sort(aristas);
+        return aristas;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.minimaps.grafo;
+
+import com.example.minimaps.GrafoDePrueba;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContraccionJerarquicaTests {
+    
+    private final GrafoSnapshot grafo = GrafoSnapshot.desde(1, GrafoDePrueba.ciudadesAleatorias(400, 3, 42));
+    
+    @Test
+    void consultasCoincidenConDijkstraEnGrafoDirigido() {
+        JerarquiaContraccion ch = ContraccionJerarquica.construir(grafo);
+        for (int origen = 0; origen < grafo.numNodos(); origen += 7) {
+            for (int destino = 0; destino < grafo.numNodos(); destino += 11) {
+                Camino esperado = DijkstraBidireccional.buscar(grafo, origen, destino);
+                Camino camino = ch.buscar(origen, destino);
+                assertEquals(esperado.distancia(), camino.distancia(), 1e-6);
+                if (camino.existe()) {
+                    assertCaminoValido(camino, origen, destino);
+                }
+            }
+        }
+    }
+    
+    @Test
+    void jerarquiaGuardadaSeReutilizaSoloParaElMismoGrafo(@TempDir Path directorio) throws Exception {
+        Path archivo = directorio.resolve("ch.bin");
+        JerarquiaContraccion original = ContraccionJerarquica.construir(grafo);
+        original.guardar(archivo);
+        
+        JerarquiaContraccion leida = JerarquiaContraccion.cargar(archivo, grafo);
+        assertNotNull(leida);
+        assertEquals(original.buscar(3, 250).distancia(), leida.buscar(3, 250).distancia(), 1e-9);
+        
+        GrafoSnapshot otro = GrafoSnapshot.desde(2, GrafoDePrueba.ciudadesAleatorias(400, 3, 7));
+        assertNull(JerarquiaContraccion.cargar(archivo, otro));
+    }
+    
+    /**
+     * El camino desempaquetado debe usar solo rutas originales y sumar la distancia informada.
+     */
+    private void assertCaminoValido(Camino camino, int origen, int destino) {
+        int[] nodos = camino.nodos();
+        assertEquals(origen, nodos[0]);
+        assertEquals(destino, nodos[nodos.length - 1]);
+        double total = 0;
+        for (int i = 0; i + 1 < nodos.length; i++) {
+            double peso = Double.POSITIVE_INFINITY;
+            for (int e = grafo.inicio(nodos[i]); e < grafo.fin(nodos[i]); e++) {
+                if (grafo.destino(e) == nodos[i + 1]) {
+                    peso = Math.min(peso, grafo.peso(e));
+                }
+            }
+            assertTrue(peso < Double.POSITIVE_INFINITY, "arista inexistente en el camino");
+            total += peso;
+        }
+        assertEquals(camino.distancia(), total, 1e-6);
+    }
+}
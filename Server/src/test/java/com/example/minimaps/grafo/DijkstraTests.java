@@ -0,0 +1,64 @@
+package com.example.minimaps.grafo;
+
+import com.example.minimaps.GrafoDePrueba;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DijkstraTests {
+    
+    @Test
+    void monticuloDevuelveLosNodosEnOrdenConDecreaseKey() {
+        Random random = new Random(5);
+        MonticuloIndexado cola = new MonticuloIndexado(500);
+        for (int ronda = 0; ronda < 3; ronda++) {
+            cola.limpiar();
+            double[] prioridad = new double[500];
+            Arrays.fill(prioridad, Double.POSITIVE_INFINITY);
+            for (int i = 0; i < 2000; i++) {
+                int nodo = random.nextInt(500);
+                double valor = random.nextDouble() * 1000;
+                cola.insertarOBajar(nodo, valor);
+                prioridad[nodo] = Math.min(prioridad[nodo], valor);
+            }
+            
+            double anterior = Double.NEGATIVE_INFINITY;
+            int extraidos = 0;
+            while (!cola.vacio()) {
+                double minimo = cola.minimo();
+                int nodo = cola.extraerMinimo();
+                assertEquals(prioridad[nodo], minimo);
+                assertTrue(minimo >= anterior);
+                anterior = minimo;
+                extraidos++;
+            }
+            assertEquals(Arrays.stream(prioridad).filter(p -> p < Double.POSITIVE_INFINITY).count(), extraidos);
+        }
+    }
+    
+    @Test
+    void motoresCoincidenConDijkstraUnoATodosReutilizandoEspacios() {
+        // Dos tamaños de grafo intercalados: los espacios por hilo deben crecer y reutilizarse sin errores
+        GrafoSnapshot chico = GrafoSnapshot.desde(1, GrafoDePrueba.ciudadesAleatorias(60, 3, 3));
+        GrafoSnapshot grande = GrafoSnapshot.desde(2, GrafoDePrueba.ciudadesAleatorias(300, 3, 7));
+        for (GrafoSnapshot g : new GrafoSnapshot[] { chico, grande, chico }) {
+            for (int origen = 0; origen < g.numNodos(); origen += 11) {
+                double[] esperadas = TablaLandmarks.unoATodos(g, origen, false);
+                for (int destino = 0; destino < g.numNodos(); destino += 7) {
+                    Camino dijkstra = Dijkstra.buscar(g, origen, destino);
+                    assertEquals(esperadas[destino], dijkstra.distancia(), 1e-6);
+                    assertEquals(esperadas[destino], AEstrella.buscar(g, origen, destino).distancia(), 1e-6);
+                    assertEquals(esperadas[destino], DijkstraBidireccional.buscar(g, origen, destino).distancia(), 1e-6);
+                    if (dijkstra.existe()) {
+                        assertEquals(origen, dijkstra.nodos()[0]);
+                        assertEquals(destino, dijkstra.nodos()[dijkstra.nodos().length - 1]);
+                    }
+                }
+            }
+        }
+    }
+}
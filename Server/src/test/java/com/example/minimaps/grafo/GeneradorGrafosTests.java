@@ -0,0 +1,51 @@
+package com.example.minimaps.grafo;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeneradorGrafosTests {
+    
+    @Test
+    void generaGrafosNoDirigidosYReproducibles() {
+        for (GeneradorGrafos.Modelo modelo : GeneradorGrafos.Modelo.values()) {
+            GrafoSnapshot grafo = GeneradorGrafos.generar(modelo, 5_000, 3, 1);
+            assertEquals(5_000, grafo.numNodos());
+            assertEquals(grafo.huella(), GeneradorGrafos.generar(modelo, 5_000, 3, 2).huella(), modelo.name());
+            assertNotEquals(grafo.huella(), GeneradorGrafos.generar(modelo, 5_000, 4, 1).huella(), modelo.name());
+            
+            for (int u = 0; u < grafo.numNodos(); u++) {
+                assertTrue(grafo.lat(u) >= GeneradorGrafos.MIN_LAT && grafo.lat(u) <= GeneradorGrafos.MAX_LAT);
+                assertTrue(grafo.lng(u) >= GeneradorGrafos.MIN_LNG && grafo.lng(u) <= GeneradorGrafos.MAX_LNG);
+                for (int e = grafo.inicio(u); e < grafo.fin(u); e++) {
+                    int v = grafo.destino(e);
+                    assertNotEquals(u, v);
+                    assertTrue(grafo.peso(e) >= Geo.haversineKm(grafo.lat(u), grafo.lng(u), grafo.lat(v), grafo.lng(v)) - 0.1);
+                    assertEquals(grafo.peso(e), pesoHacia(grafo, v, u), modelo.name());
+                }
+            }
+        }
+    }
+    
+    @Test
+    void hubsConcentranLasRutas() {
+        GrafoSnapshot grafo = GeneradorGrafos.generar(GeneradorGrafos.Modelo.HUBS, 20_000, 5, 1);
+        int maximo = 0;
+        for (int u = 0; u < grafo.numNodos(); u++) {
+            maximo = Math.max(maximo, grafo.fin(u) - grafo.inicio(u));
+        }
+        // En un grafo geométrico el grado máximo es chico; con enganche preferencial crece como √n
+        assertTrue(maximo > 50, "grado máximo " + maximo);
+    }
+    
+    private static double pesoHacia(GrafoSnapshot grafo, int u, int v) {
+        for (int e = grafo.inicio(u); e < grafo.fin(u); e++) {
+            if (grafo.destino(e) == v) {
+                return grafo.peso(e);
+            }
+        }
+        return Double.NaN;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.minimaps.grafo;
+
+import com.example.minimaps.domain.Ciudad;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IndiceEspacialTests {
+    
+    @Test
+    void vecinosCoincidenConBusquedaExhaustiva() {
+        // Puntos en todo el globo, con agrupamientos cerca del antimeridiano y de los polos
+        Random random = new Random(17);
+        List<Ciudad> ciudades = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            double lat = i % 4 == 0 ? 85 + random.nextDouble() * 5 : -90 + random.nextDouble() * 180;
+            double lng = i % 3 == 0 ? 179 - random.nextDouble() * 2 : -180 + random.nextDouble() * 360;
+            ciudades.add(new Ciudad("c" + i, "Ciudad " + i, lat, Math.max(-180, Math.min(180, lng))));
+        }
+        GrafoSnapshot g = GrafoSnapshot.desde(1, ciudades);
+        IndiceEspacial indice = g.indiceEspacial();
+        assertEquals(g.numNodos(), indice.tamano());
+        
+        for (int consulta = 0; consulta < 300; consulta++) {
+            double lat = -90 + random.nextDouble() * 180;
+            double lng = consulta % 2 == 0 ? (random.nextBoolean() ? -180 : 180) + random.nextGaussian() : -180 + random.nextDouble() * 360;
+            int k = 1 + random.nextInt(20);
+            double[] distancias = IntStream.range(0, g.numNodos())
+                    .mapToDouble(v -> Geo.haversineKm(lat, lng, g.lat(v), g.lng(v))).toArray();
+            double[] esperadas = IntStream.range(0, g.numNodos()).boxed()
+                    .sorted(Comparator.comparingDouble(v -> distancias[v]))
+                    .limit(k).mapToDouble(v -> distancias[v]).toArray();
+            
+            int[] cercanos = indice.cercanos(lat, lng, k);
+            assertArrayEquals(esperadas, Arrays.stream(cercanos).mapToDouble(v -> distancias[v]).toArray(), 1e-9);
+        }
+        
+        assertEquals(0, GrafoSnapshot.vacio().indiceEspacial().cercanos(0, 0, 3).length);
+        assertEquals(-1, GrafoSnapshot.vacio().indiceEspacial().masCercano(0, 0));
+    }
+    
+    @Test
+    void rectanguloCoincideConBusquedaExhaustiva() {
+        Random random = new Random(18);
+        List<Ciudad> ciudades = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            ciudades.add(new Ciudad("c" + i, "Ciudad " + i,
+                    -90 + random.nextDouble() * 180, -180 + random.nextDouble() * 360));
+        }
+        GrafoSnapshot g = GrafoSnapshot.desde(1, ciudades);
+        
+        for (int consulta = 0; consulta < 300; consulta++) {
+            double minLat = -90 + random.nextDouble() * 170;
+            double maxLat = minLat + random.nextDouble() * 20;
+            double minLng = -180 + random.nextDouble() * 360;
+            // La mitad de los rectángulos cruzan el antimeridiano
+            double maxLng = consulta % 2 == 0 ? minLng + random.nextDouble() * 30 : -180 + random.nextDouble() * 20;
+            Rectangulo rectangulo = new Rectangulo(minLat, minLng, maxLat, Math.min(180, maxLng));
+            int[] esperados = IntStream.range(0, g.numNodos())
+                    .filter(v -> rectangulo.contiene(g.lat(v), g.lng(v))).toArray();
+            
+            int[] encontrados = g.indiceEspacial().dentroDe(rectangulo);
+            Arrays.sort(encontrados);
+            assertArrayEquals(esperados, encontrados);
+        }
+        
+        assertEquals(0, GrafoSnapshot.vacio().indiceEspacial().dentroDe(new Rectangulo(-90, -180, 90, 180)).length);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.minimaps.grafo;
+
+import com.example.minimaps.GrafoDePrueba;
+import com.example.minimaps.domain.Ciudad;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PiramideClustersTests {
+    
+    @Test
+    void cadaNivelConservaCiudadesYRutas() {
+        List<Ciudad> ciudades = GrafoDePrueba.ciudadesAleatorias(5_000, 4, 21);
+        GrafoSnapshot g = GrafoSnapshot.desde(1, ciudades);
+        PiramideClusters piramide = PiramideClusters.construir(g, 10);
+        
+        int anteriores = Integer.MAX_VALUE;
+        for (int zoom = 10; zoom >= 0; zoom--) {
+            PiramideClusters.Nivel nivel = piramide.nivel(zoom);
+            assertTrue(nivel.tamano() <= anteriores);
+            anteriores = nivel.tamano();
+            
+            int total = 0;
+            for (int c = 0; c < nivel.tamano(); c++) {
+                total += nivel.cantidad(c);
+            }
+            assertEquals(g.numNodos(), total);
+            
+            // Las aristas están en los dos sentidos, sin repetir vecinos ni lazos
+            long rutasEntreClusters = 0;
+            for (int c = 0; c < nivel.tamano(); c++) {
+                int[] vecinos = new int[nivel.fin(c) - nivel.inicio(c)];
+                for (int e = nivel.inicio(c); e < nivel.fin(c); e++) {
+                    vecinos[e - nivel.inicio(c)] = nivel.vecino(e);
+                    assertTrue(nivel.vecino(e) != c);
+                    rutasEntreClusters += nivel.rutas(e);
+                }
+                assertEquals(vecinos.length, Arrays.stream(vecinos).distinct().count());
+            }
+            assertEquals(0, rutasEntreClusters % 2);
+            assertTrue(rutasEntreClusters / 2 <= g.numAristas());
+        }
+        assertTrue(piramide.nivel(0).tamano() <= 16);
+        assertEquals(10, piramide.nivel(99).zoom());
+    }
+    
+    @Test
+    void lasRutasDeUnNivelSonLasDelNivelInferiorAgrupadas() {
+        List<Ciudad> ciudades = GrafoDePrueba.ciudadesAleatorias(2_000, 3, 22);
+        GrafoSnapshot g = GrafoSnapshot.desde(1, ciudades);
+        PiramideClusters piramide = PiramideClusters.construir(g, 8);
+        
+        // Reparto de ciudades en celdas calculado a mano para el zoom 5 (celdas de 64 px)
+        PiramideClusters.Nivel nivel = piramide.nivel(5);
+        int lado = 1 << 7;
+        Map<String, Integer> porCelda = new HashMap<>();
+        for (int c = 0; c < nivel.tamano(); c++) {
+            porCelda.put(nivel.id(c), c);
+        }
+        int[] cluster = new int[g.numNodos()];
+        for (int v = 0; v < g.numNodos(); v++) {
+            double phi = Math.toRadians(g.lat(v));
+            double y = (1 - Math.log(Math.tan(Math.PI / 4 + phi / 2)) / Math.PI) / 2;
+            int x = (int) Math.floor((g.lng(v) + 180) / 360 * lado);
+            cluster[v] = porCelda.get("5/" + Math.min(lado - 1, x) + "/" + (int) Math.floor(y * lado));
+        }
+        
+        // Cantidad de rutas y la más corta entre cada par de clusters, por fuerza bruta
+        for (int c = 0; c < nivel.tamano(); c++) {
+            for (int e = nivel.inicio(c); e < nivel.fin(c); e++) {
+                int d = nivel.vecino(e);
+                int rutas = 0;
+                double minima = Double.POSITIVE_INFINITY;
+                for (int u = 0; u < g.numNodos(); u++) {
+                    for (int f = g.inicio(u); f < g.fin(u); f++) {
+                        int a = cluster[u];
+                        int b = cluster[g.destino(f)];
+                        if ((a == c && b == d) || (a == d && b == c)) {
+                            rutas++;
+                            minima = Math.min(minima, g.peso(f));
+                        }
+                    }
+                }
+                assertEquals(rutas, nivel.rutas(e));
+                assertEquals(minima, nivel.distanciaKm(e), 1e-9);
+            }
+        }
+    }
+}
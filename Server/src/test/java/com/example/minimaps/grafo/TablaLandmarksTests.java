@@ -0,0 +1,62 @@
+package com.example.minimaps.grafo;
+
+import com.example.minimaps.GrafoDePrueba;
+import com.example.minimaps.domain.Ciudad;
+import com.example.minimaps.domain.Ruta;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TablaLandmarksTests {
+    
+    private final GrafoSnapshot grafo = GrafoSnapshot.desde(1, GrafoDePrueba.ciudadesAleatorias(300, 3, 11));
+    
+    @Test
+    void cotasNuncaSuperanLaDistanciaReal() {
+        TablaLandmarks tabla = TablaLandmarks.construir(grafo, 6);
+        for (int destino = 0; destino < grafo.numNodos(); destino += 13) {
+            double[] haciaDestino = TablaLandmarks.unoATodos(grafo, destino, true);
+            for (int v = 0; v < grafo.numNodos(); v++) {
+                assertTrue(tabla.cota(v, destino) <= haciaDestino[v] + 1e-9);
+            }
+        }
+    }
+    
+    @Test
+    void altEncuentraLaMismaDistanciaQueDijkstraAsentandoMenos() {
+        TablaLandmarks tabla = TablaLandmarks.construir(grafo, 6);
+        long asentadosAlt = 0;
+        long asentadosDijkstra = 0;
+        for (int origen = 0; origen < grafo.numNodos(); origen += 17) {
+            for (int destino = 0; destino < grafo.numNodos(); destino += 19) {
+                Camino dijkstra = AEstrella.buscar(grafo, origen, destino, v -> 0.0);
+                Camino alt = AEstrella.buscar(grafo, origen, destino, tabla.heuristica(destino));
+                assertEquals(dijkstra.distancia(), alt.distancia(), 1e-6);
+                asentadosAlt += alt.asentados();
+                asentadosDijkstra += dijkstra.asentados();
+            }
+        }
+        assertTrue(asentadosAlt < asentadosDijkstra);
+    }
+    
+    @Test
+    void usaMenosLandmarksSiNoAlcanzanLosNodos() {
+        // c0 - c1 - c2 en línea y c3 aislada: el nodo 0 también puede ser landmark
+        Ciudad c0 = new Ciudad("c0", "C0", -34.0, -58.0);
+        Ciudad c1 = new Ciudad("c1", "C1", -33.0, -58.0);
+        Ciudad c2 = new Ciudad("c2", "C2", -32.5, -58.0);
+        Ciudad c3 = new Ciudad("c3", "C3", -40.0, -65.0);
+        c0.getRutas().add(new Ruta(100, c1));
+        c1.getRutas().add(new Ruta(100, c0));
+        c1.getRutas().add(new Ruta(50, c2));
+        c2.getRutas().add(new Ruta(50, c1));
+        
+        TablaLandmarks tabla = TablaLandmarks.construir(GrafoSnapshot.desde(1, List.of(c0, c1, c2, c3)), 5);
+        assertArrayEquals(new int[] { 2, 0, 1 }, tabla.landmarks());
+        assertEquals(150, tabla.cota(0, 2), 1e-9);
+    }
+}
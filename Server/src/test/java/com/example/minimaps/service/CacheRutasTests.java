@@ -0,0 +1,68 @@
+package com.example.minimaps.service;
+
+import com.example.minimaps.dto.CacheEstadisticasResponse;
+import com.example.minimaps.grafo.GrafoActualizadoEvent;
+import com.example.minimaps.grafo.GrafoSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CacheRutasTests {
+    
+    @Test
+    void repiteResultadoHastaQueCambiaLaVersion() {
+        CacheRutas cache = new CacheRutas(true, 100, 1000);
+        AtomicInteger calculos = new AtomicInteger();
+        
+        cache.obtener("dijkstra", "a", "b", 1, () -> List.of(calculos.incrementAndGet()));
+        cache.obtener("dijkstra", "a", "b", 1, () -> List.of(calculos.incrementAndGet()));
+        cache.obtener("dijkstra", "b", "a", 1, () -> List.of(calculos.incrementAndGet()));
+        cache.obtener("dijkstra", "a", "b", 2, () -> List.of(calculos.incrementAndGet()));
+        assertEquals(3, calculos.get());
+        
+        cache.alActualizarGrafo(new GrafoActualizadoEvent(GrafoSnapshot.desde(2, List.of())));
+        CacheEstadisticasResponse estadisticas = cache.estadisticas();
+        assertEquals(1, estadisticas.getEntradas());
+        assertEquals(1, estadisticas.getAciertos());
+        assertEquals(3, estadisticas.getFallos());
+    }
+    
+    @Test
+    void noGuardaResultadosDeVersionesYaReemplazadas() {
+        CacheRutas cache = new CacheRutas(true, 100, 1000);
+        // El grafo v2 se publica mientras todavía se calcula sobre v1
+        cache.obtener("dijkstra", "a", "b", 1, () -> {
+            cache.alActualizarGrafo(new GrafoActualizadoEvent(GrafoSnapshot.desde(2, List.of())));
+            return List.of(1);
+        });
+        assertEquals(0, cache.estadisticas().getEntradas());
+        
+        cache.obtener("dijkstra", "a", "b", 2, () -> List.of(2));
+        assertEquals(1, cache.estadisticas().getEntradas());
+    }
+    
+    @Test
+    void desalojaLaMenosUsadaAlSuperarLosLimites() {
+        CacheRutas cache = new CacheRutas(true, 2, 1000);
+        cache.obtener("bfs", "a", null, 1, () -> List.of(1));
+        cache.obtener("bfs", "b", null, 1, () -> List.of(2));
+        cache.obtener("bfs", "a", null, 1, () -> List.of(1));
+        cache.obtener("bfs", "c", null, 1, () -> List.of(3));
+        
+        // "b" fue la menos usada
+        AtomicInteger calculos = new AtomicInteger();
+        cache.obtener("bfs", "a", null, 1, () -> List.of(calculos.incrementAndGet()));
+        cache.obtener("bfs", "b", null, 1, () -> List.of(calculos.incrementAndGet()));
+        assertEquals(1, calculos.get());
+        
+        // Peso: cada lista pesa 1 + tamaño
+        CacheRutas chica = new CacheRutas(true, 100, 5);
+        chica.obtener("dfs", "a", null, 1, () -> List.of(1, 2));
+        chica.obtener("dfs", "b", null, 1, () -> List.of(1, 2));
+        assertEquals(1, chica.estadisticas().getEntradas());
+        assertEquals(1, chica.estadisticas().getDesalojos());
+    }
+}
@@ -0,0 +1,355 @@
+package com.example.minimaps.service;
+
+import com.example.minimaps.GrafoDePrueba;
+import com.example.minimaps.domain.Ciudad;
+import com.example.minimaps.domain.Ruta;
+import com.example.minimaps.dto.BfsResponse;
+import com.example.minimaps.dto.CiudadCercanaDTO;
+import com.example.minimaps.dto.ClusterEdgeDTO;
+import com.example.minimaps.dto.ClustersResponse;
+import com.example.minimaps.dto.EdgeDTO;
+import com.example.minimaps.dto.MapaResponse;
+import com.example.minimaps.dto.MatrizResponse;
+import com.example.minimaps.dto.RutaResponse;
+import com.example.minimaps.grafo.ArbolEnMemoria;
+import com.example.minimaps.grafo.Camino;
+import com.example.minimaps.grafo.GrafoEnMemoria;
+import com.example.minimaps.grafo.GrafoSnapshot;
+import com.example.minimaps.grafo.JerarquiaEnMemoria;
+import com.example.minimaps.grafo.LandmarksEnMemoria;
+import com.example.minimaps.grafo.PiramideEnMemoria;
+import com.example.minimaps.grafo.Rectangulo;
+import com.example.minimaps.grafo.RutasAlternativas;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GrafoServiceTests {
+    
+    private GrafoService grafoService;
+    
+    @BeforeEach
+    void setUp() {
+        GrafoEnMemoria grafo = GrafoDePrueba.grafoEnMemoria(GrafoDePrueba.ciudadesSeed());
+        JerarquiaEnMemoria jerarquias = new JerarquiaEnMemoria(true, "");
+        jerarquias.preparar(grafo.snapshot());
+        LandmarksEnMemoria landmarks = new LandmarksEnMemoria(4);
+        landmarks.preparar(grafo.snapshot());
+        ArbolEnMemoria arboles = new ArbolEnMemoria(true, 1000);
+        arboles.preparar(grafo.snapshot());
+        PiramideEnMemoria piramides = new PiramideEnMemoria(true, 14);
+        piramides.preparar(grafo.snapshot());
+        grafoService = new GrafoService(grafo, jerarquias, landmarks, arboles, piramides,
+                new CacheRutas(true, 1000, 100_000));
+    }
+    
+    @Test
+    void obtenerMapaDevuelveTodasLasRutas() {
+        MapaResponse mapa = grafoService.obtenerMapa();
+        assertEquals(11, mapa.getNodes().size());
+        assertEquals(30, mapa.getEdges().size());
+    }
+    
+    @Test
+    void bfsYDfsVisitanTodasLasCiudades() {
+        List<Ciudad> bfs = grafoService.bfs("bsas");
+        List<Ciudad> dfs = grafoService.dfs("bsas");
+        assertEquals(11, bfs.size());
+        assertEquals(11, dfs.size());
+        assertEquals("bsas", bfs.get(0).getId());
+        assertEquals("bsas", dfs.get(0).getId());
+    }
+    
+    @Test
+    void dijkstraEncuentraElCaminoMinimo() {
+        RutaResponse ruta = grafoService.dijkstra("mdq", "salta");
+        // mdq -> bsas -> rosario -> cordoba -> tucuman -> salta
+        assertEquals(404 + 300 + 350 + 550 + 311, ruta.getDistanciaTotalKm(), 1e-9);
+        assertEquals(6, ruta.getCamino().size());
+        assertEquals("mdq", ruta.getCamino().get(0).getId());
+        assertEquals("salta", ruta.getCamino().get(5).getId());
+    }
+    
+    @Test
+    void dijkstraConCiudadDesconocidaDevuelveCaminoVacio() {
+        RutaResponse ruta = grafoService.dijkstra("bsas", "atlantida");
+        assertTrue(ruta.getCamino().isEmpty());
+        assertEquals(Double.POSITIVE_INFINITY, ruta.getDistanciaTotalKm());
+    }
+    
+    @Test
+    void astarCoincideConDijkstraYAsientaMenosNodos() {
+        for (Ciudad origen : grafoService.obtenerMapa().getNodes()) {
+            for (Ciudad destino : grafoService.obtenerMapa().getNodes()) {
+                RutaResponse dijkstra = grafoService.dijkstra(origen.getId(), destino.getId());
+                RutaResponse astar = grafoService.astar(origen.getId(), destino.getId());
+                assertEquals(dijkstra.getDistanciaTotalKm(), astar.getDistanciaTotalKm(), 1e-9);
+                assertEquals(dijkstra.getCamino(), astar.getCamino());
+                assertTrue(astar.getNodosAsentados() <= dijkstra.getNodosAsentados());
+            }
+        }
+    }
+    
+    @Test
+    void dijkstraBidireccionalCoincideConDijkstra() {
+        for (Ciudad origen : grafoService.obtenerMapa().getNodes()) {
+            for (Ciudad destino : grafoService.obtenerMapa().getNodes()) {
+                RutaResponse dijkstra = grafoService.dijkstra(origen.getId(), destino.getId());
+                RutaResponse bidi = grafoService.dijkstraBidireccional(origen.getId(), destino.getId());
+                assertEquals(dijkstra.getDistanciaTotalKm(), bidi.getDistanciaTotalKm(), 1e-9);
+                assertEquals(dijkstra.getCamino(), bidi.getCamino());
+            }
+        }
+    }
+    
+    @Test
+    void contraccionJerarquicaCoincideConDijkstra() {
+        for (Ciudad origen : grafoService.obtenerMapa().getNodes()) {
+            for (Ciudad destino : grafoService.obtenerMapa().getNodes()) {
+                RutaResponse dijkstra = grafoService.dijkstra(origen.getId(), destino.getId());
+                RutaResponse ch = grafoService.contraccionJerarquica(origen.getId(), destino.getId());
+                assertEquals(dijkstra.getDistanciaTotalKm(), ch.getDistanciaTotalKm(), 1e-9);
+                assertEquals(dijkstra.getCamino(), ch.getCamino());
+            }
+        }
+    }
+    
+    @Test
+    void altCoincideConDijkstraYAsientaMenosNodos() {
+        for (Ciudad origen : grafoService.obtenerMapa().getNodes()) {
+            for (Ciudad destino : grafoService.obtenerMapa().getNodes()) {
+                RutaResponse dijkstra = grafoService.dijkstra(origen.getId(), destino.getId());
+                RutaResponse alt = grafoService.alt(origen.getId(), destino.getId());
+                assertEquals(dijkstra.getDistanciaTotalKm(), alt.getDistanciaTotalKm(), 1e-9);
+                assertEquals(dijkstra.getCamino(), alt.getCamino());
+                assertTrue(alt.getNodosAsentados() <= dijkstra.getNodosAsentados());
+            }
+        }
+    }
+    
+    @Test
+    void matrizCoincideConDijkstraPorPar() {
+        List<String> origenes = List.of("bsas", "salta", "chubut");
+        List<String> destinos = List.of("misiones", "mendoza", "bsas", "mendoza", "atlantida");
+        MatrizResponse matriz = grafoService.matriz(origenes, destinos);
+        for (int i = 0; i < origenes.size(); i++) {
+            for (int j = 0; j < destinos.size(); j++) {
+                double esperado = grafoService.dijkstra(origenes.get(i), destinos.get(j)).getDistanciaTotalKm();
+                assertEquals((float) esperado, matriz.getDistanciasKm()[i][j]);
+            }
+        }
+    }
+    
+    @Test
+    void alcanceDevuelveSoloCiudadesDentroDelPresupuesto() {
+        MapaResponse alcance = grafoService.alcance("bsas", 700);
+        // bsas (0), rosario (300), mdq (404), cordoba (650)
+        assertEquals(4, alcance.getNodes().size());
+        assertEquals(3, alcance.getEdges().size());
+        assertEquals(650.0, alcance.getDistanciasKm().get("cordoba"), 1e-9);
+        for (Ciudad ciudad : alcance.getNodes()) {
+            double esperado = grafoService.dijkstra("bsas", ciudad.getId()).getDistanciaTotalKm();
+            assertEquals(esperado, alcance.getDistanciasKm().get(ciudad.getId()), 1e-9);
+        }
+    }
+    
+    @Test
+    void alternativasSonCaminosDistintosYOrdenados() {
+        List<RutaResponse> rutas = grafoService.alternativas("bsas", "salta", 3, 1.0);
+        assertEquals(3, rutas.size());
+        assertEquals(grafoService.dijkstra("bsas", "salta").getDistanciaTotalKm(),
+                rutas.get(0).getDistanciaTotalKm(), 1e-9);
+        
+        Set<List<String>> vistos = new HashSet<>();
+        double anterior = 0;
+        for (RutaResponse ruta : rutas) {
+            List<String> ids = ruta.getCamino().stream().map(Ciudad::getId).toList();
+            assertTrue(vistos.add(ids));
+            assertEquals(new HashSet<>(ids).size(), ids.size());
+            assertEquals("bsas", ids.get(0));
+            assertEquals("salta", ids.get(ids.size() - 1));
+            assertTrue(ruta.getDistanciaTotalKm() >= anterior);
+            anterior = ruta.getDistanciaTotalKm();
+        }
+        
+        assertEquals(1, grafoService.alternativas("bsas", "salta", 3, 0.0).size());
+    }
+    
+    @Test
+    void alternativasConPlazoVencidoDevuelvenLaMasCorta() {
+        GrafoSnapshot g = GrafoSnapshot.desde(1, GrafoDePrueba.ciudadesSeed());
+        List<Camino> caminos = RutasAlternativas.calcular(g, g.indiceDe("bsas"), g.indiceDe("salta"), 3, 1.0, -1);
+        assertEquals(1, caminos.size());
+        assertEquals(grafoService.dijkstra("bsas", "salta").getDistanciaTotalKm(), caminos.get(0).distancia(), 1e-9);
+    }
+    
+    @Test
+    void recorridosIncrementalesRespetanOrdenLimiteYProfundidad() {
+        List<String> bfs = new ArrayList<>();
+        grafoService.bfsIncremental("bsas", 0, -1, (ciudad, nivel) -> bfs.add(ciudad.getId()));
+        assertEquals(grafoService.bfs("bsas").stream().map(Ciudad::getId).toList(), bfs);
+        
+        List<String> dfs = new ArrayList<>();
+        grafoService.dfsIncremental("bsas", 0, -1, (ciudad, nivel) -> dfs.add(ciudad.getId()));
+        assertEquals(grafoService.dfs("bsas").stream().map(Ciudad::getId).toList(), dfs);
+        
+        List<String> primeras = new ArrayList<>();
+        grafoService.bfsIncremental("bsas", 3, -1, (ciudad, nivel) -> primeras.add(ciudad.getId()));
+        assertEquals(bfs.subList(0, 3), primeras);
+        
+        BfsResponse niveles = grafoService.bfsPorNiveles("bsas");
+        List<String> hastaNivelUno = new ArrayList<>();
+        grafoService.bfsIncremental("bsas", 0, 1, (ciudad, nivel) -> hastaNivelUno.add(ciudad.getId()));
+        long esperadas = Arrays.stream(niveles.getNiveles()).filter(nivel -> nivel <= 1).count();
+        assertEquals(esperadas, hastaNivelUno.size());
+        
+        List<Integer> profundidades = new ArrayList<>();
+        grafoService.dfsIncremental("bsas", 0, 2, (ciudad, nivel) -> profundidades.add(nivel));
+        assertTrue(profundidades.stream().allMatch(nivel -> nivel <= 2));
+    }
+    
+    @Test
+    void cercanasOrdenaPorDistanciaYSirveParaRutearDesdeCoordenadas() {
+        // Un punto entre Rosario y Buenos Aires, más cerca de Rosario
+        List<CiudadCercanaDTO> cercanas = grafoService.cercanas(-33.3, -60.2, 3);
+        assertEquals(List.of("rosario", "bsas", "cordoba"),
+                cercanas.stream().map(c -> c.getCiudad().getId()).toList());
+        assertTrue(cercanas.get(0).getDistanciaKm() < cercanas.get(1).getDistanciaKm());
+        assertEquals("salta", grafoService.ciudadMasCercana(-24.9, -65.5));
+    }
+    
+    @Test
+    void mapaPorRectanguloPaginaCiudadesYRutasSinRepetir() {
+        // Buenos Aires, Rosario y Córdoba; Mar del Plata queda afuera
+        Rectangulo rectangulo = Rectangulo.parse("-35,-65,-31,-57");
+        MapaResponse primera = grafoService.obtenerMapa(rectangulo, 0, 2);
+        MapaResponse segunda = grafoService.obtenerMapa(rectangulo, primera.getSiguienteOffset(), 2);
+        
+        assertEquals(3, primera.getTotalNodos());
+        assertEquals(2, primera.getNodes().size());
+        assertEquals(1, segunda.getNodes().size());
+        assertNull(segunda.getSiguienteOffset());
+        assertEquals(Set.of("bsas", "rosario", "cordoba"),
+                Stream.concat(primera.getNodes().stream(), segunda.getNodes().stream())
+                        .map(Ciudad::getId).collect(Collectors.toSet()));
+        
+        // 13 rutas salen de las tres ciudades y 7 llegan desde afuera del rectángulo
+        List<String> rutas = Stream.concat(primera.getEdges().stream(), segunda.getEdges().stream())
+                .map(e -> e.getOrigenId() + ">" + e.getDestinoId()).toList();
+        assertEquals(20, rutas.size());
+        assertEquals(20, Set.copyOf(rutas).size());
+        assertTrue(rutas.contains("mdq>bsas"));
+        assertTrue(rutas.contains("bsas>mdq"));
+    }
+    
+    @Test
+    void clustersAgrupanSegunElZoom() {
+        // A zoom 0 todo el país cae en una celda, representada por la ciudad con más rutas
+        ClustersResponse pais = grafoService.clusters(0, null);
+        assertEquals(1, pais.getNodes().size());
+        assertEquals(11, pais.getNodes().get(0).getCiudades());
+        assertEquals("bsas", pais.getNodes().get(0).getCiudadId());
+        assertTrue(pais.getEdges().isEmpty());
+        
+        // Zooms mayores que el máximo usan el nivel más detallado: una ciudad por cluster
+        ClustersResponse detalle = grafoService.clusters(20, null);
+        assertEquals(14, detalle.getZoom());
+        assertEquals(11, detalle.getNodes().size());
+        assertEquals(15, detalle.getEdges().size());
+        assertEquals(30, detalle.getEdges().stream().mapToInt(ClusterEdgeDTO::getRutas).sum());
+        
+        // Buenos Aires, Rosario y Córdoba: 3 aristas entre ellas y 7 hacia clusters de afuera
+        ClustersResponse visibles = grafoService.clusters(14, Rectangulo.parse("-35,-65,-31,-57"));
+        assertEquals(3, visibles.getNodes().size());
+        assertEquals(10, visibles.getEdges().size());
+    }
+    
+    @Test
+    void primKruskalYBoruvkaTienenElMismoPeso() {
+        MapaResponse prim = grafoService.prim();
+        MapaResponse kruskal = grafoService.kruskal();
+        MapaResponse boruvka = grafoService.boruvka();
+        assertEquals(10, prim.getEdges().size());
+        assertEquals(10, kruskal.getEdges().size());
+        assertEquals(10, boruvka.getEdges().size());
+        assertEquals(peso(kruskal), peso(prim), 1e-9);
+        assertEquals(peso(kruskal), peso(boruvka), 1e-9);
+        assertEquals(kruskal.getNodes(), boruvka.getNodes());
+    }
+    
+    @Test
+    void clustersNoSeConstruyenEnLaConsulta() {
+        GrafoEnMemoria grafo = GrafoDePrueba.grafoEnMemoria(GrafoDePrueba.ciudadesSeed());
+        PiramideEnMemoria piramides = new PiramideEnMemoria(true, 14);
+        GrafoService servicio = new GrafoService(grafo, new JerarquiaEnMemoria(false, ""), new LandmarksEnMemoria(0),
+                new ArbolEnMemoria(false, 0), piramides, new CacheRutas(false, 0, 0));
+        assertNull(servicio.clusters(0, null));
+        assertNull(piramides.para(grafo.snapshot()));
+        
+        // Una pirámide de un grafo más viejo no reemplaza a la ya publicada de uno más nuevo
+        GrafoSnapshot nuevo = GrafoSnapshot.desde(5, GrafoDePrueba.ciudadesSeed());
+        GrafoSnapshot viejo = GrafoSnapshot.desde(4, GrafoDePrueba.ciudadesSeed());
+        piramides.preparar(nuevo);
+        piramides.preparar(viejo);
+        assertNull(piramides.para(viejo));
+        assertEquals(nuevo, piramides.para(nuevo).grafo());
+    }
+    
+    @Test
+    void primNoUsaElBosqueMantenido() {
+        // Dos componentes: el seed y un par de ciudades unidas solo entre sí
+        List<Ciudad> ciudades = GrafoDePrueba.ciudadesSeed();
+        Ciudad a = new Ciudad("isla-a", "Isla A", -54.8, -68.3);
+        Ciudad b = new Ciudad("isla-b", "Isla B", -53.8, -67.7);
+        a.getRutas().add(new Ruta(120, b));
+        b.getRutas().add(new Ruta(120, a));
+        ciudades.add(a);
+        ciudades.add(b);
+        GrafoEnMemoria grafo = GrafoDePrueba.grafoEnMemoria(ciudades);
+        ArbolEnMemoria arboles = new ArbolEnMemoria(true, 1000);
+        arboles.preparar(grafo.snapshot());
+        GrafoService servicio = new GrafoService(grafo, new JerarquiaEnMemoria(false, ""), new LandmarksEnMemoria(0),
+                arboles, new PiramideEnMemoria(false, 0), new CacheRutas(false, 0, 0));
+        
+        assertEquals(10, servicio.prim().getEdges().size());
+        assertEquals(11, servicio.kruskal().getEdges().size());
+    }
+    
+    @Test
+    void kruskalNoDependeDeQueElBosqueMantenidoEsteListo() {
+        // Pesos de 1 a 5 km: casi todas las aristas empatan con otras
+        List<Ciudad> ciudades = GrafoDePrueba.bidireccionales(GrafoDePrueba.ciudadesAleatorias(300, 3, 11));
+        for (Ciudad ciudad : ciudades) {
+            for (Ruta ruta : ciudad.getRutas()) {
+                ruta.setDistanciaKm(1 + ruta.getDistanciaKm() % 5);
+            }
+        }
+        GrafoEnMemoria grafo = GrafoDePrueba.grafoEnMemoria(ciudades);
+        ArbolEnMemoria listo = new ArbolEnMemoria(true, 1000);
+        // Mantenido desde otra versión del grafo, no calculado desde cero
+        listo.preparar(GrafoSnapshot.desde(0, GrafoDePrueba.bidireccionales(GrafoDePrueba.ciudadesAleatorias(300, 3, 11))));
+        listo.preparar(grafo.snapshot());
+        GrafoService conBosque = new GrafoService(grafo, new JerarquiaEnMemoria(false, ""), new LandmarksEnMemoria(0),
+                listo, new PiramideEnMemoria(false, 0), new CacheRutas(false, 0, 0));
+        GrafoService sinBosque = new GrafoService(grafo, new JerarquiaEnMemoria(false, ""), new LandmarksEnMemoria(0),
+                new ArbolEnMemoria(false, 0), new PiramideEnMemoria(false, 0), new CacheRutas(false, 0, 0));
+        
+        assertTrue(listo.para(grafo.snapshot()).cambiosAplicados() > 0);
+        assertEquals(sinBosque.kruskal().getEdges(), conBosque.kruskal().getEdges());
+    }
+    
+    static double peso(MapaResponse mst) {
+        return mst.getEdges().stream().mapToDouble(EdgeDTO::getDistanciaKm).sum();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.minimaps.service;
+
+import com.example.minimaps.GrafoDePrueba;
+import com.example.minimaps.grafo.GrafoActualizadoEvent;
+import com.example.minimaps.grafo.GrafoEnMemoria;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class RespuestasSerializadasTests {
+    
+    @Test
+    void serializaUnaVezPorVersionDelGrafo() throws Exception {
+        GrafoEnMemoria grafo = GrafoDePrueba.grafoEnMemoria(GrafoDePrueba.ciudadesSeed());
+        RespuestasSerializadas respuestas = new RespuestasSerializadas(grafo);
+        AtomicInteger serializaciones = new AtomicInteger();
+        
+        RespuestasSerializadas.Serializada primera = respuestas.obtener("mapa.json",
+                () -> ("{\"v\":" + serializaciones.incrementAndGet() + "}").repeat(100).getBytes(StandardCharsets.UTF_8));
+        RespuestasSerializadas.Serializada segunda = respuestas.obtener("mapa.json",
+                () -> ("{\"v\":" + serializaciones.incrementAndGet() + "}").getBytes(StandardCharsets.UTF_8));
+        assertSame(primera, segunda);
+        assertEquals(1, serializaciones.get());
+        assertNotEquals(primera.etag(), primera.etagGzip());
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(primera.gzip()))) {
+            assertArrayEquals(primera.bytes(), gzip.readAllBytes());
+        }
+        
+        // Otra versión del grafo (aunque tenga los mismos datos) se vuelve a serializar
+        respuestas.alActualizarGrafo(new GrafoActualizadoEvent(grafo.publicar(GrafoDePrueba.ciudadesSeed())));
+        RespuestasSerializadas.Serializada tercera = respuestas.obtener("mapa.json",
+                () -> ("{\"v\":" + serializaciones.incrementAndGet() + "}").getBytes(StandardCharsets.UTF_8));
+        assertEquals(2, serializaciones.get());
+        assertNotEquals(primera.etag(), tercera.etag());
+    }
+}